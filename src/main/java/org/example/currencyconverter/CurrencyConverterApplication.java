@@ -2,6 +2,7 @@ package org.example.currencyconverter;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
@@ -16,10 +17,12 @@ import org.springframework.scheduling.annotation.EnableScheduling;
  * @SpringBootApplication Аннотация, объединяющая @Configuration, @EnableAutoConfiguration и @ComponentScan.
  * @EnableJpaRepositories Включает поддержку репозиториев JPA и указывает пакет для их поиска.
  * @EnableScheduling Включает поддержку выполнения задач по расписанию.
+ * @ImportRuntimeHints Подключает подсказки для сборки в машинный код (см. {@link CurrencyConverterRuntimeHints}).
  */
 @SpringBootApplication
 @EnableJpaRepositories("org.example.currencyconverter.persistence.repository")
 @EnableScheduling
+@ImportRuntimeHints(CurrencyConverterRuntimeHints.class)
 public class CurrencyConverterApplication {
 
     /**
@@ -0,0 +1,44 @@
+package org.example.currencyconverter;
+
+import org.example.currencyconverter.api.dto.ConversionDto;
+import org.example.currencyconverter.api.dto.ConversionRequestDto;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.api.dto.RateHistoryDto;
+import org.example.currencyconverter.api.dto.RateStatisticsDto;
+import org.example.currencyconverter.api.dto.RateWindowStatsDto;
+import org.example.currencyconverter.api.dto.RatesDeltaDto;
+import org.example.currencyconverter.persistence.entity.ConversionAudit;
+import org.example.currencyconverter.persistence.entity.Currency;
+import org.example.currencyconverter.persistence.entity.CurrencyRateHistory;
+import org.example.currencyconverter.persistence.entity.RatesLease;
+import org.example.currencyconverter.persistence.entity.RatesVersion;
+import org.example.currencyconverter.service.ConversionAuditLog;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Подсказки для сборки в машинный код (GraalVM Native Image) и для AOT-обработки.
+ * <p>
+ * Регистрирует для рефлексии классы, которые Jackson сериализует и читает вне выводимых Spring сигнатур
+ * контроллеров (таблица курсов в JSON и CBOR, пакетная конвертация, события SSE, файл журнала конвертаций),
+ * и сущности JPA.
+ * Разбор ответов ЦБ РФ и ЕЦБ выполняется потоково и рефлексии не требует.
+ * </p>
+ */
+class CurrencyConverterRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        BindingReflectionHintsRegistrar binding = new BindingReflectionHintsRegistrar();
+        binding.registerReflectionHints(hints.reflection(), CurrencyDto.class, ConversionDto.class,
+                ConversionRequestDto.class, RateHistoryDto.class, RatesDeltaDto.class, RateStatisticsDto.class,
+                RateWindowStatsDto.class, ConversionAuditLog.Entry.class);
+        for (Class<?> entity : new Class<?>[]{Currency.class, CurrencyRateHistory.class,
+                RatesLease.class, RatesVersion.class, ConversionAudit.class}) {
+            hints.reflection().registerType(entity, MemberCategory.DECLARED_FIELDS,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.example.currencyconverter.api.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Настройка Spring MVC для API курсов валют.
+ * <p>
+ * Ставит ограничение частоты запросов ({@link RateLimitInterceptor}) перед всеми обработчиками {@code /api}.
+ * </p>
+ */
+@Configuration
+class ApiWebConfig implements WebMvcConfigurer {
+
+    private final RateLimitInterceptor rateLimitInterceptor;
+
+    /**
+     * Конструктор для внедрения зависимостей.
+     *
+     * @param rateLimitInterceptor Ограничение частоты запросов.
+     */
+    @Autowired
+    ApiWebConfig(RateLimitInterceptor rateLimitInterceptor) {
+        this.rateLimitInterceptor = rateLimitInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(rateLimitInterceptor).addPathPatterns("/api/**");
+    }
+}
@@ -1,14 +1,63 @@
 package org.example.currencyconverter.api.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.example.currencyconverter.api.dto.ConversionDto;
+import org.example.currencyconverter.api.dto.ConversionRequestDto;
 import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.api.dto.RateHistoryDto;
+import org.example.currencyconverter.api.dto.RateStatisticsDto;
+import org.example.currencyconverter.service.ConversionAuditLog;
 import org.example.currencyconverter.service.CurrencyServiceImpl;
+import org.example.currencyconverter.service.RateHistoryService;
+import org.example.currencyconverter.service.RatesSnapshot;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
 
 /**
  * Контроллер для обработки запросов, связанных с получением информации о курсах валют.
  * <p>
- * Предоставляет REST API для получения данных о валюте по её коду.
+ * Предоставляет REST API для получения данных о валюте по её коду, истории курсов
+ * и конвертации сумм между валютами.
+ * </p>
+ * <p>
+ * Ответы, построенные по снимку курсов, содержат заголовки ETag, Last-Modified и Cache-Control
+ * (см. {@link RatesCacheHeaders}), поэтому повторные условные запросы получают ответ 304.
+ * </p>
+ * <p>
+ * Помимо JSON, ответы доступны в компактном двоичном формате CBOR: для этого клиент указывает
+ * заголовок {@code Accept: application/cbor}.
+ * </p>
+ * <p>
+ * Запросы с неизвестным кодом валюты получают ответ 404, а не ошибку сервера; такие ответы строятся
+ * без создания исключений. Частота запросов от каждого клиента ограничена (см. {@link RateLimitInterceptor}).
+ * </p>
+ * <p>
+ * Каждая выполненная конвертация, в том числе в составе пакета, записывается в журнал
+ * (см. {@link ConversionAuditLog}); запись выполняется в фоновом потоке и не задерживает ответ.
+ * Ответы на конвертацию кэши должны проверять на сервере перед каждым использованием, поэтому
+ * конвертация, повторно отданная с ответом 304, тоже записывается.
  * </p>
  */
 @RestController
@@ -21,28 +70,387 @@ public class CurrencyController {
     private final CurrencyServiceImpl currencyService;
 
     /**
-     * Конструктор для внедрения зависимости сервиса {@link CurrencyServiceImpl}.
+     * Сервис для работы с историей курсов.
+     */
+    private final RateHistoryService rateHistoryService;
+
+    /**
+     * Объект для потокового чтения и записи JSON.
+     */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Заголовки HTTP-кэширования для ответов по снимку курсов.
+     */
+    private final RatesCacheHeaders cacheHeaders;
+
+    /**
+     * Заранее сериализованная таблица всех курсов.
+     */
+    private final RatesTablePayload ratesTable;
+
+    /**
+     * Рассылка изменений курсов подписчикам.
+     */
+    private final RatesUpdateBroadcaster broadcaster;
+
+    /**
+     * Журнал выполненных конвертаций.
+     */
+    private final ConversionAuditLog auditLog;
+
+    /**
+     * Конструктор для внедрения зависимостей.
      *
-     * @param currencyService Сервис для работы с данными о валютах.
+     * @param currencyService    Сервис для работы с данными о валютах.
+     * @param rateHistoryService Сервис для работы с историей курсов.
+     * @param objectMapper       Объект для потокового чтения и записи JSON.
+     * @param cacheHeaders       Заголовки HTTP-кэширования для ответов по снимку курсов.
+     * @param ratesTable         Заранее сериализованная таблица всех курсов.
+     * @param broadcaster        Рассылка изменений курсов подписчикам.
+     * @param auditLog           Журнал выполненных конвертаций.
      */
     @Autowired
-    public CurrencyController(CurrencyServiceImpl currencyService) {
+    public CurrencyController(CurrencyServiceImpl currencyService, RateHistoryService rateHistoryService,
+                              ObjectMapper objectMapper, RatesCacheHeaders cacheHeaders,
+                              RatesTablePayload ratesTable, RatesUpdateBroadcaster broadcaster,
+                              ConversionAuditLog auditLog) {
         this.currencyService = currencyService;
+        this.rateHistoryService = rateHistoryService;
+        this.objectMapper = objectMapper;
+        this.cacheHeaders = cacheHeaders;
+        this.ratesTable = ratesTable;
+        this.broadcaster = broadcaster;
+        this.auditLog = auditLog;
     }
 
     /**
      * Обрабатывает GET-запрос для получения информации о валюте по её коду.
      * <p>
-     * Пример запроса: /api/getData?code=USD
+     * Пример запроса: /api/getData?code=USD или /api/getData?code=USD&amp;date=2024-12-27
+     * </p>
+     * <p>
+     * Если указана дата, возвращается курс, действовавший на эту дату (см. {@link CurrencyServiceImpl#findByCharCode(String, LocalDate)}).
      * </p>
      *
      * @param charCode Код валюты (например, USD, EUR и т.д.).
-     * @return Объект {@link CurrencyDto}, содержащий информацию о запрошенной валюте.
+     * @param date     Дата курса или {@code null} для текущего курса.
+     * @param accept   Значение заголовка Accept запроса.
+     * @return Объект {@link CurrencyDto}, содержащий информацию о запрошенной валюте,
+     * либо описание ошибки со статусом 404, если валюта не найдена.
      */
     @GetMapping("/getData")
     @CrossOrigin(origins = "http://localhost:63342")
-    public CurrencyDto getCurrencyData(@RequestParam("code") String charCode) {
-        return currencyService.getByCharCode(charCode);
+    public ResponseEntity<?> getCurrencyData(@RequestParam("code") String charCode,
+                                             @RequestParam(value = "date", required = false)
+                                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (date != null) {
+            CurrencyDto currency = currencyService.findByCharCode(charCode, date);
+            if (currency == null) {
+                return ResponseEntity.of(ProblemDetail.forStatusAndDetail(
+                        HttpStatus.NOT_FOUND, "Курс валюты " + charCode + " на дату " + date + " не найден.")).build();
+            }
+            return ResponseEntity.ok(currency);
+        }
+        RatesSnapshot snapshot = currencyService.getSnapshot();
+        CurrencyDto currency = currencyService.findByCharCode(snapshot, charCode);
+        if (currency == null) {
+            return ResponseEntity.of(ProblemDetail.forStatusAndDetail(
+                    HttpStatus.NOT_FOUND, "Валюта с кодом " + charCode + " не найдена.")).build();
+        }
+        boolean cbor = acceptsCbor(accept);
+        return cacheHeaders.ok(snapshot, cbor ? "cbor" : null)
+                .contentType(cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(currency);
+    }
+
+    /**
+     * Обрабатывает GET-запрос для получения курсов всех валют.
+     * <p>
+     * Пример запроса: /api/rates
+     * </p>
+     * <p>
+     * Ответ — JSON-массив объектов {@link CurrencyDto}, сериализованный один раз на снимок курсов.
+     * Если клиент принимает gzip, отдаётся заранее сжатая копия. Клиенты, запрашивающие
+     * {@code application/cbor}, получают тот же массив в двоичном формате CBOR.
+     * </p>
+     *
+     * @param accept         Значение заголовка Accept запроса.
+     * @param acceptEncoding Значение заголовка Accept-Encoding запроса.
+     * @return Готовое представление таблицы курсов.
+     */
+    @GetMapping("/rates")
+    @CrossOrigin(origins = "http://localhost:63342")
+    public ResponseEntity<byte[]> getRates(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        RatesSnapshot snapshot = currencyService.getSnapshot();
+        if (acceptsCbor(accept)) {
+            return cacheHeaders.ok(snapshot, "cbor")
+                    .contentType(MediaType.APPLICATION_CBOR)
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .body(ratesTable.cbor(snapshot));
+        }
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return cacheHeaders.ok(snapshot, "gzip")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                    .body(ratesTable.gzip(snapshot));
+        }
+        return cacheHeaders.ok(snapshot)
+                .contentType(MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .body(ratesTable.json(snapshot));
+    }
+
+    /**
+     * Обрабатывает GET-запрос для подписки на изменения курсов (Server-Sent Events).
+     * <p>
+     * Пример запроса: /api/rates/stream
+     * </p>
+     * <p>
+     * Сразу после подключения отправляется событие {@code snapshot} с таблицей всех курсов,
+     * после каждого обновления — событие {@code rates} с изменившимися валютами.
+     * </p>
+     *
+     * @param lastEventId Значение заголовка Last-Event-ID при переподключении.
+     * @return Поток событий.
+     */
+    @GetMapping(value = "/rates/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @CrossOrigin(origins = "http://localhost:63342")
+    public SseEmitter streamRates(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return broadcaster.subscribe(currencyService::getSnapshot, lastEventId);
+    }
+
+    /**
+     * Обрабатывает GET-запрос для получения истории курса валюты за диапазон дат.
+     * <p>
+     * Пример запроса: /api/history?code=USD&amp;from=2024-01-01&amp;to=2024-12-31&amp;page=0&amp;size=366
+     * </p>
+     *
+     * @param charCode Код валюты (например, USD, EUR и т.д.).
+     * @param from     Начальная дата диапазона (включительно).
+     * @param to       Конечная дата диапазона (включительно).
+     * @param page     Номер страницы, начиная с нуля.
+     * @param size     Размер страницы, от 1 до {@link RateHistoryService#MAX_PAGE_SIZE}.
+     * @return Список объектов {@link RateHistoryDto} в порядке возрастания даты
+     * либо описание ошибки со статусом 400, если параметры страницы некорректны.
+     */
+    @GetMapping("/history")
+    @CrossOrigin(origins = "http://localhost:63342")
+    public ResponseEntity<?> getHistory(@RequestParam("code") String charCode,
+                                        @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                        @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                        @RequestParam(value = "page", defaultValue = "0") int page,
+                                        @RequestParam(value = "size", defaultValue = "366") int size) {
+        if (page < 0 || size < 1 || size > RateHistoryService.MAX_PAGE_SIZE) {
+            return ResponseEntity.of(ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST,
+                    "Некорректные параметры страницы: page=" + page + ", size=" + size
+                            + " (size от 1 до " + RateHistoryService.MAX_PAGE_SIZE + ").")).build();
+        }
+        return ResponseEntity.ok(rateHistoryService.fetchHistory(charCode, from, to, page, size));
+    }
+
+    /**
+     * Обрабатывает GET-запрос для получения скользящей статистики курса валюты.
+     * <p>
+     * Пример запроса: /api/stats?code=USD
+     * </p>
+     * <p>
+     * Среднее, минимум, максимум и стандартное отклонение за 7, 30 и 365 дней и изменение за день
+     * вычисляются при обновлении курсов, запрос только возвращает готовые значения.
+     * </p>
+     *
+     * @param charCode Код валюты (например, USD, EUR и т.д.).
+     * @return Объект {@link RateStatisticsDto} либо описание ошибки со статусом 404, если курсов валюты нет.
+     */
+    @GetMapping("/stats")
+    @CrossOrigin(origins = "http://localhost:63342")
+    public ResponseEntity<?> getStatistics(@RequestParam("code") String charCode) {
+        RateStatisticsDto statistics = currencyService.getStatistics(charCode);
+        if (statistics == null) {
+            return ResponseEntity.of(ProblemDetail.forStatusAndDetail(
+                    HttpStatus.NOT_FOUND, "Статистика курса валюты " + charCode + " не найдена.")).build();
+        }
+        return ResponseEntity.ok(statistics);
+    }
+
+    /**
+     * Обрабатывает GET-запрос для конвертации суммы из одной валюты в другую.
+     * <p>
+     * Пример запроса: /api/convert?from=USD&amp;to=EUR&amp;amount=100&amp;date=2024-12-27
+     * </p>
+     * <p>
+     * Без даты конвертация выполняется по текущему снимку курсов, с датой — по курсам, действовавшим
+     * на эту дату (см. {@link CurrencyServiceImpl#convert(String, String, BigDecimal, LocalDate)}).
+     * </p>
+     *
+     * @param from    Код исходной валюты (например, USD, RUB и т.д.).
+     * @param to      Код целевой валюты (например, EUR, RUB и т.д.).
+     * @param amount  Сумма в исходной валюте.
+     * @param date    Дата курсов или {@code null} для текущих курсов.
+     * @param accept  Значение заголовка Accept запроса.
+     * @param request HTTP-запрос, адрес клиента из которого записывается в журнал конвертаций.
+     * @return Объект {@link ConversionDto}, содержащий результат конвертации либо описание ошибки
+     * со статусом 404 (неизвестная валюта) или 400 (некорректная сумма).
+     */
+    @GetMapping("/convert")
+    @CrossOrigin(origins = "http://localhost:63342")
+    public ResponseEntity<ConversionDto> convert(@RequestParam("from") String from,
+                                                 @RequestParam("to") String to,
+                                                 @RequestParam("amount") BigDecimal amount,
+                                                 @RequestParam(value = "date", required = false)
+                                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                 @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                 HttpServletRequest request) {
+        if (date != null) {
+            ConversionDto conversion = currencyService.convert(from, to, amount, date);
+            if (conversion.error != null) {
+                boolean unknown = currencyService.findByCharCode(from, date) == null
+                        || currencyService.findByCharCode(to, date) == null;
+                return ResponseEntity.status(unknown ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST).body(conversion);
+            }
+            auditLog.record(conversion, date, request.getRemoteAddr());
+            return ResponseEntity.ok(conversion);
+        }
+        RatesSnapshot snapshot = currencyService.getSnapshot();
+        ConversionDto conversion = currencyService.convert(snapshot, from, to, amount);
+        if (conversion.error != null) {
+            boolean unknown = snapshot.ordinal(from) < 0 || snapshot.ordinal(to) < 0;
+            return ResponseEntity.status(unknown ? HttpStatus.NOT_FOUND : HttpStatus.BAD_REQUEST).body(conversion);
+        }
+        auditLog.record(conversion, null, request.getRemoteAddr());
+        boolean cbor = acceptsCbor(accept);
+        return cacheHeaders.okRevalidated(snapshot, cbor ? "cbor" : null)
+                .contentType(cbor ? MediaType.APPLICATION_CBOR : MediaType.APPLICATION_JSON)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(conversion);
+    }
+
+    /**
+     * Обрабатывает POST-запрос для пакетной конвертации сумм.
+     * <p>
+     * Тело запроса — JSON-массив объектов {@link ConversionRequestDto} либо поток таких объектов
+     * в формате NDJSON (по одному на строку). Ответ возвращается в том же формате, что и запрос.
+     * Запросы читаются и результаты записываются потоково, без накопления всего пакета в памяти,
+     * а все элементы пакета конвертируются по одному и тому же снимку курсов.
+     * </p>
+     * <p>
+     * Элемент, который не удалось прочитать как {@link ConversionRequestDto} (например, сумма не является
+     * числом), получает на своём месте результат с заполненным полем {@link ConversionDto#error}, и пакет
+     * продолжается. Синтаксическая ошибка JSON прерывает ответ без закрывающей скобки массива,
+     * поэтому клиент видит оборванное тело, а не укороченный, но корректный массив.
+     * </p>
+     *
+     * @param request  HTTP-запрос с пакетом запросов на конвертацию.
+     * @param response HTTP-ответ, в который записываются результаты.
+     * @throws IOException если происходит ошибка при чтении запроса или записи ответа.
+     */
+    @PostMapping(value = "/convert/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @CrossOrigin(origins = "http://localhost:63342")
+    public void convertBatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        boolean ndjson = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+
+        try (MappingIterator<ConversionRequestDto> requests = objectMapper
+                .readerFor(ConversionRequestDto.class)
+                .readValues(request.getInputStream());
+             JsonGenerator generator = objectMapper.createGenerator(response.getOutputStream())) {
+            ObjectWriter writer = objectMapper.writerFor(ConversionDto.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            generator.setRootValueSeparator(null);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (!ndjson) {
+                generator.writeStartArray();
+            }
+            String client = request.getRemoteAddr();
+            Consumer<ConversionDto> results = conversion -> {
+                auditLog.recordBatchItem(conversion, null, client);
+                try {
+                    writer.writeValue(generator, conversion);
+                    if (ndjson) {
+                        generator.writeRaw('\n');
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            };
+            currencyService.convertBatch(new BatchRequests(requests, results), results);
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    /**
+     * Проверяет, запрашивает ли клиент ответ в формате CBOR. Ответы по снимку курсов в форматах JSON и CBOR
+     * получают разные строгие ETag и заголовок {@code Vary: Accept}, чтобы кэш не отдал одно представление
+     * вместо другого.
+     *
+     * @param accept Значение заголовка Accept запроса.
+     * @return {@code true}, если ответ нужно отдать в формате CBOR.
+     */
+    private static boolean acceptsCbor(String accept) {
+        return accept != null && accept.contains(MediaType.APPLICATION_CBOR_VALUE);
     }
 
+    /**
+     * Итератор по элементам пакетного запроса, пропускающий элементы, которые не удалось прочитать.
+     * <p>
+     * Вместо такого элемента получателю сразу передаётся результат с описанием ошибки. Поскольку пакет
+     * обрабатывается последовательно, результат занимает в ответе место непрочитанного элемента.
+     * Синтаксические ошибки JSON не позволяют найти начало следующего элемента и прерывают чтение.
+     * </p>
+     */
+    private static final class BatchRequests implements Iterator<ConversionRequestDto> {
+
+        private final MappingIterator<ConversionRequestDto> requests;
+        private final Consumer<ConversionDto> rejected;
+        private ConversionRequestDto next;
+
+        /**
+         * Конструктор для создания итератора.
+         *
+         * @param requests Итератор десериализации элементов пакета.
+         * @param rejected Получатель результатов для элементов, которые не удалось прочитать.
+         */
+        BatchRequests(MappingIterator<ConversionRequestDto> requests, Consumer<ConversionDto> rejected) {
+            this.requests = requests;
+            this.rejected = rejected;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                try {
+                    if (!requests.hasNextValue()) {
+                        return false;
+                    }
+                    next = requests.nextValue();
+                } catch (JsonMappingException e) {
+                    rejected.accept(ConversionDto.failed(null, null, null,
+                            "Некорректный элемент пакета: " + e.getOriginalMessage()));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public ConversionRequestDto next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            ConversionRequestDto request = next;
+            next = null;
+            return request;
+        }
+    }
 }
@@ -0,0 +1,155 @@
+package org.example.currencyconverter.api.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничение частоты запросов к API для каждого клиента по алгоритму «ведро с жетонами».
+ * <p>
+ * У каждого клиента (адреса, с которого пришёл запрос) есть ведро ёмкостью {@code rates.rate-limit.capacity}
+ * жетонов, которое пополняется со скоростью {@code rates.rate-limit.refill-per-second} жетонов в секунду.
+ * Каждый запрос забирает жетон; если жетонов нет, клиент получает ответ 429 с заголовком Retry-After,
+ * а запрос не доходит до контроллера. За прокси адрес клиента берётся из заголовков X-Forwarded-*,
+ * если включена настройка {@code server.forward-headers-strategy}.
+ * </p>
+ * <p>
+ * Вёдра клиентов, не присылавших запросов дольше времени полного пополнения, удаляются: новое ведро
+ * для такого клиента было бы таким же полным. Если клиентов больше {@code rates.rate-limit.max-clients},
+ * новые клиенты делят одно общее ведро, поэтому перебор адресов не расходует память без ограничений.
+ * </p>
+ */
+@Component
+class RateLimitInterceptor implements HandlerInterceptor {
+
+    /**
+     * Ключ общего ведра для клиентов сверх {@code rates.rate-limit.max-clients}.
+     */
+    static final String OVERFLOW_CLIENT = "*";
+
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final boolean enabled;
+    private final double capacity;
+    private final double tokensPerNano;
+    private final int maxClients;
+    private final Counter rejected;
+
+    /**
+     * Конструктор для внедрения настроек.
+     *
+     * @param enabled          Включено ли ограничение.
+     * @param capacity         Ёмкость ведра: допустимое число запросов подряд.
+     * @param refillPerSecond  Скорость пополнения ведра: допустимое число запросов в секунду.
+     * @param maxClients       Наибольшее число клиентов с отдельными вёдрами.
+     * @param meterRegistry    Реестр метрик.
+     */
+    @Autowired
+    RateLimitInterceptor(@Value("${rates.rate-limit.enabled:true}") boolean enabled,
+                         @Value("${rates.rate-limit.capacity:200}") int capacity,
+                         @Value("${rates.rate-limit.refill-per-second:100}") double refillPerSecond,
+                         @Value("${rates.rate-limit.max-clients:100000}") int maxClients,
+                         MeterRegistry meterRegistry) {
+        if (capacity < 1 || refillPerSecond <= 0) {
+            throw new IllegalStateException("Некорректные параметры ограничения частоты запросов: capacity="
+                    + capacity + ", refill-per-second=" + refillPerSecond + ".");
+        }
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.maxClients = maxClients;
+        this.rejected = Counter.builder("rates.rate-limit.rejected")
+                .description("Запросы, отклонённые ограничением частоты")
+                .register(meterRegistry);
+        Gauge.builder("rates.rate-limit.clients", buckets, ConcurrentMap::size)
+                .description("Клиенты с отдельными вёдрами жетонов")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!enabled) {
+            return true;
+        }
+        long waitNanos = bucket(request.getRemoteAddr()).tryAcquire(System.nanoTime());
+        if (waitNanos == 0) {
+            return true;
+        }
+        rejected.increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        long retryAfterSeconds = (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        return false;
+    }
+
+    /**
+     * Возвращает ведро клиента, создавая его при первом запросе.
+     *
+     * @param client Адрес клиента.
+     * @return Ведро жетонов.
+     */
+    private TokenBucket bucket(String client) {
+        TokenBucket bucket = buckets.get(client);
+        if (bucket != null) {
+            return bucket;
+        }
+        String key = buckets.size() < maxClients ? client : OVERFLOW_CLIENT;
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, System.nanoTime()));
+    }
+
+    /**
+     * Удаляет вёдра клиентов, которые за время простоя пополнились бы полностью.
+     */
+    @Scheduled(fixedDelayString = "${rates.rate-limit.eviction-interval:1m}")
+    public void evictIdle() {
+        long idleNanos = (long) (capacity / tokensPerNano);
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isIdle(now, idleNanos));
+    }
+
+    /**
+     * Ведро жетонов одного клиента.
+     */
+    private final class TokenBucket {
+
+        private double tokens;
+        private long updatedNanos;
+
+        TokenBucket(double tokens, long now) {
+            this.tokens = tokens;
+            this.updatedNanos = now;
+        }
+
+        /**
+         * Забирает жетон, предварительно пополнив ведро за прошедшее время.
+         *
+         * @param now Текущее значение {@link System#nanoTime()}.
+         * @return 0, если жетон получен, иначе время до появления жетона в наносекундах.
+         */
+        synchronized long tryAcquire(long now) {
+            tokens = Math.min(capacity, tokens + (now - updatedNanos) * tokensPerNano);
+            updatedNanos = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) ((1 - tokens) / tokensPerNano));
+        }
+
+        synchronized boolean isIdle(long now, long idleNanos) {
+            return now - updatedNanos >= idleNanos;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.example.currencyconverter.api.controller;
+
+import org.example.currencyconverter.service.RatesRefreshScheduler;
+import org.example.currencyconverter.service.RatesSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Заголовки HTTP-кэширования для ответов, построенных по снимку курсов.
+ * <p>
+ * Строгий ETag вычисляется из момента построения и версии снимка, Last-Modified — из момента
+ * построения, а Cache-Control разрешает кэширование до следующей проверки курсов по расписанию
+ * (см. {@link RatesRefreshScheduler}).
+ * Если условный запрос совпадает с текущим снимком, Spring отвечает 304 без сериализации тела.
+ * </p>
+ */
+@Component
+class RatesCacheHeaders {
+
+    /**
+     * Планировщик обновления курсов.
+     */
+    private final RatesRefreshScheduler refreshScheduler;
+
+    /**
+     * Конструктор для внедрения зависимостей.
+     *
+     * @param refreshScheduler Планировщик обновления курсов.
+     */
+    @Autowired
+    RatesCacheHeaders(RatesRefreshScheduler refreshScheduler) {
+        this.refreshScheduler = refreshScheduler;
+    }
+
+    /**
+     * Создаёт построитель успешного ответа с заголовками кэширования для снимка.
+     *
+     * @param snapshot Снимок курсов, по которому построен ответ.
+     * @return Построитель ответа со статусом 200.
+     */
+    ResponseEntity.BodyBuilder ok(RatesSnapshot snapshot) {
+        return ok(snapshot, null);
+    }
+
+    /**
+     * Создаёт построитель успешного ответа с заголовками кэширования для одного из представлений
+     * снимка. Разные представления (например, сжатое и несжатое) получают разные строгие ETag.
+     *
+     * @param snapshot Снимок курсов, по которому построен ответ.
+     * @param variant  Обозначение представления или {@code null} для основного представления.
+     * @return Построитель ответа со статусом 200.
+     */
+    ResponseEntity.BodyBuilder ok(RatesSnapshot snapshot, String variant) {
+        return ResponseEntity.ok()
+                .eTag(eTag(snapshot, variant))
+                .lastModified(snapshot.getRefreshedAt())
+                .cacheControl(cacheControl());
+    }
+
+    /**
+     * Создаёт построитель успешного ответа, который кэши не используют без проверки на сервере: ETag
+     * и Last-Modified те же, что у {@link #ok(RatesSnapshot, String)}, а Cache-Control — {@code private, no-cache}.
+     * Каждый запрос доходит до сервера (повторный условный запрос получает 304), поэтому подходит для ответов,
+     * которые сервер должен учесть, например конвертаций, записываемых в журнал.
+     *
+     * @param snapshot Снимок курсов, по которому построен ответ.
+     * @param variant  Обозначение представления или {@code null} для основного представления.
+     * @return Построитель ответа со статусом 200.
+     */
+    ResponseEntity.BodyBuilder okRevalidated(RatesSnapshot snapshot, String variant) {
+        return ResponseEntity.ok()
+                .eTag(eTag(snapshot, variant))
+                .lastModified(snapshot.getRefreshedAt())
+                .cacheControl(CacheControl.noCache().cachePrivate());
+    }
+
+    /**
+     * Возвращает строгий ETag снимка. Момент построения входит в значение, чтобы номера версий,
+     * начинающиеся заново после перезапуска, не давали совпадений.
+     *
+     * @param snapshot Снимок курсов.
+     * @param variant  Обозначение представления или {@code null} для основного представления.
+     * @return Значение ETag.
+     */
+    String eTag(RatesSnapshot snapshot, String variant) {
+        String tag = versionTag(snapshot);
+        return "\"" + (variant == null ? tag : tag + "-" + variant) + "\"";
+    }
+
+    /**
+     * Возвращает метку снимка: момент построения в миллисекундах (в шестнадцатеричной записи) и версию
+     * через дефис. Используется в ETag и как идентификатор событий подписки на изменения курсов.
+     *
+     * @param snapshot Снимок курсов.
+     * @return Метка снимка.
+     */
+    static String versionTag(RatesSnapshot snapshot) {
+        return Long.toHexString(snapshot.getRefreshedAt().toEpochMilli()) + "-" + snapshot.getVersion();
+    }
+
+    /**
+     * Возвращает политику кэширования до следующей проверки курсов по расписанию.
+     *
+     * @return Значение Cache-Control.
+     */
+    CacheControl cacheControl() {
+        long now = System.currentTimeMillis() / 1000;
+        Instant nextRun = refreshScheduler.getNextRun();
+        long next = nextRun == null ? now : nextRun.getEpochSecond();
+        return CacheControl.maxAge(Math.max(0, next - now), TimeUnit.SECONDS).cachePublic();
+    }
+}
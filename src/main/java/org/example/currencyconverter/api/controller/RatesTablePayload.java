@@ -0,0 +1,131 @@
+package org.example.currencyconverter.api.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.example.currencyconverter.service.RatesSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Заранее сериализованная таблица всех курсов.
+ * <p>
+ * JSON-представление таблицы, его сжатая gzip-копия и двоичное представление CBOR строятся один раз
+ * для каждого снимка курсов (при первом запросе после обновления) и затем отдаются как готовые массивы байтов,
+ * без работы Jackson и без выделения памяти, пропорционального количеству валют.
+ * </p>
+ */
+@Component
+class RatesTablePayload {
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Объект для сериализации в CBOR.
+     */
+    private final CBORMapper cborMapper = new CBORMapper();
+
+    /**
+     * Представления таблицы для последнего запрошенного снимка.
+     */
+    private volatile Payload payload;
+
+    /**
+     * Конструктор для внедрения зависимостей.
+     *
+     * @param objectMapper Объект для сериализации JSON.
+     */
+    @Autowired
+    RatesTablePayload(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Возвращает JSON-представление таблицы курсов снимка.
+     *
+     * @param snapshot Снимок курсов.
+     * @return JSON в кодировке UTF-8.
+     */
+    byte[] json(RatesSnapshot snapshot) {
+        return forSnapshot(snapshot).json();
+    }
+
+    /**
+     * Возвращает сжатое gzip JSON-представление таблицы курсов снимка.
+     *
+     * @param snapshot Снимок курсов.
+     * @return JSON в кодировке UTF-8, сжатый gzip.
+     */
+    byte[] gzip(RatesSnapshot snapshot) {
+        return forSnapshot(snapshot).gzip();
+    }
+
+    /**
+     * Возвращает двоичное представление CBOR таблицы курсов снимка.
+     *
+     * @param snapshot Снимок курсов.
+     * @return Таблица курсов в формате CBOR.
+     */
+    byte[] cbor(RatesSnapshot snapshot) {
+        return forSnapshot(snapshot).cbor();
+    }
+
+    /**
+     * Возвращает представления таблицы для снимка, строя их при первом обращении.
+     *
+     * @param snapshot Снимок курсов.
+     * @return Представления таблицы.
+     */
+    private Payload forSnapshot(RatesSnapshot snapshot) {
+        Payload current = payload;
+        if (current != null && current.snapshot() == snapshot) {
+            return current;
+        }
+        synchronized (this) {
+            current = payload;
+            if (current == null || current.snapshot() != snapshot) {
+                current = build(snapshot);
+                payload = current;
+            }
+            return current;
+        }
+    }
+
+    /**
+     * Сериализует таблицу курсов снимка и сжимает её.
+     *
+     * @param snapshot Снимок курсов.
+     * @return Представления таблицы.
+     */
+    private Payload build(RatesSnapshot snapshot) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(snapshot.getCurrencies());
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4);
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(json);
+            }
+            byte[] cbor = cborMapper.writeValueAsBytes(snapshot.getCurrencies());
+            return new Payload(snapshot, json, compressed.toByteArray(), cbor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Ошибка при сериализации таблицы курсов", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка при сжатии таблицы курсов", e);
+        }
+    }
+
+    /**
+     * Представления таблицы курсов, построенные для одного снимка.
+     *
+     * @param snapshot Снимок курсов.
+     * @param json     JSON в кодировке UTF-8.
+     * @param gzip     JSON, сжатый gzip.
+     * @param cbor     Таблица в формате CBOR.
+     */
+    private record Payload(RatesSnapshot snapshot, byte[] json, byte[] gzip, byte[] cbor) {
+    }
+}
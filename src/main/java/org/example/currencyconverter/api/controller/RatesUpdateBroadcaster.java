@@ -0,0 +1,212 @@
+package org.example.currencyconverter.api.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.currencyconverter.api.dto.RatesDeltaDto;
+import org.example.currencyconverter.service.RatesChangedEvent;
+import org.example.currencyconverter.service.RatesSnapshot;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Рассылка изменений курсов подписчикам через Server-Sent Events.
+ * <p>
+ * Подписка реализована на асинхронной обработке запросов сервлета: открытое соединение
+ * не занимает поток, пока по нему ничего не отправляется. При подключении подписчик получает
+ * событие {@code snapshot} со всей таблицей курсов, после каждого обновления — событие
+ * {@code rates} с объектом {@link RatesDeltaDto}, содержащим только изменившиеся валюты.
+ * Идентификатор события составлен из момента построения и версии снимка, как и ETag
+ * (см. {@link RatesCacheHeaders#versionTag}), поэтому клиент, переподключившийся с заголовком Last-Event-ID
+ * текущего снимка, таблицу повторно не получает, а номера версий, начинающиеся заново после
+ * перезапуска, не дают ложных совпадений.
+ * </p>
+ * <p>
+ * Подписка регистрируется до чтения текущего снимка, поэтому изменения, опубликованные
+ * во время подключения, не теряются. Каждое изменение сериализуется один раз для всех подписчиков,
+ * а отправляется каждому подписчику отдельно на пуле задач приложения, по порядку версий.
+ * Медленный клиент задерживает только свою очередь событий; подписка, отправка в которую
+ * не завершилась за {@code rates.stream.send-timeout}, закрывается.
+ * </p>
+ */
+@Slf4j
+@Component
+class RatesUpdateBroadcaster {
+
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+
+    /**
+     * Время жизни подписки, после которого клиент переподключается.
+     */
+    private final long timeoutMillis;
+
+    /**
+     * Наибольшее время ожидания отправки события одному подписчику.
+     */
+    private final long sendTimeoutMillis;
+
+    /**
+     * Активные подписки.
+     */
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Конструктор для внедрения зависимостей.
+     *
+     * @param objectMapper  Объект для сериализации JSON.
+     * @param executor      Пул задач, на котором выполняется рассылка.
+     * @param timeout       Время жизни подписки.
+     * @param sendTimeout   Наибольшее время ожидания отправки события одному подписчику.
+     * @param meterRegistry Реестр метрик.
+     */
+    @Autowired
+    RatesUpdateBroadcaster(ObjectMapper objectMapper,
+                           @Qualifier("applicationTaskExecutor") Executor executor,
+                           @Value("${rates.stream.timeout:30m}") Duration timeout,
+                           @Value("${rates.stream.send-timeout:10s}") Duration sendTimeout,
+                           MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.executor = executor;
+        this.timeoutMillis = timeout.toMillis();
+        this.sendTimeoutMillis = sendTimeout.toMillis();
+        Gauge.builder("rates.stream.subscribers", subscribers, Set::size)
+                .description("Количество активных подписок на изменения курсов")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Создаёт подписку и отправляет в неё текущую таблицу курсов.
+     * <p>
+     * Снимок читается после регистрации подписки и под той же блокировкой, что и рассылка изменений,
+     * поэтому подписчик получает либо снимок и все последующие изменения, либо снимок,
+     * уже включающий изменение, которое рассылается одновременно с подключением.
+     * </p>
+     *
+     * @param snapshot    Источник текущего снимка курсов.
+     * @param lastEventId Идентификатор последнего события, известного клиенту, или {@code null}.
+     * @return Объект {@link SseEmitter} подписки.
+     */
+    SseEmitter subscribe(Supplier<RatesSnapshot> snapshot, String lastEventId) {
+        SseEmitter emitter = createEmitter();
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        synchronized (this) {
+            subscribers.add(subscriber);
+            RatesSnapshot current = snapshot.get();
+            String id = RatesCacheHeaders.versionTag(current);
+            if (!id.equals(lastEventId)) {
+                subscriber.enqueue(id, "snapshot", toJson(current.getCurrencies()));
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Создаёт соединение новой подписки.
+     *
+     * @return Объект {@link SseEmitter} со временем жизни {@code rates.stream.timeout}.
+     */
+    SseEmitter createEmitter() {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    /**
+     * Ставит изменения курсов в очередь отправки каждого подписчика после публикации нового снимка.
+     *
+     * @param event Событие публикации снимка.
+     */
+    @EventListener
+    void onRatesChanged(RatesChangedEvent event) {
+        RatesDeltaDto delta = event.getDelta();
+        if (delta.isEmpty() || subscribers.isEmpty()) {
+            return;
+        }
+        String data = toJson(delta);
+        String id = RatesCacheHeaders.versionTag(event.getSnapshot());
+        int queued;
+        synchronized (this) {
+            subscribers.forEach(subscriber -> subscriber.enqueue(id, "rates", data));
+            queued = subscribers.size();
+        }
+        log.info("Изменения курсов версии {} поставлены в очередь отправки подписчикам: {}.", delta.version, queued);
+    }
+
+    /**
+     * Сериализует объект в JSON.
+     *
+     * @param value Объект для сериализации.
+     * @return Строка JSON.
+     */
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Ошибка при сериализации изменений курсов", e);
+        }
+    }
+
+    /**
+     * Подписка с собственной очередью отправки событий.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        /**
+         * Последняя запланированная отправка; следующая начинается после её завершения.
+         */
+        private CompletableFuture<Void> lastSend = CompletableFuture.completedFuture(null);
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        /**
+         * Планирует отправку события после ранее запланированных. Если отправка не удалась
+         * или не завершилась вовремя, подписка закрывается, а следующие события ей не отправляются.
+         * Закрытие выполняется на пуле задач: оно ждёт завершения зависшей записи в соединение.
+         *
+         * @param id   Идентификатор события.
+         * @param name Имя события.
+         * @param data Данные события в формате JSON.
+         */
+        synchronized void enqueue(String id, String name, String data) {
+            lastSend = lastSend
+                    .thenRunAsync(() -> send(id, name, data), executor)
+                    .orTimeout(sendTimeoutMillis, TimeUnit.MILLISECONDS)
+                    .whenCompleteAsync((ignored, error) -> {
+                        if (error != null && subscribers.remove(this)) {
+                            emitter.completeWithError(error);
+                        }
+                    }, executor);
+        }
+
+        private void send(String id, String name, String data) {
+            try {
+                emitter.send(SseEmitter.event().id(id).name(name).data(data, MediaType.APPLICATION_JSON));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.currencyconverter.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс, представляющий результат конвертации суммы из одной валюты в другую.
+ * <p>
+ * Используется для передачи результата конвертации между слоями приложения.
+ * </p>
+ */
+@Builder
+public class ConversionDto {
+    /**
+     * Код исходной валюты (например, USD, EUR и т.д.).
+     */
+    public String from;
+
+    /**
+     * Код целевой валюты (например, USD, EUR и т.д.).
+     */
+    public String to;
+
+    /**
+     * Сумма в исходной валюте.
+     */
+    public BigDecimal amount;
+
+    /**
+     * Кросс-курс: количество единиц целевой валюты за одну единицу исходной,
+     * с {@code FixedPoint.RATE_SCALE} знаками после запятой.
+     */
+    public BigDecimal rate;
+
+    /**
+     * Сумма в целевой валюте с {@code FixedPoint.SCALE} знаками после запятой.
+     */
+    public BigDecimal result;
+
+    /**
+     * Описание ошибки, если конвертация не выполнена (например, валюта не найдена).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public String error;
+
+
+    /**
+     * Конструктор для создания объекта.
+     *
+     * @param from   Код исходной валюты.
+     * @param to     Код целевой валюты.
+     * @param amount Сумма в исходной валюте.
+     * @param rate   Кросс-курс.
+     * @param result Сумма в целевой валюте.
+     * @param error  Описание ошибки или {@code null}, если конвертация выполнена.
+     */
+    public ConversionDto(String from, String to, BigDecimal amount, BigDecimal rate, BigDecimal result,
+                         String error) {
+        this.from = from;
+        this.to = to;
+        this.amount = amount;
+        this.rate = rate;
+        this.result = result;
+        this.error = error;
+    }
+
+    /**
+     * Конструктор для создания объекта с успешным результатом конвертации.
+     *
+     * @param from   Код исходной валюты.
+     * @param to     Код целевой валюты.
+     * @param amount Сумма в исходной валюте.
+     * @param rate   Кросс-курс.
+     * @param result Сумма в целевой валюте.
+     */
+    public ConversionDto(String from, String to, BigDecimal amount, BigDecimal rate, BigDecimal result) {
+        this(from, to, amount, rate, result, null);
+    }
+
+    /**
+     * Создаёт объект с описанием ошибки конвертации.
+     *
+     * @param from   Код исходной валюты.
+     * @param to     Код целевой валюты.
+     * @param amount Сумма в исходной валюте.
+     * @param error  Описание ошибки.
+     * @return Объект {@link ConversionDto} без результата.
+     */
+    public static ConversionDto failed(String from, String to, BigDecimal amount, String error) {
+        return new ConversionDto(from, to, amount, null, null, error);
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.currencyconverter.api.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс, представляющий запрос на конвертацию суммы из одной валюты в другую.
+ * <p>
+ * Используется как элемент пакетного запроса на конвертацию.
+ * </p>
+ */
+public class ConversionRequestDto {
+    /**
+     * Код исходной валюты (например, USD, EUR и т.д.).
+     */
+    public String from;
+
+    /**
+     * Код целевой валюты (например, USD, EUR и т.д.).
+     */
+    public String to;
+
+    /**
+     * Сумма в исходной валюте.
+     */
+    public BigDecimal amount;
+
+
+    /**
+     * Конструктор по умолчанию, используемый при десериализации.
+     */
+    public ConversionRequestDto() {
+    }
+
+    /**
+     * Конструктор для создания объекта.
+     *
+     * @param from   Код исходной валюты.
+     * @param to     Код целевой валюты.
+     * @param amount Сумма в исходной валюте.
+     */
+    public ConversionRequestDto(String from, String to, BigDecimal amount) {
+        this.from = from;
+        this.to = to;
+        this.amount = amount;
+    }
+}
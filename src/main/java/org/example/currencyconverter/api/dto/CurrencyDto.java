@@ -2,6 +2,8 @@ package org.example.currencyconverter.api.dto;
 
 import lombok.Builder;
 
+import java.math.BigDecimal;
+
 /**
  * Класс, представляющий основную информацию о валюте.
  * <p>
@@ -21,21 +23,45 @@ public class CurrencyDto {
     public String name;
 
     /**
-     * Курс валюты по отношению к рублю.
+     * Количество единиц валюты, за которое установлен курс (например, 100 для японской иены).
+     */
+    public int nominal;
+
+    /**
+     * Курс валюты по отношению к рублю: стоимость {@link #nominal} единиц валюты в рублях.
      */
-    public double value;
+    public BigDecimal value;
 
 
+    /**
+     * Конструктор по умолчанию, используемый при десериализации.
+     */
+    public CurrencyDto() {
+    }
+
     /**
      * Конструктор для создания объекта.
      *
      * @param charCode Код валюты.
      * @param name     Полное название валюты.
+     * @param nominal  Количество единиц валюты, за которое установлен курс.
      * @param value    Курс валюты по отношению к рублю.
      */
-    public CurrencyDto(String charCode, String name, double value) {
+    public CurrencyDto(String charCode, String name, int nominal, BigDecimal value) {
         this.charCode = charCode;
         this.name = name;
+        this.nominal = nominal;
         this.value = value;
     }
+
+    /**
+     * Конструктор для создания объекта с курсом за одну единицу валюты.
+     *
+     * @param charCode Код валюты.
+     * @param name     Полное название валюты.
+     * @param value    Курс валюты по отношению к рублю.
+     */
+    public CurrencyDto(String charCode, String name, BigDecimal value) {
+        this(charCode, name, 1, value);
+    }
 }
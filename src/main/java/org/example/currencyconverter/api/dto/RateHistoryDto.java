@@ -0,0 +1,51 @@
+package org.example.currencyconverter.api.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Класс, представляющий курс валюты на определённую дату.
+ * <p>
+ * Используется для передачи истории курсов между слоями приложения.
+ * </p>
+ */
+@Builder
+public class RateHistoryDto {
+    /**
+     * Код валюты (например, USD, EUR и т.д.).
+     */
+    public String charCode;
+
+    /**
+     * Дата, на которую установлен курс.
+     */
+    public LocalDate date;
+
+    /**
+     * Количество единиц валюты, за которое установлен курс.
+     */
+    public int nominal;
+
+    /**
+     * Курс валюты по отношению к рублю: стоимость {@link #nominal} единиц валюты в рублях.
+     */
+    public BigDecimal value;
+
+
+    /**
+     * Конструктор для создания объекта.
+     *
+     * @param charCode Код валюты.
+     * @param date     Дата, на которую установлен курс.
+     * @param nominal  Количество единиц валюты, за которое установлен курс.
+     * @param value    Курс валюты по отношению к рублю.
+     */
+    public RateHistoryDto(String charCode, LocalDate date, int nominal, BigDecimal value) {
+        this.charCode = charCode;
+        this.date = date;
+        this.nominal = nominal;
+        this.value = value;
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.currencyconverter.api.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Класс, представляющий скользящую статистику курса валюты.
+ * <p>
+ * Используется для передачи заранее вычисленных показателей между слоями приложения.
+ * </p>
+ */
+@Builder
+public class RateStatisticsDto {
+    /**
+     * Код валюты (например, USD, EUR и т.д.).
+     */
+    public String charCode;
+
+    /**
+     * Дата последнего курса, учтённого в статистике.
+     */
+    public LocalDate date;
+
+    /**
+     * Курс одной единицы валюты в рублях на {@link #date}.
+     */
+    public BigDecimal value;
+
+    /**
+     * Изменение курса за день в процентах или {@code null}, если курс за предыдущий день неизвестен.
+     */
+    public BigDecimal changePercent;
+
+    /**
+     * Статистика за скользящие окна в порядке возрастания их длины.
+     */
+    public List<RateWindowStatsDto> windows;
+
+
+    /**
+     * Конструктор для создания объекта.
+     *
+     * @param charCode      Код валюты.
+     * @param date          Дата последнего курса.
+     * @param value         Курс одной единицы валюты в рублях.
+     * @param changePercent Изменение курса за день в процентах.
+     * @param windows       Статистика за скользящие окна.
+     */
+    public RateStatisticsDto(String charCode, LocalDate date, BigDecimal value, BigDecimal changePercent,
+                             List<RateWindowStatsDto> windows) {
+        this.charCode = charCode;
+        this.date = date;
+        this.value = value;
+        this.changePercent = changePercent;
+        this.windows = windows;
+    }
+}
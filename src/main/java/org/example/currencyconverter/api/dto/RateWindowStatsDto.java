@@ -0,0 +1,65 @@
+package org.example.currencyconverter.api.dto;
+
+import lombok.Builder;
+
+import java.math.BigDecimal;
+
+/**
+ * Класс, представляющий статистику курса валюты за скользящее окно календарных дней.
+ * <p>
+ * Значения относятся к курсу одной единицы валюты в рублях.
+ * </p>
+ */
+@Builder
+public class RateWindowStatsDto {
+    /**
+     * Длина окна в днях.
+     */
+    public int days;
+
+    /**
+     * Количество дней окна, за которые известен курс (меньше {@link #days} в начале истории).
+     */
+    public int samples;
+
+    /**
+     * Среднее значение курса.
+     */
+    public BigDecimal mean;
+
+    /**
+     * Минимальное значение курса.
+     */
+    public BigDecimal min;
+
+    /**
+     * Максимальное значение курса.
+     */
+    public BigDecimal max;
+
+    /**
+     * Стандартное отклонение курса.
+     */
+    public BigDecimal stdDev;
+
+
+    /**
+     * Конструктор для создания объекта.
+     *
+     * @param days    Длина окна в днях.
+     * @param samples Количество дней окна, за которые известен курс.
+     * @param mean    Среднее значение курса.
+     * @param min     Минимальное значение курса.
+     * @param max     Максимальное значение курса.
+     * @param stdDev  Стандартное отклонение курса.
+     */
+    public RateWindowStatsDto(int days, int samples, BigDecimal mean, BigDecimal min, BigDecimal max,
+                              BigDecimal stdDev) {
+        this.days = days;
+        this.samples = samples;
+        this.mean = mean;
+        this.min = min;
+        this.max = max;
+        this.stdDev = stdDev;
+    }
+}
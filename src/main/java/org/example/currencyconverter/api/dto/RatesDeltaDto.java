@@ -0,0 +1,54 @@
+package org.example.currencyconverter.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Класс, представляющий изменения курсов между двумя версиями снимка.
+ * <p>
+ * Используется для рассылки подписчикам только изменившихся валют после обновления курсов.
+ * </p>
+ */
+@Builder
+public class RatesDeltaDto {
+    /**
+     * Номер версии снимка, к которой приводят изменения.
+     */
+    public long version;
+
+    /**
+     * Валюты, которые появились или у которых изменились курс или название.
+     */
+    public List<CurrencyDto> changed;
+
+    /**
+     * Коды валют, которых больше нет в снимке.
+     */
+    public List<String> removed;
+
+
+    /**
+     * Конструктор для создания объекта.
+     *
+     * @param version Номер версии снимка.
+     * @param changed Появившиеся и изменившиеся валюты.
+     * @param removed Коды удалённых валют.
+     */
+    public RatesDeltaDto(long version, List<CurrencyDto> changed, List<String> removed) {
+        this.version = version;
+        this.changed = changed;
+        this.removed = removed;
+    }
+
+    /**
+     * Проверяет, есть ли в наборе изменения.
+     *
+     * @return {@code true}, если ни одна валюта не изменилась.
+     */
+    @JsonIgnore
+    public boolean isEmpty() {
+        return changed.isEmpty() && removed.isEmpty();
+    }
+}
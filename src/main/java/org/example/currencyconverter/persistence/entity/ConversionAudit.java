@@ -0,0 +1,75 @@
+package org.example.currencyconverter.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Класс, представляющий запись журнала выполненных конвертаций.
+ * <p>
+ * Записи добавляются пакетами фоновым потоком журнала и не изменяются.
+ * </p>
+ */
+@Entity
+@Table(name = "conversion_audit")
+@Data
+public class ConversionAudit {
+
+    /**
+     * Уникальный идентификатор записи.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    /**
+     * Момент выполнения конвертации.
+     */
+    @Column(name = "served_at", nullable = false)
+    private Instant servedAt;
+
+    /**
+     * Адрес клиента, запросившего конвертацию.
+     */
+    @Column(name = "client", length = 64)
+    private String client;
+
+    /**
+     * Код исходной валюты.
+     */
+    @Column(name = "from_code", nullable = false, length = 3)
+    private String fromCode;
+
+    /**
+     * Код целевой валюты.
+     */
+    @Column(name = "to_code", nullable = false, length = 3)
+    private String toCode;
+
+    /**
+     * Сумма в исходной валюте.
+     */
+    @Column(name = "amount", precision = 38, scale = 8)
+    private BigDecimal amount;
+
+    /**
+     * Кросс-курс, по которому выполнена конвертация.
+     */
+    @Column(name = "rate", precision = 38, scale = 8)
+    private BigDecimal rate;
+
+    /**
+     * Сумма в целевой валюте.
+     */
+    @Column(name = "result", precision = 38, scale = 4)
+    private BigDecimal result;
+
+    /**
+     * Дата курсов или {@code null}, если конвертация выполнена по текущим курсам.
+     */
+    @Column(name = "rate_date")
+    private LocalDate rateDate;
+}
@@ -3,6 +3,7 @@ package org.example.currencyconverter.persistence.entity;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.math.BigDecimal;
 import java.util.Date;
 
 /**
@@ -36,10 +37,16 @@ public class Currency {
     private String name;
 
     /**
-     * Курс валюты по отношению к рублю.
+     * Количество единиц валюты, за которое установлен курс.
      */
-    @Column(name = "val")
-    private double value;
+    @Column(name = "nominal")
+    private int nominal = 1;
+
+    /**
+     * Курс валюты по отношению к рублю: стоимость {@link #nominal} единиц валюты в рублях.
+     */
+    @Column(name = "val", precision = 19, scale = 4)
+    private BigDecimal value;
 
     /**
      * Временная метка создания записи.
@@ -105,12 +112,30 @@ public class Currency {
         this.name = name;
     }
 
+    /**
+     * Возвращает количество единиц валюты, за которое установлен курс.
+     *
+     * @return Номинал.
+     */
+    public int getNominal() {
+        return nominal;
+    }
+
+    /**
+     * Устанавливает количество единиц валюты, за которое установлен курс.
+     *
+     * @param nominal Номинал.
+     */
+    public void setNominal(int nominal) {
+        this.nominal = nominal;
+    }
+
     /**
      * Возвращает курс валюты по отношению к рублю.
      *
      * @return Курс валюты.
      */
-    public double getValue() {
+    public BigDecimal getValue() {
         return value;
     }
 
@@ -119,7 +144,7 @@ public class Currency {
      *
      * @param value Курс валюты.
      */
-    public void setValue(double value) {
+    public void setValue(BigDecimal value) {
         this.value = value;
     }
 }
\ No newline at end of file
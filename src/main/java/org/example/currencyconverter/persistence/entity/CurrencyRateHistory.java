@@ -0,0 +1,57 @@
+package org.example.currencyconverter.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Класс, представляющий курс валюты на определённую дату.
+ * <p>
+ * Хранит историю курсов: одна запись на пару (код валюты, дата). Уникальный индекс
+ * по этой паре используется и для выборки курсов за диапазон дат.
+ * </p>
+ */
+@Entity
+@Table(
+        name = "currency_rate_history",
+        uniqueConstraints = @UniqueConstraint(
+                name = "uk_currency_rate_history_code_date",
+                columnNames = {"code", "rate_date"}
+        )
+)
+@Data
+public class CurrencyRateHistory {
+
+    /**
+     * Уникальный идентификатор записи.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private Long id;
+
+    /**
+     * Код валюты (например, USD, EUR и т.д.).
+     */
+    @Column(name = "code", nullable = false, length = 3)
+    private String charCode;
+
+    /**
+     * Дата, на которую установлен курс.
+     */
+    @Column(name = "rate_date", nullable = false)
+    private LocalDate rateDate;
+
+    /**
+     * Количество единиц валюты, за которое установлен курс.
+     */
+    @Column(name = "nominal")
+    private int nominal = 1;
+
+    /**
+     * Курс валюты по отношению к рублю: стоимость {@link #nominal} единиц валюты в рублях.
+     */
+    @Column(name = "val", precision = 19, scale = 4)
+    private BigDecimal value;
+}
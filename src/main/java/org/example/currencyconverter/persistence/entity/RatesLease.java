@@ -0,0 +1,38 @@
+package org.example.currencyconverter.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Класс, представляющий аренду блокировки в общей базе данных.
+ * <p>
+ * Используется для выбора ведущего узла кластера: узел, захвативший аренду, получает курсы
+ * у источников и записывает их в общее хранилище, пока аренда не истечёт.
+ * </p>
+ */
+@Entity
+@Table(name = "rates_lease")
+@Data
+public class RatesLease {
+
+    /**
+     * Название блокировки.
+     */
+    @Id
+    @Column(name = "name", length = 64)
+    private String name;
+
+    /**
+     * Идентификатор узла, владеющего арендой, или {@code null}, если аренда не захватывалась.
+     */
+    @Column(name = "owner_id")
+    private String owner;
+
+    /**
+     * Момент истечения аренды.
+     */
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+}
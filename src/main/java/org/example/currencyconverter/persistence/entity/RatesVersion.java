@@ -0,0 +1,45 @@
+package org.example.currencyconverter.persistence.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Класс, представляющий версию курсов в общей базе данных.
+ * <p>
+ * Единственная запись таблицы обновляется в одной транзакции с курсами валют, поэтому узлы кластера,
+ * прочитавшие одну и ту же версию, видят одни и те же курсы.
+ * </p>
+ */
+@Entity
+@Table(name = "rates_version")
+@Data
+public class RatesVersion {
+
+    /**
+     * Идентификатор записи.
+     */
+    @Id
+    @Column(name = "id")
+    private Long id;
+
+    /**
+     * Номер версии снимка курсов. Ноль, пока курсы не записаны ни одним узлом.
+     */
+    @Column(name = "snapshot_version", nullable = false)
+    private long version;
+
+    /**
+     * Момент построения снимка курсов ведущим узлом.
+     */
+    @Column(name = "refreshed_at", nullable = false)
+    private Instant refreshedAt;
+
+    /**
+     * Дата, на которую установлены курсы, или {@code null}, если она неизвестна.
+     */
+    @Column(name = "rate_date")
+    private LocalDate rateDate;
+}
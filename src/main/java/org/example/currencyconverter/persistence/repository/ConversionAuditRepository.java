@@ -0,0 +1,15 @@
+package org.example.currencyconverter.persistence.repository;
+
+import org.example.currencyconverter.persistence.entity.ConversionAudit;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Репозиторий для работы с сущностью {@link ConversionAudit}.
+ * <p>
+ * Используется журналом конвертаций для пакетной записи.
+ * </p>
+ */
+@Repository
+public interface ConversionAuditRepository extends CrudRepository<ConversionAudit, Long> {
+}
@@ -0,0 +1,44 @@
+package org.example.currencyconverter.persistence.repository;
+
+import org.example.currencyconverter.persistence.entity.CurrencyRateHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Репозиторий для работы с сущностью {@link CurrencyRateHistory}.
+ * <p>
+ * Предоставляет методы для записи курсов за дату и постраничной выборки курсов за диапазон дат.
+ * </p>
+ */
+@Repository
+public interface CurrencyRateHistoryRepository extends CrudRepository<CurrencyRateHistory, Long> {
+
+    /**
+     * Находит курсы валюты за диапазон дат в порядке возрастания даты.
+     *
+     * @param charCode Код валюты (например, USD, EUR и т.д.).
+     * @param from     Начальная дата диапазона (включительно).
+     * @param to       Конечная дата диапазона (включительно).
+     * @param pageable Номер и размер страницы.
+     * @return Список записей {@link CurrencyRateHistory} для запрошенной страницы.
+     */
+    List<CurrencyRateHistory> findByCharCodeAndRateDateBetweenOrderByRateDateAsc(
+            String charCode, LocalDate from, LocalDate to, Pageable pageable);
+
+    /**
+     * Удаляет все курсы за указанную дату.
+     *
+     * @param rateDate Дата курсов.
+     * @return Количество удалённых записей.
+     */
+    @Modifying
+    @Query("delete from CurrencyRateHistory h where h.rateDate = :rateDate")
+    int deleteByRateDate(@Param("rateDate") LocalDate rateDate);
+}
@@ -4,6 +4,8 @@ import org.example.currencyconverter.persistence.entity.Currency;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -22,4 +24,12 @@ public interface CurrencyRepository extends CrudRepository<Currency, Long> {
      * @return {@link Optional}, содержащий валюту, если она найдена, или пустой {@link Optional}, если нет.
      */
     Optional<Currency> findByCharCode(String charCode);
+
+    /**
+     * Находит валюты по набору кодов одним запросом.
+     *
+     * @param charCodes Коды валют.
+     * @return Список найденных валют в произвольном порядке.
+     */
+    List<Currency> findAllByCharCodeIn(Collection<String> charCodes);
 }
\ No newline at end of file
@@ -0,0 +1,36 @@
+package org.example.currencyconverter.persistence.repository;
+
+import org.example.currencyconverter.persistence.entity.RatesLease;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+/**
+ * Репозиторий для работы с сущностью {@link RatesLease}.
+ * <p>
+ * Захват аренды выполняется одним условным обновлением, поэтому из нескольких узлов,
+ * одновременно пытающихся её захватить, успешным оказывается только один.
+ * </p>
+ */
+@Repository
+public interface RatesLeaseRepository extends CrudRepository<RatesLease, String> {
+
+    /**
+     * Захватывает или продлевает аренду, если она свободна, истекла или уже принадлежит узлу.
+     *
+     * @param name      Название блокировки.
+     * @param owner     Идентификатор узла.
+     * @param now       Текущий момент.
+     * @param expiresAt Новый момент истечения аренды.
+     * @return 1, если аренда захвачена, иначе 0.
+     */
+    @Modifying
+    @Query("update RatesLease l set l.owner = :owner, l.expiresAt = :expiresAt "
+            + "where l.name = :name and (l.owner is null or l.owner = :owner or l.expiresAt < :now)")
+    int acquire(@Param("name") String name, @Param("owner") String owner,
+                @Param("now") Instant now, @Param("expiresAt") Instant expiresAt);
+}
@@ -0,0 +1,43 @@
+package org.example.currencyconverter.persistence.repository;
+
+import org.example.currencyconverter.persistence.entity.RatesVersion;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Репозиторий для работы с сущностью {@link RatesVersion}.
+ */
+@Repository
+public interface RatesVersionRepository extends CrudRepository<RatesVersion, Long> {
+
+    /**
+     * Читает номер версии курсов из базы данных, минуя кэш контекста персистентности.
+     *
+     * @param id Идентификатор записи.
+     * @return Номер версии или {@code null}, если записи нет.
+     */
+    @Query("select v.version from RatesVersion v where v.id = :id")
+    Long findVersion(@Param("id") Long id);
+
+    /**
+     * Переводит версию курсов на следующую, если она не изменилась с момента последнего чтения.
+     *
+     * @param id          Идентификатор записи.
+     * @param expected    Версия, от которой строились новые курсы.
+     * @param next        Новая версия.
+     * @param refreshedAt Момент построения нового снимка.
+     * @param rateDate    Дата, на которую установлены курсы нового снимка.
+     * @return 1, если версия обновлена, иначе 0.
+     */
+    @Modifying
+    @Query("update RatesVersion v set v.version = :next, v.refreshedAt = :refreshedAt, v.rateDate = :rateDate "
+            + "where v.id = :id and v.version = :expected")
+    int advance(@Param("id") Long id, @Param("expected") long expected, @Param("next") long next,
+                @Param("refreshedAt") Instant refreshedAt, @Param("rateDate") LocalDate rateDate);
+}
@@ -0,0 +1,143 @@
+package org.example.currencyconverter.service;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Потоковый парсер ответа API ЦБ РФ (daily_json.js).
+ * <p>
+ * Разбирает ответ за один проход по потоку байтов, без построения промежуточного дерева JSON:
+ * из каждой валюты читаются только нужные поля, остальные пропускаются. Курс читается
+ * как десятичное число без промежуточного {@code double}, вместе с номиналом (Nominal).
+ * Из заголовка ответа читаются дата, на которую установлены курсы (Date), и момент публикации
+ * (Timestamp), по которым определяется выпуск курсов.
+ * </p>
+ */
+public final class CbrRatesParser {
+
+    private CbrRatesParser() {}
+
+    /**
+     * Разбирает ответ API ЦБ РФ в список объектов {@link CurrencyDto}.
+     *
+     * @param in Поток байтов ответа в кодировке UTF-8. Закрывается по завершении разбора.
+     * @return Список объектов {@link CurrencyDto} в порядке следования в ответе.
+     * @throws IOException        если происходит ошибка при чтении потока.
+     * @throws JsonParseException если ответ не содержит раздела Valute.
+     */
+    public static List<CurrencyDto> parse(InputStream in) throws IOException {
+        return parseDaily(in).currencies();
+    }
+
+    /**
+     * Разбирает ответ API ЦБ РФ вместе с датой и моментом публикации курсов.
+     *
+     * @param in Поток байтов ответа в кодировке UTF-8. Закрывается по завершении разбора.
+     * @return Объект {@link Daily}.
+     * @throws IOException        если происходит ошибка при чтении потока.
+     * @throws JsonParseException если ответ не содержит раздела Valute.
+     */
+    public static Daily parseDaily(InputStream in) throws IOException {
+        try (JsonReader reader = new JsonReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            List<CurrencyDto> currencies = null;
+            OffsetDateTime date = null;
+            OffsetDateTime timestamp = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "Valute" -> currencies = readCurrencies(reader);
+                    case "Date" -> date = readDateTime(reader);
+                    case "Timestamp" -> timestamp = readDateTime(reader);
+                    default -> reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            if (currencies == null) {
+                throw new JsonParseException("В ответе API ЦБ РФ отсутствует раздел Valute");
+            }
+            return new Daily(currencies, date, timestamp);
+        }
+    }
+
+    /**
+     * Читает дату и время в формате ISO 8601 со смещением.
+     *
+     * @param reader Парсер, установленный на строковое значение.
+     * @return Дата и время или {@code null}, если значение не распознано.
+     * @throws IOException если происходит ошибка при чтении потока.
+     */
+    private static OffsetDateTime readDateTime(JsonReader reader) throws IOException {
+        try {
+            return OffsetDateTime.parse(reader.nextString());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Читает раздел Valute: объект, ключами которого являются коды валют.
+     *
+     * @param reader Парсер, установленный на начало раздела.
+     * @return Список объектов {@link CurrencyDto}.
+     * @throws IOException если происходит ошибка при чтении потока.
+     */
+    private static List<CurrencyDto> readCurrencies(JsonReader reader) throws IOException {
+        List<CurrencyDto> currencies = new ArrayList<>(64);
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            currencies.add(readCurrency(reader));
+        }
+        reader.endObject();
+        return currencies;
+    }
+
+    /**
+     * Читает данные об одной валюте.
+     *
+     * @param reader Парсер, установленный на начало объекта валюты.
+     * @return Объект {@link CurrencyDto}.
+     * @throws IOException если происходит ошибка при чтении потока.
+     */
+    private static CurrencyDto readCurrency(JsonReader reader) throws IOException {
+        String charCode = null;
+        String name = null;
+        int nominal = 1;
+        BigDecimal value = null;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "CharCode" -> charCode = reader.nextString();
+                case "Name" -> name = reader.nextString();
+                case "Nominal" -> nominal = reader.nextInt();
+                case "Value" -> value = new BigDecimal(reader.nextString());
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new CurrencyDto(charCode, name, nominal, value);
+    }
+
+    /**
+     * Разобранный ответ API ЦБ РФ.
+     *
+     * @param currencies Список объектов {@link CurrencyDto}.
+     * @param date       Дата и время вступления курсов в силу (Date) или {@code null}, если их нет в ответе.
+     * @param timestamp  Момент публикации ответа (Timestamp) или {@code null}, если его нет в ответе.
+     */
+    public record Daily(List<CurrencyDto> currencies, OffsetDateTime date, OffsetDateTime timestamp) {
+    }
+}
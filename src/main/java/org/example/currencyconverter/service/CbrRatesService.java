@@ -1,122 +1,373 @@
 package org.example.currencyconverter.service;
 
-import com.google.gson.Gson;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
 import org.example.currencyconverter.api.dto.CurrencyDto;
-import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 
 import java.io.IOException;
-import java.net.URL;
-import java.util.ArrayList;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
 
 
 /**
- * Класс для работы с API ЦБ РФ
+ * Класс для работы с API ЦБ РФ — основной источник курсов ({@link RateProvider} с именем {@code cbr}).
+ * <p>
+ * Данные запрашиваются асинхронно с ограничением времени ожидания и повторными попытками.
+ * Запросы выполняются условно (If-None-Match / If-Modified-Since), поэтому неизменившиеся
+ * данные не загружаются и не разбираются повторно. Ответ с тем же выпуском курсов (поля Date
+ * и Timestamp), что и предыдущий, также считается неизменившимся. Валидаторы ответа и выпуск
+ * запоминаются только после подтверждения ({@link #acknowledge(RatesEdition)}), что курсы применены.
+ * Время получения и разбора данных публикуется как метрики {@code rates.fetch} и {@code rates.parse}.
+ * </p>
  */
+@Slf4j
 @Component
-public final class CbrRatesService {
+public class CbrRatesService implements RateProvider {
 
     /**
-     * Инициализация сущности сервиса
+     * URL API Центрального Банка России для получения актуальных курсов валют. Курс обновляется ежедневно
      */
-    private static final CbrRatesService INSTANCE = new CbrRatesService();
+    private final URI cbrUrl;
+
     /**
-     * URL API Центрального Банка России для получения актуальных курсов валют. Курс обновляется ежедневно
+     * Шаблон URL архива курсов на дату (см. {@link String#format}, дата — первый аргумент).
+     */
+    private final String archiveUrl;
+
+    /**
+     * Ограничение времени ожидания ответа на один запрос.
      */
-    private static final String CBR_URL = "https://www.cbr-xml-daily.ru/daily_json.js";
+    private final Duration requestTimeout;
 
-    private CbrRatesService(){}
+    /**
+     * Максимальное количество попыток получения данных.
+     */
+    private final int maxAttempts;
 
     /**
-     * Метод получения сущности сервиса
-     * @return Сущность сервиса
+     * Задержка перед второй попыткой; перед каждой следующей удваивается.
      */
-    public CbrRatesService getInstance() {
-        return INSTANCE;
-    }
+    private final Duration retryBackoff;
+
+    private final HttpClient httpClient;
+
+    /**
+     * Исполнитель асинхронных операций HTTP-клиента и повторных попыток. При включённых
+     * виртуальных потоках ({@code spring.threads.virtual.enabled}) создаёт виртуальные потоки.
+     */
+    private final Executor executor;
+    private final MeterRegistry meterRegistry;
+    private final Timer parseTimer;
+
+    /**
+     * Значение заголовка ETag последнего подтверждённого ответа.
+     */
+    private volatile String etag;
+
+    /**
+     * Значение заголовка Last-Modified последнего подтверждённого ответа.
+     */
+    private volatile String lastModified;
 
     /**
-     * Получает данные о валютах от API ЦБ РФ.
+     * Дата и время вступления в силу курсов последнего подтверждённого выпуска (поле Date ответа).
+     */
+    private volatile OffsetDateTime editionDate;
+
+    /**
+     * Момент публикации последнего подтверждённого выпуска (поле Timestamp ответа).
+     */
+    private volatile OffsetDateTime editionTimestamp;
+
+    /**
+     * Валидаторы и выпуск последнего полученного, но ещё не подтверждённого ответа.
+     */
+    private final PendingEdition<Validators> pending = new PendingEdition<>();
+
+    /**
+     * Конструктор для внедрения настроек.
      *
-     * @return JSONObject, содержащий данные о валютах, полученные от API.
-     * @throws RuntimeException если происходит ошибка при чтении данных из API.
+     * @param cbrUrl         URL API ЦБ РФ.
+     * @param archiveUrl     Шаблон URL архива курсов на дату.
+     * @param connectTimeout Ограничение времени установки соединения.
+     * @param requestTimeout Ограничение времени ожидания ответа на один запрос.
+     * @param maxAttempts    Максимальное количество попыток получения данных.
+     * @param retryBackoff   Задержка перед второй попыткой.
+     * @param meterRegistry  Реестр метрик.
+     * @param executor       Исполнитель асинхронных операций HTTP-клиента.
      */
-    private JSONObject fetchCurrenciesData() {
-        String json;
+    @Autowired
+    public CbrRatesService(@Value("${cbr.url:https://www.cbr-xml-daily.ru/daily_json.js}") String cbrUrl,
+                           @Value("${cbr.archive-url:https://www.cbr-xml-daily.ru/archive/%1$tY/%1$tm/%1$td/daily_json.js}")
+                           String archiveUrl,
+                           @Value("${cbr.connect-timeout:3s}") Duration connectTimeout,
+                           @Value("${cbr.request-timeout:5s}") Duration requestTimeout,
+                           @Value("${cbr.max-attempts:3}") int maxAttempts,
+                           @Value("${cbr.retry-backoff:500ms}") Duration retryBackoff,
+                           MeterRegistry meterRegistry,
+                           @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.cbrUrl = URI.create(cbrUrl);
+        this.archiveUrl = archiveUrl;
+        this.requestTimeout = requestTimeout;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryBackoff = retryBackoff;
+        this.executor = executor;
+        this.httpClient = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.meterRegistry = meterRegistry;
+        this.parseTimer = Timer.builder("rates.parse")
+                .description("Время разбора ответа API ЦБ РФ")
+                .register(meterRegistry);
+    }
 
-        try {
-            json = new String(
-                    new URL(CBR_URL)
-                            .openStream()
-                            .readAllBytes()
-            );
-        } catch (IOException e) {
-            throw new RuntimeException("Ошибка при получении данных от API ЦБ РФ", e);
+    @Override
+    public String getName() {
+        return "cbr";
+    }
+
+    /**
+     * Асинхронно получает данные о валютах от API ЦБ РФ.
+     * <p>
+     * При ошибке соединения, превышении времени ожидания или ответе 5xx запрос повторяется
+     * с экспоненциально растущей задержкой.
+     * Время до получения заголовков ответа с учётом всех попыток публикуется как метрика
+     * {@code rates.fetch} с признаком результата (HTTP-статус или ошибка).
+     * </p>
+     *
+     * @return Ответ API ЦБ РФ с телом в виде потока байтов.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> fetchCurrenciesData() {
+        HttpRequest.Builder request = HttpRequest.newBuilder(cbrUrl)
+                .timeout(requestTimeout)
+                .header("Accept-Encoding", "gzip")
+                .GET();
+        String currentEtag = etag;
+        if (currentEtag != null) {
+            request.header("If-None-Match", currentEtag);
+        }
+        String currentLastModified = lastModified;
+        if (currentLastModified != null) {
+            request.header("If-Modified-Since", currentLastModified);
         }
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return sendWithRetry(request.build(), 1).whenComplete((response, error) -> sample.stop(
+                Timer.builder("rates.fetch")
+                        .description("Время получения ответа API ЦБ РФ с учётом повторных попыток")
+                        .tag("outcome", error != null ? "error" : String.valueOf(response.statusCode()))
+                        .register(meterRegistry)));
+    }
 
-         return new JSONObject(json).getJSONObject("Valute");
+    /**
+     * Отправляет запрос, повторяя его при временных ошибках.
+     *
+     * @param request Запрос к API ЦБ РФ.
+     * @param attempt Номер текущей попытки, начиная с единицы.
+     * @return Ответ API ЦБ РФ.
+     */
+    private CompletableFuture<HttpResponse<InputStream>> sendWithRetry(HttpRequest request, int attempt) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofInputStream())
+                .handle((response, error) -> {
+                    boolean retryable = error != null || response.statusCode() >= 500;
+                    if (retryable && attempt < maxAttempts) {
+                        if (response != null) {
+                            closeQuietly(response.body());
+                        }
+                        long delay = retryBackoff.toMillis() << (attempt - 1);
+                        Executor delayed = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS, executor);
+                        return CompletableFuture
+                                .runAsync(() -> { }, delayed)
+                                .thenCompose(ignored -> sendWithRetry(request, attempt + 1));
+                    }
+                    return error != null
+                            ? CompletableFuture.<HttpResponse<InputStream>>failedFuture(error)
+                            : CompletableFuture.completedFuture(response);
+                })
+                .thenCompose(Function.identity());
     }
 
     /**
-     * Получает и обрабатывает данные о курсах валют.
+     * Асинхронно получает и обрабатывает данные о курсах валют.
      *
-     * @return Список объектов {@link CurrencyDto}, содержащих информацию о каждой валюте.
+     * @return Выпуск курсов с датой, на которую они установлены (поле Date ответа), либо пустой
+     * {@link Optional}, если данные не изменились с последнего подтверждённого выпуска.
      */
-    public List<CurrencyDto> getCurrenciesRates() {
-        JSONObject currenciesData = fetchCurrenciesData();
+    @Override
+    public CompletableFuture<Optional<RatesEdition>> fetchRatesAsync() {
+        return fetchCurrenciesData().thenApply(response -> {
+            if (response.statusCode() != 200) {
+                closeQuietly(response.body());
+                if (response.statusCode() == 304) {
+                    return Optional.empty();
+                }
+                throw new RuntimeException("Ошибка при получении данных от API ЦБ РФ: HTTP " + response.statusCode());
+            }
 
-        List<CurrencyData> currencies = parseCurrenciesData(currenciesData);
-        logCurrencies(currencies);
+            CbrRatesParser.Daily daily = parseBody(response);
+            Validators validators = new Validators(response.headers().firstValue("ETag").orElse(null),
+                    response.headers().firstValue("Last-Modified").orElse(null), daily.date(), daily.timestamp());
+            if (daily.date() != null && daily.date().equals(editionDate)
+                    && Objects.equals(daily.timestamp(), editionTimestamp)) {
+                log.info("API ЦБ РФ вернул прежний выпуск курсов на {}.", daily.date().toLocalDate());
+                commit(validators);
+                return Optional.empty();
+            }
 
-        return convertDataToDto(currencies);
+            List<CurrencyDto> currencies = daily.currencies();
+            log.info("Получены курсы {} валют от API ЦБ РФ на {}.", currencies.size(),
+                    daily.date() == null ? "неизвестную дату" : daily.date().toLocalDate());
+            logCurrencies(currencies);
+            RatesEdition edition = new RatesEdition(currencies, daily.date() == null ? null : daily.date().toLocalDate());
+            pending.put(edition, validators);
+            return Optional.of(edition);
+        });
     }
 
     /**
-     * Парсит данные о валютах из JSONObject в список объектов {@link CurrencyData}.
+     * Запоминает валидаторы и выпуск подтверждённого ответа: следующие запросы будут условными
+     * относительно него, а ответ с тем же выпуском будет считаться неизменившимся.
      *
-     * @param currenciesData JSONObject, содержащий данные о валютах.
-     * @return Список объектов {@link CurrencyData}, представляющих данные о валютах.
-     */
-    private List<CurrencyData> parseCurrenciesData(JSONObject currenciesData) {
-        return currenciesData.keySet().stream()
-                .map(currency -> new Gson().fromJson(
-                        currenciesData.getJSONObject(currency).toString(),
-                        CurrencyData.class
-                ))
-                .toList();
+     * @param edition Выпуск, возвращённый {@link #fetchRatesAsync()}.
+     */
+    @Override
+    public void acknowledge(RatesEdition edition) {
+        Validators validators = pending.take(edition);
+        if (validators != null) {
+            commit(validators);
+        }
     }
 
     /**
-     * Логирует информацию о валютах в консоль.
+     * Переносит валидаторы и выпуск ответа в текущее состояние.
      *
-     * @param currencies Список объектов {@link CurrencyData}, содержащих данные о валютах.
+     * @param validators Валидаторы и выпуск ответа.
      */
-    private void logCurrencies(List<CurrencyData> currencies) {
-        currencies.forEach(currency ->
-                System.out.println(currency.Name + " (" + currency.CharCode + ") - " + currency.Value)
-        );
+    private void commit(Validators validators) {
+        etag = validators.etag();
+        lastModified = validators.lastModified();
+        editionDate = validators.date();
+        editionTimestamp = validators.timestamp();
+    }
+
+    /**
+     * Асинхронно получает курсы валют, установленные на указанную дату, из архива ЦБ РФ.
+     * <p>
+     * Запрос выполняется безусловно, с теми же повторными попытками, что и запрос текущих курсов.
+     * </p>
+     *
+     * @param date Дата курсов.
+     * @return Список объектов {@link CurrencyDto} либо пустой {@link Optional}, если на эту дату
+     * курсы не устанавливались (ответ 404: выходные и праздничные дни).
+     */
+    public CompletableFuture<Optional<List<CurrencyDto>>> fetchArchiveAsync(LocalDate date) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(String.format(archiveUrl, date)))
+                .timeout(requestTimeout)
+                .header("Accept-Encoding", "gzip")
+                .GET()
+                .build();
+        return sendWithRetry(request, 1).thenApply(response -> {
+            if (response.statusCode() == 404) {
+                closeQuietly(response.body());
+                return Optional.empty();
+            }
+            if (response.statusCode() != 200) {
+                closeQuietly(response.body());
+                throw new RuntimeException("Ошибка при получении архива курсов ЦБ РФ на " + date
+                        + ": HTTP " + response.statusCode());
+            }
+            return Optional.of(parseBody(response).currencies());
+        });
+    }
+
+    /**
+     * Разбирает тело успешного ответа API ЦБ РФ, учитывая время в метрике {@code rates.parse}.
+     *
+     * @param response Ответ API ЦБ РФ со статусом 200.
+     * @return Разобранный ответ.
+     */
+    private CbrRatesParser.Daily parseBody(HttpResponse<InputStream> response) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try (InputStream body = openBody(response)) {
+            return CbrRatesParser.parseDaily(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка при чтении данных от API ЦБ РФ", e);
+        } finally {
+            sample.stop(parseTimer);
+        }
+    }
+
+    /**
+     * Открывает поток тела ответа, распаковывая его, если сервер использовал сжатие gzip.
+     *
+     * @param response Ответ API ЦБ РФ.
+     * @return Поток байтов тела ответа.
+     * @throws IOException если происходит ошибка при чтении заголовка gzip.
+     */
+    private InputStream openBody(HttpResponse<InputStream> response) throws IOException {
+        boolean gzip = response.headers().firstValue("Content-Encoding")
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        return gzip ? new GZIPInputStream(response.body()) : response.body();
+    }
+
+    /**
+     * Закрывает поток тела ответа, который не будет прочитан.
+     *
+     * @param body Поток тела ответа.
+     */
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException ignored) {
+            // Соединение освобождается в любом случае.
+        }
     }
 
     /**
-     * Преобразует список объектов {@link CurrencyData} в список объектов {@link CurrencyDto}.
+     * Логирует информацию о каждой валюте на уровне DEBUG.
      *
-     * @param dataList Список объектов {@link CurrencyData}, содержащих данные о валютах.
-     * @return Список объектов {@link CurrencyDto}, готовых для использования в других частях приложения.
+     * @param currencies Список объектов {@link CurrencyDto}, содержащих данные о валютах.
      */
-    private List<CurrencyDto> convertDataToDto(List<CurrencyData> dataList) {
-        List<CurrencyDto> dtoList = new ArrayList<>();
-        dataList.forEach(data -> dtoList.add(new CurrencyDto(data.CharCode, data.Name, data.Value)));
-        return dtoList;
+    private void logCurrencies(List<CurrencyDto> currencies) {
+        if (!log.isDebugEnabled()) {
+            return;
+        }
+        currencies.forEach(currency ->
+                log.debug("{} ({}) - {}", currency.name, currency.charCode, currency.value)
+        );
     }
 
     /**
-     * Внутренний класс для парсинга данных о валютах из JSON.
+     * Валидаторы условного запроса и выпуск курсов одного ответа API ЦБ РФ.
+     *
+     * @param etag         Значение заголовка ETag.
+     * @param lastModified Значение заголовка Last-Modified.
+     * @param date         Дата вступления курсов в силу (поле Date).
+     * @param timestamp    Момент публикации выпуска (поле Timestamp).
      */
-    private static class CurrencyData {
-        public String CharCode;
-        public String Name;
-        public double Value;
+    private record Validators(String etag, String lastModified, OffsetDateTime date, OffsetDateTime timestamp) {
     }
 }
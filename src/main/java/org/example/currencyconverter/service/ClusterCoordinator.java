@@ -0,0 +1,214 @@
+package org.example.currencyconverter.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.persistence.entity.Currency;
+import org.example.currencyconverter.persistence.entity.RatesLease;
+import org.example.currencyconverter.persistence.entity.RatesVersion;
+import org.example.currencyconverter.persistence.repository.CurrencyRepository;
+import org.example.currencyconverter.persistence.repository.RatesLeaseRepository;
+import org.example.currencyconverter.persistence.repository.RatesVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Согласование курсов между несколькими экземплярами приложения, работающими с общей базой данных.
+ * <p>
+ * В режиме кластера ({@code rates.cluster.enabled=true}) курсы у источников получает только ведущий
+ * узел — тот, кто захватил аренду в таблице {@code rates_lease}. Вместе с курсами он в той же транзакции
+ * переводит версию в таблице {@code rates_version} на следующую; условие на прежнюю версию не даёт
+ * записать курсы узлу, чья аренда истекла и была захвачена другим. Остальные узлы опрашивают версию
+ * с интервалом {@code rates.cluster.poll-interval} и, увидев новую, загружают курсы из общей базы данных,
+ * поэтому все узлы отдают один и тот же снимок с задержкой не больше интервала опроса.
+ * </p>
+ * <p>
+ * Срок аренды отсчитывается по часам узлов, поэтому часы узлов должны быть синхронизированы с точностью
+ * много меньше {@code rates.cluster.lease}. Вне режима кластера все методы ничего не делают.
+ * </p>
+ */
+@Slf4j
+@Service
+public class ClusterCoordinator {
+
+    /**
+     * Название блокировки обновления курсов.
+     */
+    static final String LEASE_NAME = "rates-refresh";
+
+    /**
+     * Идентификатор единственной записи версии курсов.
+     */
+    static final long VERSION_ID = 1L;
+
+    private final RatesLeaseRepository leaseRepository;
+    private final RatesVersionRepository versionRepository;
+    private final CurrencyRepository currencyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final String nodeId;
+    private final Duration lease;
+
+    /**
+     * Момент истечения аренды, захваченной этим узлом.
+     */
+    private volatile Instant leaseExpiresAt = Instant.EPOCH;
+
+    /**
+     * Конструктор для внедрения зависимостей и настроек.
+     *
+     * @param leaseRepository     Репозиторий аренды блокировки.
+     * @param versionRepository   Репозиторий версии курсов.
+     * @param currencyRepository  Репозиторий для работы с данными о валютах.
+     * @param transactionTemplate Шаблон для выполнения операций в транзакции.
+     * @param meterRegistry       Реестр метрик.
+     * @param enabled             Включён ли режим кластера.
+     * @param nodeId              Идентификатор узла; если не задан, используется {@code pid@host}.
+     * @param lease               Срок аренды блокировки обновления курсов.
+     */
+    @Autowired
+    public ClusterCoordinator(RatesLeaseRepository leaseRepository, RatesVersionRepository versionRepository,
+                              CurrencyRepository currencyRepository, TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${rates.cluster.enabled:false}") boolean enabled,
+                              @Value("${rates.cluster.node-id:}") String nodeId,
+                              @Value("${rates.cluster.lease:5m}") Duration lease) {
+        this.leaseRepository = leaseRepository;
+        this.versionRepository = versionRepository;
+        this.currencyRepository = currencyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.nodeId = nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+        this.lease = lease;
+        if (enabled) {
+            Gauge.builder("rates.cluster.leader", this, c -> c.isLeader() ? 1 : 0)
+                    .description("Является ли узел ведущим в кластере")
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Создаёт записи аренды и версии курсов, если их ещё нет в общей базе данных.
+     */
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!leaseRepository.existsById(LEASE_NAME)) {
+                    RatesLease ratesLease = new RatesLease();
+                    ratesLease.setName(LEASE_NAME);
+                    ratesLease.setExpiresAt(Instant.EPOCH);
+                    leaseRepository.save(ratesLease);
+                }
+                if (!versionRepository.existsById(VERSION_ID)) {
+                    RatesVersion version = new RatesVersion();
+                    version.setId(VERSION_ID);
+                    version.setRefreshedAt(Instant.EPOCH);
+                    versionRepository.save(version);
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Записи кластера уже созданы другим узлом.", e);
+        }
+        log.info("Режим кластера включён, идентификатор узла: {}.", nodeId);
+    }
+
+    /**
+     * Проверяет, включён ли режим кластера.
+     *
+     * @return {@code true}, если включён.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Проверяет, владеет ли узел неистёкшей арендой.
+     *
+     * @return {@code true}, если узел ведущий.
+     */
+    public boolean isLeader() {
+        return Instant.now().isBefore(leaseExpiresAt);
+    }
+
+    /**
+     * Пытается захватить или продлить аренду блокировки обновления курсов.
+     *
+     * @return {@code true}, если узел стал ведущим на срок аренды.
+     */
+    public boolean tryAcquireLeadership() {
+        Instant now = Instant.now();
+        Instant expiresAt = now.plus(lease);
+        Integer acquired = transactionTemplate.execute(
+                status -> leaseRepository.acquire(LEASE_NAME, nodeId, now, expiresAt));
+        if (acquired == null || acquired != 1) {
+            return false;
+        }
+        leaseExpiresAt = expiresAt;
+        return true;
+    }
+
+    /**
+     * Переводит версию курсов в общей базе данных на версию нового снимка.
+     * <p>
+     * Должен вызываться внутри транзакции, записывающей курсы нового снимка.
+     * </p>
+     *
+     * @param expected Версия, от которой строился новый снимок.
+     * @param next     Новый снимок.
+     * @throws IllegalStateException если версия уже изменена другим узлом; транзакция должна быть отменена.
+     */
+    public void advanceVersion(long expected, RatesSnapshot next) {
+        if (versionRepository.advance(VERSION_ID, expected, next.getVersion(), next.getRefreshedAt(), next.getDate()) != 1) {
+            throw new IllegalStateException(
+                    "Версия курсов " + expected + " в общем хранилище уже изменена другим узлом.");
+        }
+    }
+
+    /**
+     * Загружает снимок курсов из общей базы данных, если его версия отличается от локальной.
+     * <p>
+     * Версия читается до и после чтения курсов; если за это время ведущий узел записал новые курсы,
+     * загрузка откладывается до следующего опроса, чтобы не собрать снимок из курсов разных версий.
+     * </p>
+     *
+     * @param localVersion Версия снимка, который отдаёт узел.
+     * @return Снимок из общей базы данных либо пустой {@link Optional}, если загружать нечего.
+     */
+    public Optional<RatesSnapshot> loadIfChanged(long localVersion) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return transactionTemplate.execute(status -> {
+            RatesVersion before = versionRepository.findById(VERSION_ID).orElse(null);
+            if (before == null || before.getVersion() == 0 || before.getVersion() == localVersion) {
+                return Optional.<RatesSnapshot>empty();
+            }
+            List<CurrencyDto> currencies = new ArrayList<>();
+            for (Currency currency : currencyRepository.findAll()) {
+                currencies.add(new CurrencyDto(
+                        currency.getCharCode(), currency.getName(), currency.getNominal(), currency.getValue()));
+            }
+            Long after = versionRepository.findVersion(VERSION_ID);
+            if (after == null || after != before.getVersion()) {
+                return Optional.<RatesSnapshot>empty();
+            }
+            return Optional.of(RatesSnapshot.of(currencies, before.getVersion(), before.getRefreshedAt(), before.getRateDate()));
+        });
+    }
+}
@@ -0,0 +1,444 @@
+package org.example.currencyconverter.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.example.currencyconverter.api.dto.ConversionDto;
+import org.example.currencyconverter.persistence.entity.ConversionAudit;
+import org.example.currencyconverter.persistence.repository.ConversionAuditRepository;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Журнал выполненных конвертаций с отложенной пакетной записью.
+ * <p>
+ * Поток запроса только помещает запись в ограниченный кольцевой буфер без блокировок ({@link MpscRingBuffer}),
+ * а фоновый поток забирает накопившиеся записи пакетами до {@code rates.audit.batch-size} и дописывает их
+ * в файл {@code rates.audit.file} в формате NDJSON или, при {@code rates.audit.sink=database}, записывает
+ * в таблицу {@code conversion_audit} одной транзакцией с пакетной вставкой JDBC того же размера.
+ * Таблица не очищается, поэтому запись в базу данных имеет смысл только для внешней базы данных
+ * со своим сроком хранения, а не для встроенной базы в памяти.
+ * Неполный пакет записывается не реже раза в {@code rates.audit.flush-interval}; неудавшаяся запись
+ * повторяется до {@value #MAX_ATTEMPTS} раз.
+ * </p>
+ * <p>
+ * Если буфер ({@code rates.audit.capacity} записей) заполнен, поведение задаёт {@code rates.audit.overflow}:
+ * {@code drop} — запись отбрасывается сразу, {@code block} — поток запроса ждёт освобождения места
+ * не дольше {@code rates.audit.block-timeout}, после чего запись отбрасывается. Отброшенные записи учитываются
+ * в метрике {@code rates.audit.dropped}. Для элементов пакетной конвертации (см. {@link #recordBatchItem})
+ * поведение задаёт отдельная настройка {@code rates.audit.batch-overflow}, по умолчанию совпадающая
+ * с {@code rates.audit.overflow}: {@code block} замедляет большой пакет до скорости записи журнала,
+ * {@code drop} не задерживает пакет ценой пропуска записей.
+ * </p>
+ * <p>
+ * Публикует метрики: заполненность буфера ({@code rates.audit.queue.depth}, {@code rates.audit.queue.capacity}),
+ * время записи пакета ({@code rates.audit.flush}), количество записанных, отброшенных и не записанных
+ * из-за ошибок записей ({@code rates.audit.written}, {@code rates.audit.dropped}, {@code rates.audit.failed}).
+ * При остановке приложения оставшиеся в буфере записи дописываются.
+ * </p>
+ */
+@Slf4j
+@Component
+public class ConversionAuditLog {
+
+    /**
+     * Поведение при заполненном буфере.
+     */
+    public enum Overflow {
+        /**
+         * Отбросить запись.
+         */
+        DROP,
+        /**
+         * Ждать освобождения места, затем отбросить запись.
+         */
+        BLOCK
+    }
+
+    /**
+     * Место хранения журнала.
+     */
+    public enum Sink {
+        /**
+         * Таблица {@code conversion_audit}.
+         */
+        DATABASE,
+        /**
+         * Файл NDJSON.
+         */
+        FILE
+    }
+
+    /**
+     * Запись журнала.
+     *
+     * @param servedAt Момент выполнения конвертации.
+     * @param client   Адрес клиента или {@code null}.
+     * @param from     Код исходной валюты.
+     * @param to       Код целевой валюты.
+     * @param amount   Сумма в исходной валюте.
+     * @param rate     Кросс-курс.
+     * @param result   Сумма в целевой валюте.
+     * @param rateDate Дата курсов или {@code null} для текущих курсов.
+     */
+    public record Entry(Instant servedAt, String client, String from, String to,
+                        BigDecimal amount, BigDecimal rate, BigDecimal result, LocalDate rateDate) {
+    }
+
+    /**
+     * Наибольшее количество попыток записи пакета.
+     */
+    static final int MAX_ATTEMPTS = 3;
+
+    /**
+     * Пауза потока запроса между попытками добавить запись в заполненный буфер.
+     */
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * Наименьший интервал между предупреждениями об отброшенных записях.
+     */
+    private static final long DROP_WARNING_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final ConversionAuditRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectWriter lineWriter;
+    private final boolean enabled;
+    private final Sink sink;
+    private final String file;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Overflow overflow;
+    private final Overflow batchOverflow;
+    private final long blockTimeoutNanos;
+
+    private final MpscRingBuffer<Entry> buffer;
+    private final Timer flushTimer;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter failed;
+
+    private volatile boolean running;
+    private volatile Thread writer;
+    private volatile long lastDropWarning;
+    private FileChannel channel;
+
+    /**
+     * Конструктор для внедрения зависимостей и настроек.
+     *
+     * @param repository          Репозиторий журнала конвертаций.
+     * @param transactionTemplate Шаблон для выполнения операций в транзакции.
+     * @param entityManager       Менеджер сущностей для настройки размера пакета JDBC.
+     * @param objectMapper        Объект для записи JSON.
+     * @param meterRegistry       Реестр метрик.
+     * @param enabled             Включён ли журнал.
+     * @param sink                Место хранения журнала.
+     * @param file                Путь к файлу журнала для {@link Sink#FILE}.
+     * @param capacity            Ёмкость буфера, округляется вверх до степени двойки (не меньше 2).
+     * @param batchSize           Наибольший размер записываемого пакета.
+     * @param flushInterval       Наибольший интервал записи неполного пакета.
+     * @param overflow            Поведение при заполненном буфере.
+     * @param batchOverflow       Поведение при заполненном буфере для элементов пакетной конвертации.
+     * @param blockTimeout        Наибольшее ожидание места в буфере для {@link Overflow#BLOCK}.
+     * @throws IllegalStateException если размер пакета не положителен.
+     */
+    @Autowired
+    public ConversionAuditLog(ConversionAuditRepository repository, TransactionTemplate transactionTemplate,
+                              EntityManager entityManager, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              @Value("${rates.audit.enabled:true}") boolean enabled,
+                              @Value("${rates.audit.sink:file}") Sink sink,
+                              @Value("${rates.audit.file:data/conversion-audit.ndjson}") String file,
+                              @Value("${rates.audit.capacity:65536}") int capacity,
+                              @Value("${rates.audit.batch-size:1000}") int batchSize,
+                              @Value("${rates.audit.flush-interval:200ms}") Duration flushInterval,
+                              @Value("${rates.audit.overflow:block}") Overflow overflow,
+                              @Value("${rates.audit.batch-overflow:${rates.audit.overflow:block}}") Overflow batchOverflow,
+                              @Value("${rates.audit.block-timeout:100ms}") Duration blockTimeout) {
+        if (batchSize < 1) {
+            throw new IllegalStateException("Некорректный размер пакета журнала конвертаций: " + batchSize + ".");
+        }
+        this.repository = repository;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.lineWriter = objectMapper.writerFor(Entry.class).without(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.enabled = enabled;
+        this.sink = sink;
+        this.file = file;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.overflow = overflow;
+        this.batchOverflow = batchOverflow;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.buffer = new MpscRingBuffer<>(capacity);
+
+        Gauge.builder("rates.audit.queue.depth", buffer, MpscRingBuffer::size)
+                .description("Количество записей журнала конвертаций, ожидающих записи")
+                .register(meterRegistry);
+        Gauge.builder("rates.audit.queue.capacity", buffer, MpscRingBuffer::capacity)
+                .description("Ёмкость буфера журнала конвертаций")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("rates.audit.flush")
+                .description("Время записи пакета журнала конвертаций")
+                .tag("sink", sink.name().toLowerCase())
+                .register(meterRegistry);
+        written = Counter.builder("rates.audit.written")
+                .description("Количество записанных записей журнала конвертаций")
+                .register(meterRegistry);
+        dropped = Counter.builder("rates.audit.dropped")
+                .description("Количество записей журнала конвертаций, отброшенных из-за заполненного буфера")
+                .register(meterRegistry);
+        failed = Counter.builder("rates.audit.failed")
+                .description("Количество записей журнала конвертаций, не записанных из-за ошибок")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Открывает файл журнала (для {@link Sink#FILE}) и запускает поток записи.
+     *
+     * @throws IOException если файл журнала не удаётся открыть.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) {
+            log.info("Журнал конвертаций отключён.");
+            return;
+        }
+        if (sink == Sink.FILE) {
+            Path path = Path.of(file);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        running = true;
+        Thread thread = new Thread(this::runWriter, "conversion-audit-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+        log.info("Журнал конвертаций: {}, буфер на {} записей, пакеты до {} записей.",
+                sink == Sink.FILE ? file : "таблица conversion_audit", buffer.capacity(), batchSize);
+    }
+
+    /**
+     * Дописывает оставшиеся в буфере записи и останавливает поток записи.
+     *
+     * @throws InterruptedException если ожидание потока записи прервано.
+     * @throws IOException          если файл журнала не удаётся закрыть.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(thread);
+        thread.join(TimeUnit.SECONDS.toMillis(30));
+        if (thread.isAlive()) {
+            log.warn("Журнал конвертаций не успел записать {} записей до остановки.", buffer.size());
+        }
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Добавляет в журнал выполненную конвертацию. Запись выполняется в фоновом потоке.
+     *
+     * @param conversion Результат конвертации; конвертации с ошибкой не записываются.
+     * @param rateDate   Дата курсов или {@code null} для текущих курсов.
+     * @param client     Адрес клиента или {@code null}.
+     * @return {@code true}, если запись принята или журнал отключён, {@code false}, если запись отброшена.
+     */
+    public boolean record(ConversionDto conversion, LocalDate rateDate, String client) {
+        return record(conversion, rateDate, client, overflow);
+    }
+
+    /**
+     * Добавляет в журнал конвертацию из пакета. Поведение при заполненном буфере задаёт
+     * {@code rates.audit.batch-overflow}.
+     *
+     * @param conversion Результат конвертации; конвертации с ошибкой не записываются.
+     * @param rateDate   Дата курсов или {@code null} для текущих курсов.
+     * @param client     Адрес клиента или {@code null}.
+     * @return {@code true}, если запись принята или журнал отключён, {@code false}, если запись отброшена.
+     */
+    public boolean recordBatchItem(ConversionDto conversion, LocalDate rateDate, String client) {
+        return record(conversion, rateDate, client, batchOverflow);
+    }
+
+    /**
+     * Добавляет запись в буфер с заданным поведением при его заполнении.
+     */
+    private boolean record(ConversionDto conversion, LocalDate rateDate, String client, Overflow overflow) {
+        if (!enabled || conversion.error != null) {
+            return true;
+        }
+        Entry entry = new Entry(Instant.now(), client, conversion.from, conversion.to,
+                conversion.amount, conversion.rate, conversion.result, rateDate);
+        if (buffer.offer(entry)) {
+            if (buffer.size() >= batchSize) {
+                LockSupport.unpark(writer);
+            }
+            return true;
+        }
+        if (overflow == Overflow.BLOCK && offerWithin(entry, blockTimeoutNanos)) {
+            return true;
+        }
+        dropped.increment();
+        long now = System.nanoTime();
+        if (now - lastDropWarning > DROP_WARNING_INTERVAL_NANOS) {
+            lastDropWarning = now;
+            log.warn("Буфер журнала конвертаций заполнен ({} записей), записи отбрасываются.", buffer.capacity());
+        }
+        return false;
+    }
+
+    /**
+     * Ожидает места в заполненном буфере, поторапливая поток записи.
+     */
+    private boolean offerWithin(Entry entry, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        do {
+            LockSupport.unpark(writer);
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+            if (buffer.offer(entry)) {
+                return true;
+            }
+        } while (System.nanoTime() - deadline < 0);
+        return false;
+    }
+
+    /**
+     * Цикл потока записи: забирает записи пакетами и ждёт следующего интервала, если пакет неполон.
+     * После остановки дописывает всё, что осталось в буфере.
+     */
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>(batchSize);
+        while (true) {
+            boolean stopping = !running;
+            int drained = buffer.drainTo(batch, batchSize);
+            if (drained > 0) {
+                flush(batch);
+                batch.clear();
+            }
+            if (stopping && drained == 0) {
+                return;
+            }
+            if (drained < batchSize && !stopping) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+        }
+    }
+
+    /**
+     * Записывает пакет, повторяя попытку при ошибке.
+     *
+     * @param batch Записи в порядке добавления.
+     */
+    void flush(List<Entry> batch) {
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                if (sink == Sink.FILE) {
+                    writeToFile(batch);
+                } else {
+                    writeToDatabase(batch);
+                }
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                written.increment(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (attempt >= MAX_ATTEMPTS) {
+                    failed.increment(batch.size());
+                    log.error("Не удалось записать в журнал конвертаций пакет из {} записей.", batch.size(), e);
+                    return;
+                }
+                log.warn("Ошибка записи журнала конвертаций (попытка {} из {}): {}", attempt, MAX_ATTEMPTS,
+                        e.getMessage());
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+    }
+
+    /**
+     * Вставляет пакет в таблицу одной транзакцией с пакетом JDBC размером {@code rates.audit.batch-size}.
+     */
+    private void writeToDatabase(List<Entry> batch) {
+        List<ConversionAudit> rows = new ArrayList<>(batch.size());
+        for (Entry entry : batch) {
+            ConversionAudit row = new ConversionAudit();
+            row.setServedAt(entry.servedAt());
+            row.setClient(entry.client());
+            row.setFromCode(entry.from());
+            row.setToCode(entry.to());
+            row.setAmount(entry.amount());
+            row.setRate(entry.rate());
+            row.setResult(entry.result());
+            row.setRateDate(entry.rateDate());
+            rows.add(row);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            repository.saveAll(rows);
+        });
+    }
+
+    /**
+     * Дописывает пакет в файл по строке JSON на запись и сбрасывает его на диск.
+     */
+    private void writeToFile(List<Entry> batch) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(batch.size() * 192);
+            for (Entry entry : batch) {
+                lineWriter.writeValue(bytes, entry);
+                bytes.write('\n');
+            }
+            ByteBuffer data = ByteBuffer.wrap(bytes.toByteArray());
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Возвращает количество записей, ожидающих записи.
+     */
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+}
@@ -1,13 +1,18 @@
 package org.example.currencyconverter.service;
 
+import org.example.currencyconverter.api.dto.ConversionDto;
+import org.example.currencyconverter.api.dto.ConversionRequestDto;
 import org.example.currencyconverter.persistence.entity.Currency;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Сервис для работы с данными о валютах.
  * <p>
- * Предоставляет методы для сохранения, получения и удаления данных о валютах.
+ * Предоставляет методы для сохранения, получения и удаления данных о валютах,
+ * а также для пакетной конвертации сумм.
  * </p>
  */
 public interface CurrencyService {
@@ -33,4 +38,17 @@ public interface CurrencyService {
      * @param currencyID Идентификатор валюты, которую необходимо удалить.
      */
     void deleteCurrencyByID(Long currencyID);
-}
\ No newline at end of file
+
+    /**
+     * Выполняет пакетную конвертацию сумм по единому снимку курсов.
+     * <p>
+     * Запросы читаются, а результаты передаются по одному, поэтому объём пакета
+     * не ограничен доступной памятью. Ошибка в отдельном элементе не прерывает пакет:
+     * для него возвращается результат с заполненным полем {@link ConversionDto#error}.
+     * </p>
+     *
+     * @param requests Итератор по запросам на конвертацию.
+     * @param results  Получатель результатов конвертации в порядке запросов.
+     */
+    void convertBatch(Iterator<ConversionRequestDto> requests, Consumer<ConversionDto> results);
+}
@@ -1,15 +1,36 @@
 package org.example.currencyconverter.service;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.currencyconverter.api.dto.ConversionDto;
+import org.example.currencyconverter.api.dto.ConversionRequestDto;
 import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.api.dto.RateStatisticsDto;
+import org.example.currencyconverter.api.dto.RatesDeltaDto;
 import org.example.currencyconverter.persistence.entity.Currency;
 import org.example.currencyconverter.persistence.repository.CurrencyRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * Реализация сервиса для работы с данными о валютах.
@@ -17,84 +38,623 @@ import java.util.List;
  * Предоставляет методы для сохранения, обновления, получения и удаления данных о валютах.
  * Также включает автоматическое заполнение и обновление базы данных курсами валют.
  * </p>
+ * <p>
+ * Публикует метрики: время записи в базу данных ({@code rates.persist}), исходы обновлений
+ * ({@code rates.refresh}), возраст текущего снимка ({@code rates.snapshot.age}) и попадания
+ * и промахи поиска по коду валюты ({@code rates.lookup}).
+ * </p>
+ * <p>
+ * После публикации каждого нового снимка рассылает событие {@link RatesChangedEvent}
+ * с изменениями курсов.
+ * </p>
+ * <p>
+ * Обновление инкрементальное: полученные курсы сравниваются с текущим снимком, и если ничего
+ * не изменилось, ни база данных, ни снимок не трогаются. Иначе в базу данных записываются
+ * только изменившиеся и удалённые валюты, а подписчики получают только изменения.
+ * </p>
+ * <p>
+ * Каждый полученный выпуск курсов учитывается в архиве курсов ({@link RateArchive}) и в скользящей
+ * статистике ({@link RollingStatistics}) под датой, на которую курсы установлены (ЦБ РФ публикует
+ * курсы накануне).
+ * </p>
+ * <p>
+ * В режиме кластера (см. {@link ClusterCoordinator}) курсы у источников получает только ведущий узел,
+ * а остальные узлы загружают записанный им снимок из общей базы данных.
+ * </p>
  */
+@Slf4j
 @Service
 @Component
 public class CurrencyServiceImpl implements CurrencyService {
     private final CurrencyRepository currencyRepository;
-    private final CbrRatesService cbrRatesService;
+    private final MultiSourceRatesService ratesService;
+    private final TransactionTemplate transactionTemplate;
+    private final RateHistoryService rateHistoryService;
+    private final RatesSnapshotStore snapshotStore;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ClusterCoordinator cluster;
+    private final RateArchive rateArchive;
+    private final RollingStatistics statistics;
+    private final Timer persistTimer;
+
+    /**
+     * Счётчики попаданий поиска, индексированные по упакованному коду валюты.
+     * Заполняются при первом обращении к валюте.
+     */
+    private final Counter[] lookupHits = new Counter[RatesSnapshot.CODE_SPACE];
+
+    /**
+     * Счётчик промахов поиска. Не размечается кодом валюты, чтобы произвольные коды
+     * в запросах не порождали неограниченное число временных рядов.
+     */
+    private final Counter lookupMisses;
+
+    /**
+     * Текущий снимок курсов, из которого обслуживаются запросы на чтение.
+     */
+    private volatile RatesSnapshot snapshot = RatesSnapshot.EMPTY;
+
+    /**
+     * Снимок, совпадающий с содержимым базы данных. Отстаёт от текущего снимка после старта
+     * из сохранённого файла, пока курсы не будут впервые записаны в базу данных.
+     * Изменяется только под блокировкой на {@code this}.
+     */
+    private RatesSnapshot persisted = RatesSnapshot.EMPTY;
 
     /**
      * Конструктор для внедрения зависимостей.
      *
      * @param currencyRepository Репозиторий для работы с данными о валютах.
-     * @param cbrRatesService API для получения курсов валют.
+     * @param ratesService Сервис получения курсов валют из источников.
+     * @param transactionTemplate Шаблон для выполнения операций в транзакции.
+     * @param rateHistoryService Сервис для работы с историей курсов.
+     * @param snapshotStore Хранилище последнего набора курсов в локальном файле.
+     * @param meterRegistry Реестр метрик.
+     * @param eventPublisher Публикатор событий приложения.
+     * @param cluster Согласование курсов между узлами кластера.
+     * @param rateArchive Архив курсов валют по датам.
+     * @param statistics Скользящая статистика курсов.
      */
     @Autowired
-    public CurrencyServiceImpl(CurrencyRepository currencyRepository, CbrRatesService cbrRatesService) {
+    public CurrencyServiceImpl(CurrencyRepository currencyRepository, MultiSourceRatesService ratesService,
+                               TransactionTemplate transactionTemplate, RateHistoryService rateHistoryService,
+                               RatesSnapshotStore snapshotStore, MeterRegistry meterRegistry,
+                               ApplicationEventPublisher eventPublisher, ClusterCoordinator cluster,
+                               RateArchive rateArchive, RollingStatistics statistics) {
         this.currencyRepository = currencyRepository;
-        this.cbrRatesService = cbrRatesService.getInstance();
+        this.ratesService = ratesService;
+        this.transactionTemplate = transactionTemplate;
+        this.rateHistoryService = rateHistoryService;
+        this.snapshotStore = snapshotStore;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+        this.cluster = cluster;
+        this.rateArchive = rateArchive;
+        this.statistics = statistics;
+        this.persistTimer = Timer.builder("rates.persist")
+                .description("Время записи курсов в базу данных")
+                .register(meterRegistry);
+        this.lookupMisses = Counter.builder("rates.lookup")
+                .description("Поиск валюты по коду")
+                .tag("code", "unknown")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("rates.snapshot.age", this, CurrencyServiceImpl::snapshotAgeSeconds)
+                .description("Время с момента публикации текущего снимка курсов")
+                .baseUnit("seconds")
+                .register(meterRegistry);
     }
 
 
     /**
-     * Инициализация базы данных при старте приложения.
-     * Заполняет базу данных актуальными курсами валют.
+     * Инициализация курсов валют при старте приложения.
+     * <p>
+     * Если сохранён снимок курсов с прошлого запуска, он публикуется сразу, а актуальные
+     * курсы запрашиваются у источников в фоне и заменяют его по мере получения.
+     * Иначе база данных заполняется актуальными курсами до завершения старта.
+     * </p>
+     * <p>
+     * В режиме кластера узел начинает со снимка из общей базы данных, а если его ещё нет,
+     * обновляет курсы сам (либо дожидается ведущего узла).
+     * </p>
      */
     @PostConstruct
     public void createAndFillDB() {
-        List<CurrencyDto> currencyDtoList = cbrRatesService.getCurrenciesRates();
-        this.saveAll(currencyDtoList);
-        System.out.println("База данных успешно заполнена актуальными курсами валют.");
+        if (cluster.isEnabled()) {
+            syncFromCluster();
+            if (snapshot.getVersion() == 0) {
+                refresh();
+            }
+            return;
+        }
+        Optional<RatesEdition> lastKnown = snapshotStore.load();
+        if (lastKnown.isEmpty()) {
+            refresh();
+            log.info("База данных успешно заполнена актуальными курсами валют.");
+            return;
+        }
+
+        publishSnapshot(lastKnown.get().currencies(), lastKnown.get().date());
+        log.info("Загружен сохранённый снимок курсов, актуальные курсы запрашиваются в фоне.");
+        ratesService.fetchRatesAsync()
+                .thenAccept(this::applyRatesIfChanged)
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        countRefresh("failure");
+                        log.error("Не удалось обновить курсы при старте.", error);
+                    } else {
+                        log.info("База данных успешно заполнена актуальными курсами валют.");
+                    }
+                });
     }
 
     /**
      * Обновление базы данных курсами валют по расписанию.
-     * Выполняется ежедневно в полночь.
+     * Вызывается планировщиком {@link RatesRefreshScheduler} с учётом времени публикации курсов ЦБ РФ.
+     * Если курсы не изменились с прошлого обновления (например, в выходные и праздники),
+     * база данных и снимок курсов не перезаписываются.
      */
-    @Scheduled(cron="0 0 0 * * ?")
     public void updateDB() {
-        List<CurrencyDto> currencyDtoList = cbrRatesService.getCurrenciesRates();
-        this.updateAll(currencyDtoList);
+        refresh();
+    }
+
+    /**
+     * Запрашивает курсы у источников (см. {@link MultiSourceRatesService}) и применяет их,
+     * учитывая исход в метрике {@code rates.refresh}.
+     * <p>
+     * В режиме кластера курсы запрашивает только узел, захвативший аренду; перед этим он загружает
+     * последний снимок из общей базы данных, чтобы сравнивать новые курсы с актуальными.
+     * Остальные узлы только загружают снимок.
+     * </p>
+     *
+     * @throws RuntimeException если курсы не удалось получить или сохранить.
+     */
+    private void refresh() {
+        if (cluster.isEnabled()) {
+            syncFromCluster();
+            if (!cluster.tryAcquireLeadership()) {
+                log.info("Курсы обновляет другой узел кластера, снимок будет загружен из общей базы данных.");
+                return;
+            }
+        }
+        try {
+            applyRatesIfChanged(ratesService.getRates());
+        } catch (RuntimeException e) {
+            countRefresh("failure");
+            throw e;
+        }
+    }
+
+    /**
+     * Применяет полученные курсы, если они изменились с прошлого обновления, и подтверждает
+     * выпуск источникам (см. {@link MultiSourceRatesService#acknowledge(RatesEdition)}).
+     * Если применить курсы не удалось, выпуск не подтверждается и будет получен повторно.
+     *
+     * @param rates Выпуск курсов либо пустой {@link Optional}, если данные не изменились.
+     */
+    private void applyRatesIfChanged(Optional<RatesEdition> rates) {
+        if (rates.isEmpty()) {
+            countRefresh("unchanged");
+            log.info("Курсы не изменились с прошлого обновления.");
+            return;
+        }
+        boolean applied = applyRates(rates.get());
+        ratesService.acknowledge(rates.get());
+        if (applied) {
+            countRefresh("success");
+        } else {
+            countRefresh("unchanged");
+            log.info("Курсы совпадают с текущими, база данных не изменялась.");
+        }
+    }
+
+    /**
+     * Применяет полученные курсы инкрементально.
+     * <p>
+     * Новый снимок сравнивается со снимком, записанным в базу данных, и в базу записываются только
+     * различия. Если новый снимок отличается и от текущего, он публикуется вместе с событием
+     * {@link RatesChangedEvent} и сохраняется в файл. Курсы выпуска записываются в архив и статистику
+     * под его датой, даже если они совпадают с текущими; если источник дату не сообщил, используется текущая.
+     * </p>
+     *
+     * @param edition Выпуск курсов.
+     * @return {@code true}, если изменились база данных или текущий снимок.
+     */
+    boolean applyRates(RatesEdition edition) {
+        List<CurrencyDto> currencyDtoList = edition.currencies();
+        LocalDate date = edition.date() != null ? edition.date() : LocalDate.now();
+        RatesChangedEvent event = null;
+        boolean written;
+        RatesSnapshot next;
+        synchronized (this) {
+            RatesSnapshot previous = snapshot;
+            next = RatesSnapshot.of(currencyDtoList, previous.getVersion() + 1, date);
+            RatesDeltaDto unsaved = next.diff(persisted);
+            written = !unsaved.isEmpty();
+            if (written) {
+                writeChanges(unsaved, currencyDtoList, persisted.getVersion(), next);
+                persisted = next;
+            }
+            RatesDeltaDto delta = next.diff(previous);
+            if (!delta.isEmpty()) {
+                snapshot = next;
+                event = new RatesChangedEvent(next, delta);
+            }
+        }
+        recordEdition(next);
+        if (event == null) {
+            return written;
+        }
+        publish(event);
+        snapshotStore.save(currencyDtoList, date);
+        return true;
+    }
+
+    /**
+     * Загружает снимок курсов из общей базы данных, если ведущий узел кластера записал новую версию.
+     * <p>
+     * Выполняется с интервалом {@code rates.cluster.poll-interval}, который и ограничивает отставание
+     * узла от ведущего. Загруженный снимок сохраняет версию и момент построения ведущего узла, поэтому
+     * ETag и номера событий совпадают на всех узлах. Вне режима кластера ничего не делает.
+     * </p>
+     */
+    @Scheduled(fixedDelayString = "${rates.cluster.poll-interval:5s}")
+    public void syncFromCluster() {
+        if (!cluster.isEnabled()) {
+            return;
+        }
+        Optional<RatesSnapshot> shared = cluster.loadIfChanged(snapshot.getVersion());
+        if (shared.isEmpty()) {
+            return;
+        }
+        RatesChangedEvent event;
+        synchronized (this) {
+            RatesSnapshot previous = snapshot;
+            RatesSnapshot next = shared.get();
+            if (next.getVersion() == previous.getVersion()) {
+                return;
+            }
+            persisted = next;
+            snapshot = next;
+            event = new RatesChangedEvent(next, next.diff(previous));
+        }
+        publish(event);
+        recordEdition(event.getSnapshot());
+        log.info("Загружен снимок курсов версии {} из общей базы данных.", event.getSnapshot().getVersion());
+    }
+
+    /**
+     * Увеличивает счётчик исходов обновления курсов.
+     *
+     * @param result Исход обновления: success, unchanged или failure.
+     */
+    private void countRefresh(String result) {
+        meterRegistry.counter("rates.refresh", "result", result).increment();
+    }
+
+    /**
+     * Возвращает время с момента публикации текущего снимка.
+     *
+     * @return Время в секундах или {@link Double#NaN}, если снимок ещё не опубликован.
+     */
+    private double snapshotAgeSeconds() {
+        RatesSnapshot current = snapshot;
+        if (current.getVersion() == 0) {
+            return Double.NaN;
+        }
+        return Duration.between(current.getRefreshedAt(), Instant.now()).toMillis() / 1000.0;
+    }
+
+    /**
+     * Строит новый снимок курсов, атомарно заменяет им текущий и рассылает событие
+     * {@link RatesChangedEvent} с изменениями относительно предыдущего снимка.
+     * <p>
+     * Используется при восстановлении курсов из файла при запуске. Такие курсы уже были записаны
+     * в архив курсов и статистику при получении, поэтому повторно не записываются; дата, если она известна,
+     * сохраняется в снимке для расчёта отставания данных.
+     * </p>
+     *
+     * @param currencyDtoList Список объектов {@link CurrencyDto} для публикации.
+     * @param date            Дата, на которую установлены курсы, или {@code null}, если она неизвестна.
+     */
+    void publishSnapshot(List<CurrencyDto> currencyDtoList, LocalDate date) {
+        RatesChangedEvent event;
+        synchronized (this) {
+            RatesSnapshot previous = snapshot;
+            RatesSnapshot next = RatesSnapshot.of(currencyDtoList, previous.getVersion() + 1, date);
+            snapshot = next;
+            event = new RatesChangedEvent(next, next.diff(previous));
+        }
+        publish(event);
+    }
+
+    /**
+     * Рассылает событие о новом снимке курсов.
+     *
+     * @param event Событие {@link RatesChangedEvent}.
+     */
+    private void publish(RatesChangedEvent event) {
+        eventPublisher.publishEvent(event);
+    }
+
+    /**
+     * Записывает курсы снимка в архив курсов и скользящую статистику под датой, на которую они установлены.
+     * Снимки с неизвестной датой не записываются.
+     * <p>
+     * Архив и статистика дополняются напрямую, а не через подписку на событие: первые курсы
+     * применяются ещё при создании сервиса, до регистрации обработчиков событий.
+     * </p>
+     *
+     * @param rates Снимок курсов.
+     */
+    private void recordEdition(RatesSnapshot rates) {
+        if (rates.getDate() != null) {
+            rateArchive.record(rates.getDate(), rates.getCurrencies());
+            statistics.record(rates.getDate(), rates.getCurrencies());
+        }
+    }
+
+    /**
+     * Возвращает последнюю дату, на которую курсы могут быть известны: текущую либо, если ЦБ РФ
+     * уже опубликовал курсы на завтра, дату текущего снимка.
+     *
+     * @return Последняя дата с известными курсами.
+     */
+    private LocalDate lastRateDate() {
+        LocalDate today = LocalDate.now();
+        LocalDate date = snapshot.getDate();
+        return date != null && date.isAfter(today) ? date : today;
+    }
+
+    /**
+     * Возвращает текущий снимок курсов.
+     *
+     * @return Объект {@link RatesSnapshot}.
+     */
+    public RatesSnapshot getSnapshot() {
+        return snapshot;
     }
 
     /**
-     * Сохраняет список валют в базу данных.
+     * Записывает в базу данных только изменения курсов одной транзакцией.
+     * <p>
+     * Загружаются и сохраняются лишь записи изменившихся валют, записи исчезнувших валют удаляются.
+     * История за дату выпуска записывается полностью, чтобы таблица курсов на дату оставалась целой.
+     * В режиме кластера в той же транзакции переводится версия курсов в общей базе данных.
+     * </p>
      *
-     * @param currencyDtoList Список объектов {@link CurrencyDto} для сохранения.
+     * @param delta           Изменения относительно содержимого базы данных.
+     * @param currencyDtoList Полный список объектов {@link CurrencyDto}.
+     * @param expected        Версия снимка, записанного в базу данных.
+     * @param next            Новый снимок.
      */
+    private void writeChanges(RatesDeltaDto delta, List<CurrencyDto> currencyDtoList,
+                              long expected, RatesSnapshot next) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        transactionTemplate.executeWithoutResult(status -> {
+            List<String> charCodes = new ArrayList<>(delta.changed.size() + delta.removed.size());
+            delta.changed.forEach(currencyDto -> charCodes.add(currencyDto.charCode));
+            charCodes.addAll(delta.removed);
+            Map<String, Currency> existing = new HashMap<>();
+            currencyRepository.findAllByCharCodeIn(charCodes)
+                    .forEach(currency -> existing.put(currency.getCharCode(), currency));
 
-    public void saveAll(List<CurrencyDto> currencyDtoList) {
-        for (int i = 0; i <= currencyDtoList.size() - 1; i++) {
-            Currency currency = convertFromDto(currencyDtoList.get(i));
-            saveCurrency(currency);
+            List<Currency> currencies = new ArrayList<>(delta.changed.size());
+            for (CurrencyDto currencyDto : delta.changed) {
+                currencies.add(merge(existing, currencyDto));
+            }
+            currencyRepository.saveAll(currencies);
+            List<Currency> removed = new ArrayList<>(delta.removed.size());
+            for (String charCode : delta.removed) {
+                Currency currency = existing.get(charCode);
+                if (currency != null) {
+                    removed.add(currency);
+                }
+            }
+            currencyRepository.deleteAll(removed);
+            rateHistoryService.record(next.getDate(), currencyDtoList);
+            if (cluster.isEnabled()) {
+                cluster.advanceVersion(expected, next);
+            }
+        });
+        long elapsed = sample.stop(persistTimer);
+        log.info("Изменено валют: {}, удалено: {} за {} мс.",
+                delta.changed.size(), delta.removed.size(), elapsed / 1_000_000);
+    }
+
+    /**
+     * Обновляет существующую запись валюты данными из DTO или создаёт новую.
+     *
+     * @param existing    Существующие записи по коду валюты.
+     * @param currencyDto Новые данные о валюте.
+     * @return Запись для сохранения.
+     */
+    private Currency merge(Map<String, Currency> existing, CurrencyDto currencyDto) {
+        Currency currency = existing.get(currencyDto.charCode);
+        if (currency == null) {
+            return convertFromDto(currencyDto);
         }
+        currency.setName(currencyDto.name);
+        currency.setNominal(currencyDto.nominal);
+        currency.setValue(currencyDto.value);
+        return currency;
     }
 
     /**
-     * Обновляет список валют в базе данных.
+     * Ищет валюту по её коду в текущем снимке курсов, не создавая исключений для неизвестных кодов.
+     * <p>
+     * Код переводится в индекс таблицы всех трёхбуквенных кодов (см. {@link RatesSnapshot#ordinal}),
+     * поэтому отказ для произвольного кода стоит столько же, сколько и успешный поиск.
+     * </p>
      *
-     * @param currencyDtoList Список объектов {@link CurrencyDto} для обновления.
+     * @param charCode Код валюты (например, USD, EUR и т.д.).
+     * @return Объект {@link CurrencyDto} или {@code null}, если валюта не найдена.
      */
-    public void updateAll(List<CurrencyDto> currencyDtoList) {
-        for (int i = 0; i <= currencyDtoList.size() - 1; i++) {
-            Currency currency = convertFromDto(currencyDtoList.get(i));
-            updateCurrency((long) i+1, currency);
+    public CurrencyDto findByCharCode(String charCode) {
+        return findByCharCode(snapshot, charCode);
+    }
+
+    /**
+     * Ищет валюту по её коду в заданном снимке курсов, учитывая поиск в метриках {@code rates.lookup}.
+     * <p>
+     * Позволяет построить ответ и его заголовки кэширования по одному и тому же снимку.
+     * </p>
+     *
+     * @param current  Снимок курсов.
+     * @param charCode Код валюты (например, USD, EUR и т.д.).
+     * @return Объект {@link CurrencyDto} или {@code null}, если валюта не найдена.
+     */
+    public CurrencyDto findByCharCode(RatesSnapshot current, String charCode) {
+        CurrencyDto currency = current.get(charCode);
+        if (currency == null) {
+            lookupMisses.increment();
+            return null;
         }
+        lookupHit(currency.charCode).increment();
+        return currency;
     }
 
     /**
-     * Возвращает данные о валюте по её коду.
+     * Возвращает скользящую статистику курса валюты за 7, 30 и 365 дней (см. {@link RollingStatistics}).
+     * <p>
+     * Статистика вычисляется при обновлении курсов, поэтому запрос не обращается к истории.
+     * </p>
      *
      * @param charCode Код валюты (например, USD, EUR и т.д.).
-     * @return Объект {@link CurrencyDto}, содержащий информацию о валюте.
+     * @return Объект {@link RateStatisticsDto} или {@code null}, если курсов валюты нет.
      */
-    public CurrencyDto getByCharCode(String charCode) {
-        return currencyRepository.findByCharCode(charCode)
-                .stream()
-                .findFirst()
-                .map(this::convertToDto)
-                .orElseThrow(() -> new RuntimeException("Валюта с кодом " + charCode + " не найдена."));
+    public RateStatisticsDto getStatistics(String charCode) {
+        return statistics.get(charCode);
+    }
+
+    /**
+     * Ищет курс валюты, действовавший на дату, в архиве курсов (см. {@link RateArchive}).
+     * <p>
+     * Курс читается из отображённого в память файла без обращения к базе данных. Название валюты
+     * берётся из текущего снимка курсов, а для валют, которых в нём уже нет, заменяется кодом.
+     * </p>
+     *
+     * @param charCode Код валюты (например, USD, EUR, RUB и т.д.).
+     * @param date     Дата курса.
+     * @return Объект {@link CurrencyDto} или {@code null}, если курса на дату нет (в том числе для дат
+     * позже последнего выпуска).
+     */
+    public CurrencyDto findByCharCode(String charCode, LocalDate date) {
+        if (date.isAfter(lastRateDate())) {
+            return null;
+        }
+        long entry = rateArchive.find(charCode, date);
+        if (entry == 0) {
+            return null;
+        }
+        CurrencyDto current = snapshot.get(charCode);
+        return new CurrencyDto(charCode, current == null ? charCode : current.name, RateArchive.nominal(entry),
+                FixedPoint.toDecimal(RateArchive.value(entry), FixedPoint.SCALE));
+    }
+
+    /**
+     * Возвращает счётчик попаданий поиска для валюты, создавая его при первом обращении.
+     *
+     * @param charCode Код валюты, присутствующей в снимке.
+     * @return Счётчик попаданий.
+     */
+    private Counter lookupHit(String charCode) {
+        int key = RatesSnapshot.codeKey(charCode);
+        Counter counter = lookupHits[key];
+        if (counter == null) {
+            counter = Counter.builder("rates.lookup")
+                    .description("Поиск валюты по коду")
+                    .tag("code", charCode)
+                    .tag("result", "hit")
+                    .register(meterRegistry);
+            lookupHits[key] = counter;
+        }
+        return counter;
+    }
+
+    @Override
+    public void convertBatch(Iterator<ConversionRequestDto> requests, Consumer<ConversionDto> results) {
+        RatesSnapshot current = snapshot;
+        while (requests.hasNext()) {
+            ConversionRequestDto request = requests.next();
+            results.accept(convert(current, request.from, request.to, request.amount));
+        }
+    }
+
+    /**
+     * Конвертирует сумму по заданному снимку курсов, не создавая исключений при ошибках.
+     * <p>
+     * Кросс-курс берётся из матрицы, построенной при обновлении курсов, поэтому
+     * конвертация любой пары валют, включая рубль, сводится к одному обращению к массиву.
+     * Вычисления выполняются точно в целых числах с фиксированной точкой (см. {@link FixedPoint}),
+     * результат округляется до {@link FixedPoint#SCALE} знаков после запятой.
+     * </p>
+     *
+     * @param current Снимок курсов.
+     * @param from    Код исходной валюты.
+     * @param to      Код целевой валюты.
+     * @param amount  Сумма в исходной валюте.
+     * @return Объект {@link ConversionDto} с результатом или с описанием ошибки.
+     */
+    public ConversionDto convert(RatesSnapshot current, String from, String to, BigDecimal amount) {
+        int fromOrdinal = current.ordinal(from);
+        if (fromOrdinal < 0) {
+            return ConversionDto.failed(from, to, amount, "Валюта с кодом " + from + " не найдена.");
+        }
+        int toOrdinal = current.ordinal(to);
+        if (toOrdinal < 0) {
+            return ConversionDto.failed(from, to, amount, "Валюта с кодом " + to + " не найдена.");
+        }
+        if (amount == null) {
+            return ConversionDto.failed(from, to, null, "Не указана сумма для конвертации.");
+        }
+        try {
+            long result = current.convert(fromOrdinal, toOrdinal, FixedPoint.toScaled(amount, FixedPoint.SCALE));
+            long rate = current.crossRate(fromOrdinal, toOrdinal);
+            return new ConversionDto(from, to, amount,
+                    FixedPoint.toDecimal(rate, FixedPoint.RATE_SCALE), FixedPoint.toDecimal(result, FixedPoint.SCALE));
+        } catch (ArithmeticException e) {
+            return ConversionDto.failed(from, to, amount, "Сумма " + amount + " слишком велика для конвертации.");
+        }
+    }
+
+    /**
+     * Конвертирует сумму по курсам, действовавшим на дату, не создавая исключений при ошибках.
+     * <p>
+     * Курсы обеих валют читаются из архива курсов (см. {@link RateArchive}), кросс-курс вычисляется
+     * точно в целых числах с фиксированной точкой: {@code amount * value_from * nominal_to / (nominal_from * value_to)}.
+     * </p>
+     *
+     * @param from   Код исходной валюты.
+     * @param to     Код целевой валюты.
+     * @param amount Сумма в исходной валюте.
+     * @param date   Дата курсов.
+     * @return Объект {@link ConversionDto} с результатом или с описанием ошибки.
+     */
+    public ConversionDto convert(String from, String to, BigDecimal amount, LocalDate date) {
+        boolean published = !date.isAfter(lastRateDate());
+        long fromEntry = published ? rateArchive.find(from, date) : 0;
+        if (fromEntry == 0) {
+            return ConversionDto.failed(from, to, amount, "Курс валюты " + from + " на дату " + date + " не найден.");
+        }
+        long toEntry = published ? rateArchive.find(to, date) : 0;
+        if (toEntry == 0) {
+            return ConversionDto.failed(from, to, amount, "Курс валюты " + to + " на дату " + date + " не найден.");
+        }
+        if (amount == null) {
+            return ConversionDto.failed(from, to, null, "Не указана сумма для конвертации.");
+        }
+        try {
+            long numerator = Math.multiplyExact(RateArchive.value(fromEntry), RateArchive.nominal(toEntry));
+            long denominator = Math.multiplyExact(RateArchive.nominal(fromEntry), RateArchive.value(toEntry));
+            long result = FixedPoint.mulDiv(FixedPoint.toScaled(amount, FixedPoint.SCALE), numerator, denominator);
+            long rate = FixedPoint.mulDiv(FixedPoint.RATE_ONE, numerator, denominator);
+            return new ConversionDto(from, to, amount,
+                    FixedPoint.toDecimal(rate, FixedPoint.RATE_SCALE), FixedPoint.toDecimal(result, FixedPoint.SCALE));
+        } catch (ArithmeticException e) {
+            return ConversionDto.failed(from, to, amount, "Сумма " + amount + " слишком велика для конвертации.");
+        }
     }
 
     /**
@@ -109,6 +669,7 @@ public class CurrencyServiceImpl implements CurrencyService {
                 .map(currency -> {
                     currency.setName(updatedCurrency.getName());
                     currency.setCharCode(updatedCurrency.getCharCode());
+                    currency.setNominal(updatedCurrency.getNominal());
                     currency.setValue(updatedCurrency.getValue());
                     return currencyRepository.save(currency);
                 })
@@ -139,6 +700,7 @@ public class CurrencyServiceImpl implements CurrencyService {
     public Currency convertFromDto(CurrencyDto currencyDto) {
         Currency currency = new Currency();
         currency.setCharCode(currencyDto.charCode);
+        currency.setNominal(currencyDto.nominal);
         currency.setValue(currencyDto.value);
         currency.setName(currencyDto.name);
         return currency;
@@ -154,6 +716,7 @@ public class CurrencyServiceImpl implements CurrencyService {
         return new CurrencyDto(
                 currency.getCharCode(),
                 currency.getName(),
+                currency.getNominal(),
                 currency.getValue()
         );
     }
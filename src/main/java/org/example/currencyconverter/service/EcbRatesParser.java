@@ -0,0 +1,109 @@
+package org.example.currencyconverter.service;
+
+import org.example.currencyconverter.api.dto.CurrencyDto;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Потоковый парсер ежедневных курсов Европейского центрального банка (eurofxref-daily.xml).
+ * <p>
+ * ЕЦБ публикует количество единиц валюты за один евро. Парсер переводит его в стоимость
+ * номинала валюты в евро: номинал выбирается как степень десяти, сопоставимая с курсом
+ * (100 для японской иены, 10000 для индонезийской рупии), чтобы при переводе в рубли
+ * сохранялась точность.
+ * </p>
+ */
+public final class EcbRatesParser {
+
+    /**
+     * Код валюты, относительно которой ЕЦБ публикует курсы.
+     */
+    public static final String BASE_CHAR_CODE = "EUR";
+
+    /**
+     * Количество знаков после запятой у стоимости номинала в евро.
+     */
+    private static final int EUR_SCALE = 10;
+
+    private static final Locale RUSSIAN = Locale.forLanguageTag("ru");
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private EcbRatesParser() {}
+
+    /**
+     * Разбирает ответ ЕЦБ в список объектов {@link CurrencyDto} с курсами в евро.
+     *
+     * @param in Поток байтов XML-документа. Закрывается по завершении разбора.
+     * @return Список объектов {@link CurrencyDto} в порядке следования в документе.
+     * @throws IOException если документ не удалось прочитать или разобрать.
+     */
+    public static List<CurrencyDto> parse(InputStream in) throws IOException {
+        try (in) {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+            try {
+                List<CurrencyDto> currencies = new ArrayList<>(32);
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && "Cube".equals(reader.getLocalName())) {
+                        String charCode = reader.getAttributeValue(null, "currency");
+                        String rate = reader.getAttributeValue(null, "rate");
+                        if (charCode != null && rate != null) {
+                            currencies.add(toCurrency(charCode, new BigDecimal(rate)));
+                        }
+                    }
+                }
+                return currencies;
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new IOException("Ошибка при разборе курсов ЕЦБ", e);
+        }
+    }
+
+    /**
+     * Переводит курс ЕЦБ (единиц валюты за один евро) в стоимость номинала валюты в евро.
+     *
+     * @param charCode Код валюты.
+     * @param rate     Количество единиц валюты за один евро.
+     * @return Объект {@link CurrencyDto}.
+     */
+    private static CurrencyDto toCurrency(String charCode, BigDecimal rate) {
+        int nominal = 1;
+        while (nominal < 1_000_000 && rate.compareTo(BigDecimal.valueOf(nominal * 10L)) > 0) {
+            nominal *= 10;
+        }
+        BigDecimal value = BigDecimal.valueOf(nominal).divide(rate, EUR_SCALE, FixedPoint.ROUNDING);
+        return new CurrencyDto(charCode, displayName(charCode), nominal, value);
+    }
+
+    /**
+     * Возвращает русское название валюты по её коду.
+     *
+     * @param charCode Код валюты.
+     * @return Название валюты или код, если валюта неизвестна.
+     */
+    private static String displayName(String charCode) {
+        try {
+            return java.util.Currency.getInstance(charCode).getDisplayName(RUSSIAN);
+        } catch (IllegalArgumentException e) {
+            return charCode;
+        }
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+}
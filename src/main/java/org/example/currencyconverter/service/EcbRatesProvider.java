@@ -0,0 +1,139 @@
+package org.example.currencyconverter.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Источник ежедневных курсов Европейского центрального банка.
+ * <p>
+ * Курсы публикуются относительно евро и переводятся в рубли по курсу евро из источника
+ * с более высоким приоритетом (см. {@link MultiSourceRatesService}). Запросы выполняются
+ * условно (If-Modified-Since) относительно последнего подтверждённого ответа.
+ * </p>
+ */
+@Slf4j
+@Component
+public class EcbRatesProvider implements RateProvider {
+
+    /**
+     * URL ежедневных курсов ЕЦБ.
+     */
+    private final URI ecbUrl;
+
+    /**
+     * Ограничение времени ожидания ответа.
+     */
+    private final Duration requestTimeout;
+
+    private final HttpClient httpClient;
+
+    /**
+     * Значение заголовка Last-Modified последнего подтверждённого ответа.
+     */
+    private volatile String lastModified;
+
+    /**
+     * Значение заголовка Last-Modified последнего полученного, но ещё не подтверждённого ответа.
+     */
+    private final PendingEdition<String> pending = new PendingEdition<>();
+
+    /**
+     * Конструктор для внедрения настроек.
+     *
+     * @param ecbUrl         URL ежедневных курсов ЕЦБ.
+     * @param connectTimeout Ограничение времени установки соединения.
+     * @param requestTimeout Ограничение времени ожидания ответа.
+     * @param executor       Исполнитель асинхронных операций HTTP-клиента.
+     */
+    @Autowired
+    public EcbRatesProvider(
+            @Value("${ecb.url:https://www.ecb.europa.eu/stats/eurofxref/eurofxref-daily.xml}") String ecbUrl,
+            @Value("${ecb.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${ecb.request-timeout:10s}") Duration requestTimeout,
+            @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.ecbUrl = URI.create(ecbUrl);
+        this.requestTimeout = requestTimeout;
+        this.httpClient = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(connectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return "ecb";
+    }
+
+    @Override
+    public String getBaseCode() {
+        return EcbRatesParser.BASE_CHAR_CODE;
+    }
+
+    @Override
+    public CompletableFuture<Optional<RatesEdition>> fetchRatesAsync() {
+        HttpRequest.Builder request = HttpRequest.newBuilder(ecbUrl).timeout(requestTimeout).GET();
+        String currentLastModified = lastModified;
+        if (currentLastModified != null) {
+            request.header("If-Modified-Since", currentLastModified);
+        }
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.ofInputStream())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        closeQuietly(response.body());
+                        if (response.statusCode() == 304) {
+                            return Optional.empty();
+                        }
+                        throw new RuntimeException("Ошибка при получении курсов ЕЦБ: HTTP " + response.statusCode());
+                    }
+                    List<CurrencyDto> currencies;
+                    try {
+                        currencies = EcbRatesParser.parse(response.body());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    log.info("Получены курсы {} валют от ЕЦБ.", currencies.size());
+                    RatesEdition edition = new RatesEdition(currencies, null);
+                    pending.put(edition, response.headers().firstValue("Last-Modified").orElse(null));
+                    return Optional.of(edition);
+                });
+    }
+
+    @Override
+    public void acknowledge(RatesEdition edition) {
+        String modified = pending.take(edition);
+        if (modified != null) {
+            lastModified = modified;
+        }
+    }
+
+    /**
+     * Закрывает поток тела ответа, который не будет прочитан.
+     *
+     * @param body Поток тела ответа.
+     */
+    private static void closeQuietly(InputStream body) {
+        try {
+            body.close();
+        } catch (IOException ignored) {
+            // Соединение освобождается в любом случае.
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.example.currencyconverter.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Источник курсов из локального файла в формате ответа API ЦБ РФ (daily_json.js).
+ * <p>
+ * Предназначен для работы без доступа к сети и для тестов. Файл перечитывается,
+ * только если время его последней модификации отличается от подтверждённого чтения.
+ * </p>
+ */
+@Slf4j
+@Component
+public class FileRatesProvider implements RateProvider {
+
+    /**
+     * Путь к файлу курсов или {@code null}, если файл не задан.
+     */
+    private final Path file;
+
+    private final Executor executor;
+
+    /**
+     * Время модификации файла при последнем подтверждённом чтении.
+     */
+    private volatile FileTime lastModified;
+
+    /**
+     * Время модификации файла при последнем чтении, ещё не подтверждённом.
+     */
+    private final PendingEdition<FileTime> pending = new PendingEdition<>();
+
+    /**
+     * Конструктор для внедрения настроек.
+     *
+     * @param file     Путь к файлу курсов; пустая строка означает, что файл не задан.
+     * @param executor Исполнитель, на котором читается файл.
+     */
+    @Autowired
+    public FileRatesProvider(@Value("${rates.providers.file.path:}") String file,
+                             @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.file = file.isBlank() ? null : Path.of(file);
+        this.executor = executor;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public CompletableFuture<Optional<RatesEdition>> fetchRatesAsync() {
+        return CompletableFuture.supplyAsync(this::read, executor);
+    }
+
+    @Override
+    public void acknowledge(RatesEdition edition) {
+        FileTime modified = pending.take(edition);
+        if (modified != null) {
+            lastModified = modified;
+        }
+    }
+
+    /**
+     * Читает файл курсов, если он изменился с прошлого подтверждённого чтения.
+     *
+     * @return Выпуск курсов с датой из поля Date файла либо пустой {@link Optional}, если файл не изменился.
+     */
+    private Optional<RatesEdition> read() {
+        if (file == null) {
+            throw new IllegalStateException("Не задан файл курсов (rates.providers.file.path).");
+        }
+        try {
+            FileTime modified = Files.getLastModifiedTime(file);
+            if (modified.equals(lastModified)) {
+                return Optional.empty();
+            }
+            CbrRatesParser.Daily daily;
+            try (InputStream in = Files.newInputStream(file)) {
+                daily = CbrRatesParser.parseDaily(in);
+            }
+            log.info("Прочитаны курсы {} валют из файла {}.", daily.currencies().size(), file);
+            RatesEdition edition = new RatesEdition(daily.currencies(),
+                    daily.date() == null ? null : daily.date().toLocalDate());
+            pending.put(edition, modified);
+            return Optional.of(edition);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка при чтении файла курсов " + file, e);
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.example.currencyconverter.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Арифметика с фиксированной точкой для курсов и сумм.
+ * <p>
+ * Суммы и курсы ЦБ РФ хранятся как целые числа с {@link #SCALE} знаками после запятой,
+ * кросс-курсы — с {@link #RATE_SCALE} знаками. Основная операция {@link #mulDiv(long, long, long)}
+ * вычисляет {@code a * b / c} с округлением {@link #ROUNDING} через 128-битное промежуточное
+ * произведение и не выделяет памяти, пока делитель и результат укладываются в ограничения;
+ * в остальных случаях используется {@link BigDecimal}. Если известно приближённое значение
+ * {@code b / c}, частное оценивается умножением в {@code double} и уточняется точным остатком,
+ * что избавляет от целочисленного деления.
+ * </p>
+ */
+public final class FixedPoint {
+
+    /**
+     * Количество знаков после запятой у сумм и курсов ЦБ РФ.
+     */
+    public static final int SCALE = 4;
+
+    /**
+     * Количество знаков после запятой у кросс-курсов.
+     */
+    public static final int RATE_SCALE = 8;
+
+    /**
+     * Режим округления результатов.
+     */
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+
+    /**
+     * Единица с {@link #RATE_SCALE} знаками после запятой.
+     */
+    static final long RATE_ONE = 100_000_000L;
+
+    /**
+     * Верхняя граница делителя, при которой остаток, сдвинутый на 24 бита, остаётся положительным.
+     */
+    private static final long DIVISOR_LIMIT = 1L << 39;
+
+    private static final long CHUNK_MASK = (1L << 24) - 1;
+
+    /**
+     * Граница, ниже которой {@code long} представим в {@code double} точно.
+     */
+    private static final long EXACT_DOUBLE_LIMIT = 1L << 53;
+
+    /**
+     * Граница частного, ниже которой оценка в {@code double} отличается от точного значения
+     * не более чем на единицу.
+     */
+    private static final double ESTIMATE_LIMIT = 0x1p50;
+
+    private FixedPoint() {}
+
+    /**
+     * Переводит десятичное число в целое с заданным количеством знаков после запятой.
+     *
+     * @param value Десятичное число.
+     * @param scale Количество знаков после запятой.
+     * @return Масштабированное значение.
+     * @throws ArithmeticException если значение не помещается в {@code long}.
+     */
+    public static long toScaled(BigDecimal value, int scale) {
+        return value.setScale(scale, ROUNDING).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Переводит масштабированное целое в десятичное число.
+     *
+     * @param unscaled Масштабированное значение.
+     * @param scale    Количество знаков после запятой.
+     * @return Десятичное число.
+     */
+    public static BigDecimal toDecimal(long unscaled, int scale) {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    /**
+     * Вычисляет {@code a * b / c} с округлением {@link #ROUNDING} (половина — от нуля).
+     *
+     * @param a Множитель.
+     * @param b Положительный множитель.
+     * @param c Положительный делитель.
+     * @return Округлённое частное.
+     * @throws ArithmeticException если результат не помещается в {@code long}.
+     */
+    public static long mulDiv(long a, long b, long c) {
+        boolean negative = a < 0;
+        long x = negative ? -a : a;
+        if (x < 0 || c >= DIVISOR_LIMIT) {
+            return slowMulDiv(a, b, c);
+        }
+        long hi = Math.multiplyHigh(x, b);
+        long lo = x * b;
+        long quotient;
+        long remainder;
+        if (hi == 0 && lo >= 0) {
+            quotient = lo / c;
+            remainder = lo % c;
+        } else if (hi < (c >>> 1)) {
+            // Деление 128-битного произведения по частям: 16 + 24 + 24 бита младшего слова.
+            long current = (hi << 16) | (lo >>> 48);
+            long q1 = current / c;
+            remainder = current % c;
+            current = (remainder << 24) | ((lo >>> 24) & CHUNK_MASK);
+            long q2 = current / c;
+            remainder = current % c;
+            current = (remainder << 24) | (lo & CHUNK_MASK);
+            long q3 = current / c;
+            remainder = current % c;
+            quotient = (q1 << 48) | (q2 << 24) | q3;
+        } else {
+            return slowMulDiv(a, b, c);
+        }
+        if (remainder >= c - remainder) {
+            quotient++;
+        }
+        return negative ? -quotient : quotient;
+    }
+
+    /**
+     * Вычисляет {@code a * b / c} с округлением {@link #ROUNDING}, используя заранее вычисленное
+     * отношение {@code b / c} для оценки частного.
+     * <p>
+     * Оценка уточняется по остатку {@code a * b - q * c}, который вычисляется в 64-битной арифметике
+     * с переполнением: истинный остаток мал, поэтому младшие 64 бита дают его точное значение.
+     * </p>
+     *
+     * @param a     Множитель.
+     * @param b     Положительный множитель.
+     * @param c     Положительный делитель.
+     * @param ratio Значение {@code (double) b / c}.
+     * @return Округлённое частное.
+     * @throws ArithmeticException если результат не помещается в {@code long}.
+     */
+    public static long mulDiv(long a, long b, long c, double ratio) {
+        long x = Math.abs(a);
+        double estimate = x * ratio;
+        if (x < 0 || x >= EXACT_DOUBLE_LIMIT || estimate >= ESTIMATE_LIMIT) {
+            return mulDiv(a, b, c);
+        }
+        long quotient = (long) estimate;
+        long remainder = x * b - quotient * c;
+        while (remainder < 0) {
+            quotient--;
+            remainder += c;
+        }
+        while (remainder >= c) {
+            quotient++;
+            remainder -= c;
+        }
+        if (remainder >= c - remainder) {
+            quotient++;
+        }
+        return a < 0 ? -quotient : quotient;
+    }
+
+    /**
+     * Вычисляет {@code a * b / c} через {@link BigDecimal}.
+     */
+    private static long slowMulDiv(long a, long b, long c) {
+        return BigDecimal.valueOf(a)
+                .multiply(BigDecimal.valueOf(b))
+                .divide(BigDecimal.valueOf(c), 0, ROUNDING)
+                .longValueExact();
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.currencyconverter.service;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ограниченный кольцевой буфер без блокировок для многих производителей и одного потребителя.
+ * <p>
+ * Каждая ячейка хранит порядковый номер: производитель занимает позицию сравнением с обменом счётчика
+ * {@code tail}, записывает элемент и публикует его номером {@code позиция + 1}; потребитель забирает
+ * элемент и освобождает ячейку для следующего круга номером {@code позиция + ёмкость}. Производители
+ * не ждут друг друга дольше одной попытки CAS, а заполненный буфер сразу отклоняет элемент.
+ * </p>
+ *
+ * @param <E> Тип элементов.
+ */
+final class MpscRingBuffer<E> {
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+
+    /**
+     * Следующая позиция записи, общая для производителей.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Следующая позиция чтения; изменяется только потребителем.
+     */
+    private volatile long head;
+
+    /**
+     * Создаёт буфер.
+     *
+     * @param capacity Ёмкость, округляется вверх до степени двойки не меньше 2: в буфере из одной ячейки
+     *                 опубликованный элемент неотличим от свободной ячейки следующего круга.
+     * @throws IllegalStateException если ёмкость не положительна или слишком велика.
+     */
+    MpscRingBuffer(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30) {
+            throw new IllegalStateException("Некорректная ёмкость буфера: " + capacity + ".");
+        }
+        this.capacity = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.elements = new AtomicReferenceArray<>(this.capacity);
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Добавляет элемент, если в буфере есть место. Может вызываться из любых потоков.
+     *
+     * @param element Элемент.
+     * @return {@code true}, если элемент добавлен, {@code false}, если буфер заполнен.
+     */
+    boolean offer(E element) {
+        long position = tail.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    elements.lazySet(index, element);
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                return false;
+            } else {
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Переносит в список опубликованные элементы в порядке добавления. Вызывается только потребителем.
+     *
+     * @param target Список, в который добавляются элементы.
+     * @param limit  Наибольшее количество элементов.
+     * @return Количество перенесённых элементов.
+     */
+    int drainTo(List<E> target, int limit) {
+        long position = head;
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) position & mask;
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            target.add(elements.get(index));
+            elements.lazySet(index, null);
+            sequences.lazySet(index, position + capacity);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    /**
+     * Возвращает приблизительное количество элементов в буфере.
+     */
+    int size() {
+        long size = tail.get() - head;
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    /**
+     * Возвращает ёмкость буфера.
+     */
+    int capacity() {
+        return capacity;
+    }
+}
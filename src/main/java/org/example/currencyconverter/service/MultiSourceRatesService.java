@@ -0,0 +1,294 @@
+package org.example.currencyconverter.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Получение курсов валют из нескольких источников.
+ * <p>
+ * Источники ({@link RateProvider}) перечисляются в настройке {@code rates.providers.priority}
+ * в порядке убывания приоритета и опрашиваются параллельно. Ответ каждого источника ограничен
+ * временем {@code rates.providers.timeout}: вместо курсов не успевшего или завершившегося ошибкой
+ * источника используются полученные от него ранее, поэтому медленный источник не задерживает обновление
+ * дольше этого времени. Если источник с наивысшим приоритетом прислал новые данные, опрос завершается
+ * сразу, а для ещё не ответивших источников также берутся их прежние курсы; их новые данные будут
+ * получены следующим опросом.
+ * </p>
+ * <p>
+ * Курсы объединяются по приоритету: валюта берётся из первого источника, в котором она есть.
+ * Курсы источников с другой базовой валютой (например, ЕЦБ) переводятся в рубли по курсу
+ * базовой валюты из источников с более высоким приоритетом. Если источник сообщил, что данные
+ * не изменились, используются полученные от него ранее. Дата выпуска берётся из источника
+ * с наивысшим приоритетом, который её сообщает. Исходы опроса источников публикуются
+ * как метрика {@code rates.provider.fetch}.
+ * </p>
+ * <p>
+ * Объединённый выпуск должен быть подтверждён ({@link #acknowledge(RatesEdition)}) после того, как курсы
+ * применены и сохранены; только тогда источники запоминают свои выпуски. Если применить курсы не удалось,
+ * следующий опрос снова получит их от источников.
+ * </p>
+ */
+@Slf4j
+@Service
+public class MultiSourceRatesService {
+
+    /**
+     * Источники в порядке убывания приоритета.
+     */
+    private final List<RateProvider> providers;
+
+    /**
+     * Ограничение времени ожидания ответа одного источника.
+     */
+    private final Duration timeout;
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Последние подтверждённые курсы каждого источника, по имени источника.
+     */
+    private final Map<String, RatesEdition> lastRates = new ConcurrentHashMap<>();
+
+    /**
+     * Новые выпуски источников, вошедшие в последний объединённый выпуск, до его подтверждения.
+     */
+    private final PendingEdition<List<ProviderRates>> pending = new PendingEdition<>();
+
+    /**
+     * Конструктор для внедрения зависимостей.
+     *
+     * @param availableProviders Все зарегистрированные источники курсов.
+     * @param priority           Имена используемых источников в порядке убывания приоритета.
+     * @param timeout            Ограничение времени ожидания ответа одного источника.
+     * @param meterRegistry      Реестр метрик.
+     * @throws IllegalStateException если указан неизвестный источник или не указано ни одного.
+     */
+    @Autowired
+    public MultiSourceRatesService(List<RateProvider> availableProviders,
+                                   @Value("${rates.providers.priority:cbr}") List<String> priority,
+                                   @Value("${rates.providers.timeout:30s}") Duration timeout,
+                                   MeterRegistry meterRegistry) {
+        Map<String, RateProvider> byName = new LinkedHashMap<>();
+        availableProviders.forEach(provider -> byName.put(provider.getName(), provider));
+        List<RateProvider> selected = new ArrayList<>(priority.size());
+        for (String name : priority) {
+            RateProvider provider = byName.get(name.trim());
+            if (provider == null) {
+                throw new IllegalStateException("Неизвестный источник курсов: " + name + ". Доступны: " + byName.keySet());
+            }
+            selected.add(provider);
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalStateException("Не указано ни одного источника курсов (rates.providers.priority).");
+        }
+        this.providers = List.copyOf(selected);
+        this.timeout = timeout;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Асинхронно опрашивает все источники и объединяет их курсы.
+     *
+     * @return Выпуск курсов к рублю либо пустой {@link Optional},
+     * если ни один источник не сообщил об изменении данных.
+     */
+    public CompletableFuture<Optional<RatesEdition>> fetchRatesAsync() {
+        List<CompletableFuture<ProviderRates>> results = new ArrayList<>(providers.size());
+        for (RateProvider provider : providers) {
+            results.add(fetch(provider));
+        }
+        CompletableFuture<Void> ready = new CompletableFuture<>();
+        results.get(0).thenAccept(first -> {
+            if (first.changed()) {
+                ready.complete(null);
+            }
+        });
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0])).thenRun(() -> ready.complete(null));
+        return ready.thenApply(ignored -> {
+            List<ProviderRates> received = new ArrayList<>(providers.size());
+            for (int i = 0; i < providers.size(); i++) {
+                ProviderRates result = results.get(i).getNow(null);
+                received.add(result != null ? result : stale(providers.get(i)));
+            }
+            return merge(received);
+        });
+    }
+
+    /**
+     * Опрашивает все источники и объединяет их курсы, ожидая завершения опроса.
+     *
+     * @return Выпуск курсов либо пустой {@link Optional},
+     * если ни один источник не сообщил об изменении данных.
+     * @throws RuntimeException если курсы не удалось получить ни от одного источника.
+     */
+    public Optional<RatesEdition> getRates() {
+        try {
+            return fetchRatesAsync().join();
+        } catch (CompletionException e) {
+            throw new RuntimeException("Ошибка при получении курсов валют", e.getCause());
+        }
+    }
+
+    /**
+     * Опрашивает один источник с ограничением времени ожидания.
+     *
+     * @param provider Источник курсов.
+     * @return Курсы источника; при ошибке или превышении времени — полученные от него ранее.
+     */
+    private CompletableFuture<ProviderRates> fetch(RateProvider provider) {
+        CompletableFuture<Optional<RatesEdition>> future;
+        try {
+            future = provider.fetchRatesAsync();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).handle((rates, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                boolean timedOut = cause instanceof TimeoutException;
+                countFetch(provider, timedOut ? "timeout" : "failure");
+                log.warn("Для источника курсов {} используются прежние курсы: {}", provider.getName(),
+                        timedOut ? "превышено время ожидания " + timeout : cause.toString());
+                return stale(provider);
+            }
+            if (rates.isPresent()) {
+                countFetch(provider, "success");
+                return new ProviderRates(provider, rates.get(), true);
+            }
+            countFetch(provider, "unchanged");
+            return stale(provider);
+        });
+    }
+
+    /**
+     * Возвращает последние подтверждённые курсы источника.
+     *
+     * @param provider Источник курсов.
+     * @return Прежние курсы источника без признака изменения; без курсов, если их ещё не было.
+     */
+    private ProviderRates stale(RateProvider provider) {
+        return new ProviderRates(provider, lastRates.get(provider.getName()), false);
+    }
+
+    /**
+     * Объединяет курсы источников по приоритету.
+     *
+     * @param results Курсы источников в порядке убывания приоритета.
+     * @return Объединённый выпуск либо пустой {@link Optional}, если ни один источник не прислал новых данных.
+     * @throws RuntimeException если ни один источник не дал курсов.
+     */
+    private Optional<RatesEdition> merge(List<ProviderRates> results) {
+        Map<String, CurrencyDto> merged = new LinkedHashMap<>();
+        LocalDate date = null;
+        boolean changed = false;
+        List<String> used = new ArrayList<>(results.size());
+        List<ProviderRates> received = new ArrayList<>(results.size());
+        for (ProviderRates result : results) {
+            if (result.rates() == null) {
+                continue;
+            }
+            String baseCode = result.provider().getBaseCode();
+            CurrencyDto anchor = null;
+            if (!RatesSnapshot.BASE_CHAR_CODE.equals(baseCode)) {
+                anchor = merged.get(baseCode);
+                if (anchor == null) {
+                    log.warn("Курсы источника {} пропущены: нет курса {} к рублю.", result.provider().getName(), baseCode);
+                    continue;
+                }
+            }
+            for (CurrencyDto currency : result.rates().currencies()) {
+                if (RatesSnapshot.BASE_CHAR_CODE.equals(currency.charCode)) {
+                    continue;
+                }
+                merged.putIfAbsent(currency.charCode, anchor == null ? currency : rebase(currency, anchor));
+            }
+            if (date == null) {
+                date = result.rates().date();
+            }
+            changed |= result.changed();
+            if (result.changed()) {
+                received.add(result);
+            }
+            used.add(result.provider().getName());
+        }
+        if (merged.isEmpty()) {
+            throw new RuntimeException("Не удалось получить курсы валют ни от одного источника");
+        }
+        if (!changed) {
+            return Optional.empty();
+        }
+        log.info("Курсы {} валют объединены из источников: {}.", merged.size(), used);
+        RatesEdition edition = new RatesEdition(List.copyOf(merged.values()), date);
+        pending.put(edition, received);
+        return Optional.of(edition);
+    }
+
+    /**
+     * Подтверждает, что объединённый выпуск применён и сохранён, и подтверждает
+     * источникам их выпуски, вошедшие в него (см. {@link RateProvider#acknowledge(RatesEdition)}).
+     *
+     * @param edition Выпуск, возвращённый {@link #fetchRatesAsync()} или {@link #getRates()}.
+     */
+    public void acknowledge(RatesEdition edition) {
+        List<ProviderRates> received = pending.take(edition);
+        if (received == null) {
+            return;
+        }
+        for (ProviderRates result : received) {
+            lastRates.put(result.provider().getName(), result.rates());
+            result.provider().acknowledge(result.rates());
+        }
+    }
+
+    /**
+     * Переводит курс валюты из базовой валюты источника в рубли.
+     *
+     * @param currency Курс валюты в базовой валюте источника.
+     * @param anchor   Курс базовой валюты источника к рублю.
+     * @return Курс валюты к рублю с тем же номиналом.
+     */
+    private static CurrencyDto rebase(CurrencyDto currency, CurrencyDto anchor) {
+        BigDecimal value = currency.value
+                .multiply(anchor.value)
+                .divide(BigDecimal.valueOf(anchor.nominal), FixedPoint.SCALE, FixedPoint.ROUNDING);
+        return new CurrencyDto(currency.charCode, currency.name, currency.nominal, value);
+    }
+
+    /**
+     * Увеличивает счётчик исходов опроса источника.
+     *
+     * @param provider Источник курсов.
+     * @param result   Исход: success, unchanged, failure или timeout.
+     */
+    private void countFetch(RateProvider provider, String result) {
+        meterRegistry.counter("rates.provider.fetch", "provider", provider.getName(), "result", result).increment();
+    }
+
+    /**
+     * Курсы, полученные от одного источника при опросе.
+     *
+     * @param provider Источник курсов.
+     * @param rates    Выпуск курсов источника или {@code null}, если его нет.
+     * @param changed  Признак того, что источник прислал новые данные.
+     */
+    private record ProviderRates(RateProvider provider, RatesEdition rates, boolean changed) {
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.currencyconverter.service;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Состояние источника курсов, связанное с выпуском, который ещё не подтверждён
+ * (см. {@link RateProvider#acknowledge(RatesEdition)}).
+ * <p>
+ * Источник откладывает сюда, например, валидаторы условного запроса полученного ответа и переносит их
+ * в своё состояние только при подтверждении именно этого выпуска. Хранится лишь последний выпуск:
+ * более ранний, не подтверждённый до получения следующего, уже не будет подтверждён.
+ * </p>
+ *
+ * @param <T> Тип отложенного состояния.
+ */
+final class PendingEdition<T> {
+
+    private record Entry<T>(RatesEdition edition, T state) {
+    }
+
+    private final AtomicReference<Entry<T>> pending = new AtomicReference<>();
+
+    /**
+     * Откладывает состояние до подтверждения выпуска, заменяя ранее отложенное.
+     *
+     * @param edition Выпуск, возвращаемый источником.
+     * @param state   Состояние, которое вступит в силу при подтверждении выпуска.
+     */
+    void put(RatesEdition edition, T state) {
+        pending.set(new Entry<>(edition, state));
+    }
+
+    /**
+     * Забирает состояние, отложенное для выпуска.
+     *
+     * @param edition Подтверждаемый выпуск.
+     * @return Отложенное состояние или {@code null}, если для этого выпуска ничего не отложено.
+     */
+    T take(RatesEdition edition) {
+        Entry<T> entry = pending.get();
+        if (entry == null || entry.edition() != edition || !pending.compareAndSet(entry, null)) {
+            return null;
+        }
+        return entry.state();
+    }
+}
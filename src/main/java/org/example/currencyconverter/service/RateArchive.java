@@ -0,0 +1,526 @@
+package org.example.currencyconverter.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Архив курсов валют по датам в отображаемом в память файле.
+ * <p>
+ * Файл состоит из заголовка и блоков по {@link #BLOCK_DAYS} дней. В заголовке хранятся таблица слотов
+ * (какой валюте принадлежит каждый из {@link #MAX_SLOTS} столбцов) и таблица блоков (где в файле лежит
+ * блок с данными за каждый период). Внутри блока у каждой валюты свой столбец из {@code long} фиксированной
+ * ширины, индексированный номером дня: номинал и курс с {@link FixedPoint#SCALE} знаками после запятой.
+ * Блоки только добавляются в конец файла и отображаются в память целиком, поэтому поиск курса на дату —
+ * это арифметика над адресом и чтение из отображённого буфера, без запросов к базе данных и без роста
+ * кучи по мере накопления истории.
+ * </p>
+ * <p>
+ * Столбец рубля служит признаком дня: в дни, на которые ЦБ РФ устанавливал курсы, в нём записан курс
+ * рубля, а в проверенные дни без курсов (выходные, праздники) — отдельная отметка. Курс на дату без
+ * собственных курсов — это курс последнего дня, на который курсы устанавливались, не раньше
+ * чем за {@link #MAX_GAP_DAYS} дней.
+ * </p>
+ * <p>
+ * Архив дополняется при каждой публикации нового снимка курсов (см. {@link CurrencyServiceImpl}) и может быть заполнен за прошлые
+ * даты из архива ЦБ РФ (см. {@code rates.archive.backfill-from}).
+ * </p>
+ */
+@Slf4j
+@Component
+public class RateArchive {
+
+    /**
+     * Сигнатура файла архива ("RARC").
+     */
+    private static final int MAGIC = 0x52415243;
+
+    /**
+     * Версия формата файла архива.
+     */
+    private static final int FORMAT_VERSION = 1;
+
+    /**
+     * Первая дата архива: начало установления официальных курсов ЦБ РФ.
+     */
+    static final LocalDate BASE_DATE = LocalDate.of(1992, 7, 1);
+
+    /**
+     * Количество столбцов (валют) в блоке.
+     */
+    static final int MAX_SLOTS = 256;
+
+    /**
+     * Количество дней в блоке.
+     */
+    static final int BLOCK_DAYS = 4096;
+
+    /**
+     * Наибольшее количество блоков (около 2800 лет).
+     */
+    private static final int MAX_BLOCKS = 256;
+
+    /**
+     * Наибольшее количество дней подряд без установленных курсов, через которое ищется
+     * предыдущий курс (самые длинные новогодние праздники короче).
+     */
+    static final int MAX_GAP_DAYS = 14;
+
+    private static final int HEADER_BYTES = 4096;
+    private static final int SLOT_TABLE_OFFSET = 16;
+    private static final int BLOCK_TABLE_OFFSET = SLOT_TABLE_OFFSET + MAX_SLOTS * Integer.BYTES;
+    private static final long BLOCK_BYTES = (long) MAX_SLOTS * BLOCK_DAYS * Long.BYTES;
+
+    /**
+     * Столбец рубля, он же признак дня.
+     */
+    private static final int BASE_SLOT = 0;
+
+    /**
+     * Отметка в столбце рубля для проверенного дня, на который курсы не устанавливались.
+     */
+    private static final long NO_RATES = -1L;
+
+    private static final int NOMINAL_SHIFT = 48;
+    private static final long VALUE_MASK = (1L << NOMINAL_SHIFT) - 1;
+    private static final int MAX_NOMINAL = Short.MAX_VALUE;
+
+    /**
+     * Запись курса рубля: номинал 1, курс 1.
+     */
+    private static final long BASE_ENTRY = pack(1, FixedPoint.toScaled(BigDecimal.ONE, FixedPoint.SCALE));
+
+    /**
+     * Путь к файлу архива или {@code null}, если архив отключён.
+     */
+    private final Path file;
+
+    /**
+     * Первая дата загрузки архива ЦБ РФ при старте или {@code null}, если загрузка отключена.
+     */
+    private final LocalDate backfillFrom;
+
+    private final CbrRatesService cbrRatesService;
+    private final Executor executor;
+
+    /**
+     * Номер слота + 1 для каждого упакованного кода валюты (см. {@link RatesSnapshot#codeKey}).
+     */
+    private final int[] slotsByCode = new int[RatesSnapshot.CODE_SPACE];
+
+    /**
+     * Коды валют по номеру слота.
+     */
+    private final String[] slotCodes = new String[MAX_SLOTS];
+
+    /**
+     * Отображённые блоки по номеру периода; {@code null}, если данных за период нет.
+     */
+    private final MappedByteBuffer[] blocks = new MappedByteBuffer[MAX_BLOCKS];
+
+    private FileChannel channel;
+    private MappedByteBuffer header;
+    private int slotCount;
+    private int blockCount;
+
+    /**
+     * Счётчик записей. Запись увеличивает его последним действием, а чтение начинается с его чтения,
+     * поэтому читающие потоки видят таблицы и блоки, записанные до этого.
+     */
+    private volatile long writes;
+
+    /**
+     * Конструктор для внедрения зависимостей и настроек.
+     *
+     * @param file            Путь к файлу архива; пустая строка отключает архив.
+     * @param backfillFrom    Первая дата загрузки архива ЦБ РФ при старте; пустая строка отключает загрузку.
+     * @param cbrRatesService Сервис API ЦБ РФ.
+     * @param executor        Исполнитель фоновой загрузки архива ЦБ РФ.
+     */
+    @Autowired
+    public RateArchive(@Value("${rates.archive-file:}") String file,
+                       @Value("${rates.archive.backfill-from:}") String backfillFrom,
+                       CbrRatesService cbrRatesService,
+                       @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.file = file.isBlank() ? null : Path.of(file);
+        this.backfillFrom = backfillFrom.isBlank() ? null : LocalDate.parse(backfillFrom);
+        this.cbrRatesService = cbrRatesService;
+        this.executor = executor;
+    }
+
+    /**
+     * Открывает файл архива и отображает его в память, создавая новый файл при необходимости.
+     *
+     * @throws UncheckedIOException если файл не удаётся открыть.
+     */
+    @PostConstruct
+    public synchronized void open() {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            boolean created = channel.size() < HEADER_BYTES;
+            header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+            if (!created && (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION)) {
+                log.warn("Файл архива курсов {} имеет неизвестный формат и будет создан заново.", file);
+                header.put(0, new byte[HEADER_BYTES]);
+                channel.truncate(HEADER_BYTES);
+                created = true;
+            }
+            if (created) {
+                header.putInt(0, MAGIC);
+                header.putInt(4, FORMAT_VERSION);
+                slotCount = 0;
+                slot(RatesSnapshot.BASE_CHAR_CODE, true);
+                header.force();
+            } else {
+                loadTables();
+            }
+            writes++;
+            log.info("Архив курсов {}: валют {}, блоков {}.", file, slotCount - 1, blockCount);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть архив курсов " + file, e);
+        }
+    }
+
+    /**
+     * Читает таблицы слотов и блоков из заголовка и отображает существующие блоки.
+     *
+     * @throws IOException если блок не удаётся отобразить.
+     */
+    private void loadTables() throws IOException {
+        slotCount = header.getInt(8);
+        for (int slot = 0; slot < slotCount; slot++) {
+            int key = header.getInt(SLOT_TABLE_OFFSET + slot * Integer.BYTES);
+            slotsByCode[key] = slot + 1;
+            slotCodes[slot] = charCode(key);
+        }
+        blockCount = header.getInt(12);
+        for (int period = 0; period < MAX_BLOCKS; period++) {
+            int position = header.getInt(BLOCK_TABLE_OFFSET + period * Integer.BYTES);
+            if (position > 0) {
+                blocks[period] = mapBlock(position - 1);
+            }
+        }
+    }
+
+    /**
+     * Закрывает файл архива.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Не удалось закрыть архив курсов {}", file, e);
+        }
+        channel = null;
+    }
+
+    /**
+     * Запускает фоновую загрузку архива ЦБ РФ за даты, которых ещё нет в архиве, начиная
+     * с {@code rates.archive.backfill-from} и заканчивая вчерашним днём.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (channel == null || backfillFrom == null) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> backfill(backfillFrom, LocalDate.now().minusDays(1)), executor)
+                .whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        log.warn("Загрузка архива курсов ЦБ РФ прервана.", error);
+                    }
+                });
+    }
+
+    /**
+     * Загружает курсы из архива ЦБ РФ за даты диапазона, которых ещё нет в архиве.
+     * Дни, на которые курсы не устанавливались, отмечаются, чтобы не запрашивать их повторно.
+     *
+     * @param from Начальная дата (включительно).
+     * @param to   Конечная дата (включительно).
+     * @return Количество дней, за которые загружены курсы.
+     */
+    public int backfill(LocalDate from, LocalDate to) {
+        int recorded = 0;
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (isChecked(date)) {
+                continue;
+            }
+            Optional<List<CurrencyDto>> rates = cbrRatesService.fetchArchiveAsync(date).join();
+            if (rates.isPresent()) {
+                record(date, rates.get());
+                recorded++;
+            } else {
+                markNoRates(date);
+            }
+        }
+        log.info("Архив курсов дополнен курсами за {} дней с {} по {}.", recorded, from, to);
+        return recorded;
+    }
+
+    /**
+     * Записывает курсы валют на дату, заменяя ранее записанные за эту дату.
+     * <p>
+     * Курсы валют, которых нет в списке, на эту дату стираются: валюта, исключённая из выпуска,
+     * не должна конвертироваться по курсу, записанному за ту же дату ранее.
+     * </p>
+     *
+     * @param date       Дата курсов.
+     * @param currencies Список объектов {@link CurrencyDto}.
+     */
+    public synchronized void record(LocalDate date, List<CurrencyDto> currencies) {
+        long day = dayIndex(date);
+        if (channel == null || day < 0) {
+            return;
+        }
+        MappedByteBuffer block = block(day, true);
+        int offset = (int) (day % BLOCK_DAYS);
+        BitSet recorded = new BitSet(slotCount);
+        for (CurrencyDto currency : currencies) {
+            if (RatesSnapshot.BASE_CHAR_CODE.equals(currency.charCode)) {
+                continue;
+            }
+            long scaled = FixedPoint.toScaled(currency.value, FixedPoint.SCALE);
+            if (currency.nominal < 1 || currency.nominal > MAX_NOMINAL || scaled <= 0 || scaled > VALUE_MASK) {
+                log.warn("Курс {} ({} за {}) не помещается в архив и пропущен.",
+                        currency.charCode, currency.value, currency.nominal);
+                continue;
+            }
+            int slot = slot(currency.charCode, true);
+            if (slot >= 0) {
+                block.putLong(index(slot, offset), pack(currency.nominal, scaled));
+                recorded.set(slot);
+            }
+        }
+        for (int slot = BASE_SLOT + 1; slot < slotCount; slot++) {
+            if (!recorded.get(slot)) {
+                block.putLong(index(slot, offset), 0);
+            }
+        }
+        block.putLong(index(BASE_SLOT, offset), BASE_ENTRY);
+        block.force();
+        writes++;
+    }
+
+    /**
+     * Отмечает дату как проверенную, на которую курсы не устанавливались.
+     *
+     * @param date Дата.
+     */
+    private synchronized void markNoRates(LocalDate date) {
+        long day = dayIndex(date);
+        if (channel == null || day < 0) {
+            return;
+        }
+        MappedByteBuffer block = block(day, true);
+        int offset = (int) (day % BLOCK_DAYS);
+        if (block.getLong(index(BASE_SLOT, offset)) == 0) {
+            block.putLong(index(BASE_SLOT, offset), NO_RATES);
+            writes++;
+        }
+    }
+
+    /**
+     * Проверяет, есть ли в архиве сведения о дате: курсы или отметка об их отсутствии.
+     *
+     * @param date Дата.
+     * @return {@code true}, если дата уже проверена.
+     */
+    public boolean isChecked(LocalDate date) {
+        long ignored = writes;
+        long day = dayIndex(date);
+        if (day < 0) {
+            return false;
+        }
+        MappedByteBuffer block = blocks[(int) (day / BLOCK_DAYS)];
+        return block != null && block.getLong(index(BASE_SLOT, (int) (day % BLOCK_DAYS))) != 0;
+    }
+
+    /**
+     * Возвращает коды всех валют, курсы которых есть в архиве, кроме рубля.
+     *
+     * @return Список кодов валют.
+     */
+    public List<String> charCodes() {
+        long ignored = writes;
+        List<String> charCodes = new ArrayList<>(slotCount);
+        for (int slot = BASE_SLOT + 1; slot < slotCount; slot++) {
+            charCodes.add(slotCodes[slot]);
+        }
+        return charCodes;
+    }
+
+    /**
+     * Возвращает курс валюты, действовавший на дату, в виде упакованной записи.
+     * <p>
+     * Берётся курс последнего дня не позже {@code date}, на который устанавливались курсы,
+     * если такой день не дальше {@link #MAX_GAP_DAYS} дней.
+     * </p>
+     *
+     * @param charCode Код валюты (например, USD, EUR, RUB и т.д.).
+     * @param date     Дата.
+     * @return Упакованная запись (см. {@link #nominal(long)} и {@link #value(long)}) или 0, если курса нет.
+     */
+    public long find(String charCode, LocalDate date) {
+        long ignored = writes;
+        int key = RatesSnapshot.codeKey(charCode);
+        if (key < 0 || slotsByCode[key] == 0) {
+            return 0;
+        }
+        int slot = slotsByCode[key] - 1;
+        long day = dayIndex(date);
+        for (long d = day; d >= 0 && d > day - MAX_GAP_DAYS; d--) {
+            MappedByteBuffer block = blocks[(int) (d / BLOCK_DAYS)];
+            if (block == null) {
+                continue;
+            }
+            int offset = (int) (d % BLOCK_DAYS);
+            long marker = block.getLong(index(BASE_SLOT, offset));
+            if (marker != 0 && marker != NO_RATES) {
+                return block.getLong(index(slot, offset));
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Возвращает номинал из упакованной записи.
+     *
+     * @param entry Упакованная запись.
+     * @return Номинал.
+     */
+    public static int nominal(long entry) {
+        return (int) (entry >>> NOMINAL_SHIFT);
+    }
+
+    /**
+     * Возвращает курс из упакованной записи.
+     *
+     * @param entry Упакованная запись.
+     * @return Курс с {@link FixedPoint#SCALE} знаками после запятой.
+     */
+    public static long value(long entry) {
+        return entry & VALUE_MASK;
+    }
+
+    /**
+     * Упаковывает номинал и курс в запись архива.
+     *
+     * @param nominal     Номинал.
+     * @param scaledValue Курс с {@link FixedPoint#SCALE} знаками после запятой.
+     * @return Упакованная запись.
+     */
+    static long pack(int nominal, long scaledValue) {
+        return ((long) nominal << NOMINAL_SHIFT) | scaledValue;
+    }
+
+    /**
+     * Возвращает номер дня от {@link #BASE_DATE}.
+     *
+     * @param date Дата.
+     * @return Номер дня или -1, если дата вне диапазона архива.
+     */
+    private static long dayIndex(LocalDate date) {
+        long day = ChronoUnit.DAYS.between(BASE_DATE, date);
+        return day < 0 || day >= (long) MAX_BLOCKS * BLOCK_DAYS ? -1 : day;
+    }
+
+    /**
+     * Восстанавливает код валюты по упакованному коду (см. {@link RatesSnapshot#codeKey}).
+     */
+    private static String charCode(int key) {
+        return new String(new char[]{(char) ('A' + key / 676), (char) ('A' + key / 26 % 26), (char) ('A' + key % 26)});
+    }
+
+    private static int index(int slot, int offset) {
+        return (slot * BLOCK_DAYS + offset) * Long.BYTES;
+    }
+
+    /**
+     * Возвращает слот валюты, при необходимости выделяя новый.
+     *
+     * @param charCode Код валюты.
+     * @param allocate Выделять ли слот для новой валюты.
+     * @return Номер слота или -1, если код некорректен или слоты закончились.
+     */
+    private int slot(String charCode, boolean allocate) {
+        int key = RatesSnapshot.codeKey(charCode);
+        if (key < 0) {
+            return -1;
+        }
+        if (slotsByCode[key] > 0 || !allocate) {
+            return slotsByCode[key] - 1;
+        }
+        if (slotCount == MAX_SLOTS) {
+            log.warn("В архиве курсов нет места для валюты {}.", charCode);
+            return -1;
+        }
+        int slot = slotCount++;
+        header.putInt(SLOT_TABLE_OFFSET + slot * Integer.BYTES, key);
+        header.putInt(8, slotCount);
+        header.force();
+        slotsByCode[key] = slot + 1;
+        slotCodes[slot] = charCode(key);
+        return slot;
+    }
+
+    /**
+     * Возвращает блок, содержащий день, при необходимости добавляя новый блок в конец файла.
+     *
+     * @param day      Номер дня.
+     * @param allocate Добавлять ли блок, если его нет.
+     * @return Отображённый блок или {@code null}.
+     */
+    private MappedByteBuffer block(long day, boolean allocate) {
+        int period = (int) (day / BLOCK_DAYS);
+        if (blocks[period] != null || !allocate) {
+            return blocks[period];
+        }
+        try {
+            int position = blockCount++;
+            MappedByteBuffer block = mapBlock(position);
+            header.putInt(BLOCK_TABLE_OFFSET + period * Integer.BYTES, position + 1);
+            header.putInt(12, blockCount);
+            header.force();
+            blocks[period] = block;
+            return block;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось расширить архив курсов " + file, e);
+        }
+    }
+
+    private MappedByteBuffer mapBlock(int position) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, HEADER_BYTES + position * BLOCK_BYTES, BLOCK_BYTES);
+    }
+}
@@ -0,0 +1,87 @@
+package org.example.currencyconverter.service;
+
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.api.dto.RateHistoryDto;
+import org.example.currencyconverter.persistence.entity.CurrencyRateHistory;
+import org.example.currencyconverter.persistence.repository.CurrencyRateHistoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Сервис для работы с историей курсов валют.
+ * <p>
+ * Записывает курсы при каждом изменении и возвращает курсы валюты за диапазон дат постранично,
+ * не загружая всю историю в память.
+ * </p>
+ */
+@Service
+public class RateHistoryService {
+
+    /**
+     * Максимальный размер страницы при выборке истории.
+     */
+    public static final int MAX_PAGE_SIZE = 1000;
+
+    private final CurrencyRateHistoryRepository historyRepository;
+
+    /**
+     * Конструктор для внедрения зависимостей.
+     *
+     * @param historyRepository Репозиторий истории курсов.
+     */
+    @Autowired
+    public RateHistoryService(CurrencyRateHistoryRepository historyRepository) {
+        this.historyRepository = historyRepository;
+    }
+
+    /**
+     * Записывает курсы валют на указанную дату, заменяя ранее записанные за эту дату.
+     * <p>
+     * Должен вызываться внутри транзакции обновления курсов.
+     * </p>
+     *
+     * @param rateDate        Дата курсов.
+     * @param currencyDtoList Список объектов {@link CurrencyDto}.
+     */
+    public void record(LocalDate rateDate, List<CurrencyDto> currencyDtoList) {
+        historyRepository.deleteByRateDate(rateDate);
+
+        List<CurrencyRateHistory> rows = new ArrayList<>(currencyDtoList.size());
+        for (CurrencyDto currencyDto : currencyDtoList) {
+            CurrencyRateHistory row = new CurrencyRateHistory();
+            row.setCharCode(currencyDto.charCode);
+            row.setRateDate(rateDate);
+            row.setNominal(currencyDto.nominal);
+            row.setValue(currencyDto.value);
+            rows.add(row);
+        }
+        historyRepository.saveAll(rows);
+    }
+
+    /**
+     * Возвращает страницу курсов валюты за диапазон дат в порядке возрастания даты.
+     *
+     * @param charCode Код валюты (например, USD, EUR и т.д.).
+     * @param from     Начальная дата диапазона (включительно).
+     * @param to       Конечная дата диапазона (включительно).
+     * @param page     Номер страницы, начиная с нуля.
+     * @param size     Размер страницы, не больше {@link #MAX_PAGE_SIZE}.
+     * @return Список объектов {@link RateHistoryDto}.
+     */
+    public List<RateHistoryDto> fetchHistory(String charCode, LocalDate from, LocalDate to, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException(
+                    "Некорректные параметры страницы: page=" + page + ", size=" + size + ".");
+        }
+        return historyRepository
+                .findByCharCodeAndRateDateBetweenOrderByRateDateAsc(charCode, from, to, PageRequest.of(page, size))
+                .stream()
+                .map(row -> new RateHistoryDto(row.getCharCode(), row.getRateDate(), row.getNominal(), row.getValue()))
+                .toList();
+    }
+}
@@ -0,0 +1,51 @@
+package org.example.currencyconverter.service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Источник курсов валют.
+ * <p>
+ * Реализации регистрируются как компоненты Spring и подключаются по имени через настройку
+ * {@code rates.providers.priority} (см. {@link MultiSourceRatesService}).
+ * </p>
+ */
+public interface RateProvider {
+
+    /**
+     * Возвращает имя источника, используемое в настройках, метриках и журнале.
+     *
+     * @return Имя источника (например, cbr).
+     */
+    String getName();
+
+    /**
+     * Возвращает код валюты, относительно которой источник публикует курсы.
+     *
+     * @return Код базовой валюты; по умолчанию рубль.
+     */
+    default String getBaseCode() {
+        return RatesSnapshot.BASE_CHAR_CODE;
+    }
+
+    /**
+     * Асинхронно получает курсы валют.
+     *
+     * @return Выпуск курсов ({@link RatesEdition}) относительно {@link #getBaseCode()}
+     * либо пустой {@link Optional}, если данные не изменились с последнего успешного запроса.
+     */
+    CompletableFuture<Optional<RatesEdition>> fetchRatesAsync();
+
+    /**
+     * Подтверждает, что выпуск, полученный от {@link #fetchRatesAsync()}, применён и сохранён.
+     * <p>
+     * До подтверждения источник не считает выпуск полученным: условные запросы и сравнение с прежним
+     * выпуском опираются на предыдущий подтверждённый, поэтому после сбоя применения курсов
+     * следующий опрос вернёт тот же выпуск снова.
+     * </p>
+     *
+     * @param edition Выпуск, возвращённый этим источником.
+     */
+    default void acknowledge(RatesEdition edition) {
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.currencyconverter.service;
+
+import org.example.currencyconverter.api.dto.RatesDeltaDto;
+
+/**
+ * Событие публикации нового снимка курсов.
+ * <p>
+ * Публикуется через {@link org.springframework.context.ApplicationEventPublisher} после того,
+ * как новый снимок стал текущим, и содержит изменения относительно предыдущего снимка.
+ * </p>
+ */
+public final class RatesChangedEvent {
+
+    /**
+     * Опубликованный снимок курсов.
+     */
+    private final RatesSnapshot snapshot;
+
+    /**
+     * Изменения относительно предыдущего снимка.
+     */
+    private final RatesDeltaDto delta;
+
+    /**
+     * Конструктор для создания события.
+     *
+     * @param snapshot Опубликованный снимок курсов.
+     * @param delta    Изменения относительно предыдущего снимка.
+     */
+    public RatesChangedEvent(RatesSnapshot snapshot, RatesDeltaDto delta) {
+        this.snapshot = snapshot;
+        this.delta = delta;
+    }
+
+    /**
+     * Возвращает опубликованный снимок курсов.
+     *
+     * @return Объект {@link RatesSnapshot}.
+     */
+    public RatesSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Возвращает изменения относительно предыдущего снимка.
+     *
+     * @return Объект {@link RatesDeltaDto}.
+     */
+    public RatesDeltaDto getDelta() {
+        return delta;
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.currencyconverter.service;
+
+import org.example.currencyconverter.api.dto.CurrencyDto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Выпуск курсов валют, полученный от источника.
+ * <p>
+ * Дата выпуска — дата, с которой действуют курсы, а не дата их получения: ЦБ РФ публикует
+ * курсы во второй половине дня, и они вступают в силу на следующий день.
+ * </p>
+ *
+ * @param currencies Список объектов {@link CurrencyDto}.
+ * @param date       Дата, с которой действуют курсы, или {@code null}, если источник её не сообщает.
+ */
+public record RatesEdition(List<CurrencyDto> currencies, LocalDate date) {
+}
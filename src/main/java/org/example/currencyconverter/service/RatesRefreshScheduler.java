@@ -0,0 +1,286 @@
+package org.example.currencyconverter.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Планировщик обновления курсов, учитывающий время публикации курсов ЦБ РФ.
+ * <p>
+ * ЦБ РФ устанавливает курсы по рабочим дням ({@code rates.refresh.publication-days}) во второй половине
+ * дня по московскому времени ({@code rates.refresh.zone}), и они вступают в силу на следующий день.
+ * Пока ожидаемый выпуск не получен (его дата берётся из текущего снимка курсов, см. {@link RatesSnapshot#getDate()}),
+ * планировщик в окне публикации ({@code rates.refresh.window-start} — {@code rates.refresh.window-end})
+ * опрашивает источники с интервалом {@code rates.refresh.poll-interval}; запросы условные и обычно
+ * завершаются ответом 304. Получив выпуск, планировщик ждёт начала следующего окна, проверяя курсы
+ * не реже раза в {@code rates.refresh.idle-interval}.
+ * </p>
+ * <p>
+ * Обновление выполняется в собственном потоке, поэтому медленный ответ источника с повторными
+ * попытками не задерживает другие задачи {@code @Scheduled}.
+ * </p>
+ * <p>
+ * Публикует метрики: возраст данных — время с публикации выпуска, по которому обслуживаются запросы
+ * ({@code rates.data.age}), и отставание — время с публикации первого выпуска, который так и не получен
+ * ({@code rates.data.staleness}, 0, если данные актуальны). Обе метрики вычисляются по опубликованному
+ * снимку курсов, а не по состоянию отдельного источника, поэтому они определены и при обслуживании
+ * снимка, восстановленного из файла, и на ведомом узле кластера, и без источника ЦБ РФ. Момент публикации
+ * выпуска оценивается началом окна публикации в последний день публикации перед его датой.
+ * Если курсов ещё нет, отставание отсчитывается от последней публикации, а возраст не определён.
+ * </p>
+ */
+@Slf4j
+@Component
+public class RatesRefreshScheduler {
+
+    private final CurrencyServiceImpl currencyService;
+    private final ZoneId zone;
+    private final LocalTime windowStart;
+    private final LocalTime windowEnd;
+    private final Duration pollInterval;
+    private final Duration idleInterval;
+    private final Set<DayOfWeek> publicationDays;
+
+    /**
+     * Собственный однопоточный планировщик обновлений. При включённых виртуальных потоках
+     * каждая проверка выполняется в новом виртуальном потоке.
+     */
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+
+    /**
+     * Момент следующей проверки курсов.
+     */
+    private volatile Instant nextRun;
+
+    /**
+     * Конструктор для внедрения зависимостей и настроек.
+     *
+     * @param currencyService Сервис для работы с данными о валютах.
+     * @param meterRegistry   Реестр метрик.
+     * @param zone            Часовой пояс расписания публикации курсов.
+     * @param windowStart     Начало окна публикации.
+     * @param windowEnd       Конец окна публикации.
+     * @param pollInterval    Интервал опроса в окне публикации, пока выпуск не получен.
+     * @param idleInterval    Наибольший интервал между проверками вне окна публикации.
+     * @param publicationDays Дни недели, в которые устанавливаются курсы.
+     * @param virtualThreads  Выполнять ли проверки в виртуальном потоке ({@code spring.threads.virtual.enabled}).
+     * @throws IllegalStateException если не указано ни одного дня публикации или окно пусто.
+     */
+    @Autowired
+    public RatesRefreshScheduler(CurrencyServiceImpl currencyService, MeterRegistry meterRegistry,
+                                 @Value("${rates.refresh.zone:Europe/Moscow}") ZoneId zone,
+                                 @Value("${rates.refresh.window-start:15:00}") LocalTime windowStart,
+                                 @Value("${rates.refresh.window-end:21:00}") LocalTime windowEnd,
+                                 @Value("${rates.refresh.poll-interval:5m}") Duration pollInterval,
+                                 @Value("${rates.refresh.idle-interval:6h}") Duration idleInterval,
+                                 @Value("${rates.refresh.publication-days:MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY}")
+                                 List<DayOfWeek> publicationDays,
+                                 @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (publicationDays.isEmpty()) {
+            throw new IllegalStateException("Не указано ни одного дня публикации курсов (rates.refresh.publication-days).");
+        }
+        if (!windowEnd.isAfter(windowStart)) {
+            throw new IllegalStateException("Окно публикации курсов пусто: " + windowStart + " — " + windowEnd + ".");
+        }
+        this.currencyService = currencyService;
+        this.zone = zone;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.pollInterval = pollInterval;
+        this.idleInterval = idleInterval;
+        this.publicationDays = EnumSet.copyOf(publicationDays);
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("rates-refresh-");
+        scheduler.setVirtualThreads(virtualThreads);
+        scheduler.initialize();
+        Gauge.builder("rates.data.age", this, RatesRefreshScheduler::dataAgeSeconds)
+                .description("Время с публикации выпуска курсов, по которому обслуживаются запросы")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("rates.data.staleness", this, RatesRefreshScheduler::stalenessSeconds)
+                .description("Время, в течение которого ожидаемый выпуск курсов не получен")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Планирует первую проверку после старта приложения (начальные курсы загружает {@link CurrencyServiceImpl}).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        schedule(nextRun(Instant.now()));
+    }
+
+    /**
+     * Останавливает планировщик.
+     */
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdown();
+    }
+
+    /**
+     * Возвращает момент следующей проверки курсов.
+     *
+     * @return Момент или {@code null}, если проверка ещё не запланирована.
+     */
+    public Instant getNextRun() {
+        return nextRun;
+    }
+
+    /**
+     * Обновляет курсы и планирует следующую проверку. При ошибке проверка повторяется
+     * через {@code rates.refresh.poll-interval}.
+     */
+    void run() {
+        Instant next;
+        try {
+            currencyService.updateDB();
+            next = nextRun(Instant.now());
+        } catch (RuntimeException e) {
+            log.error("Не удалось обновить курсы по расписанию.", e);
+            next = Instant.now().plus(pollInterval);
+        }
+        schedule(next);
+    }
+
+    private void schedule(Instant next) {
+        nextRun = next;
+        scheduler.schedule(this::run, next);
+        log.info("Следующая проверка курсов: {}.", next.atZone(zone));
+    }
+
+    /**
+     * Вычисляет момент следующей проверки курсов.
+     *
+     * @param now Текущий момент.
+     * @return Момент следующей проверки.
+     */
+    Instant nextRun(Instant now) {
+        ZonedDateTime local = now.atZone(zone);
+        Instant idle = now.plus(idleInterval);
+        Instant window = nextWindowStart(local).toInstant();
+        if (!isCurrent(currencyService.getSnapshot().getDate(), local) && isPublicationDay(local.toLocalDate())) {
+            LocalTime time = local.toLocalTime();
+            if (!time.isBefore(windowStart) && time.isBefore(windowEnd)) {
+                return now.plus(pollInterval);
+            }
+        }
+        return window.isBefore(idle) ? window : idle;
+    }
+
+    /**
+     * Проверяет, получен ли выпуск курсов, который должен был быть опубликован к этому моменту.
+     *
+     * @param edition Дата текущего выпуска или {@code null}, если она неизвестна.
+     * @param local   Момент проверки.
+     */
+    private boolean isCurrent(LocalDate edition, ZonedDateTime local) {
+        return edition != null && !edition.isBefore(lastPublication(local).toLocalDate().plusDays(1));
+    }
+
+    /**
+     * Возвращает начало окна последней публикации не позже указанного момента.
+     */
+    private ZonedDateTime lastPublication(ZonedDateTime local) {
+        LocalDate date = local.toLocalDate();
+        if (local.toLocalTime().isBefore(windowStart)) {
+            date = date.minusDays(1);
+        }
+        while (!isPublicationDay(date)) {
+            date = date.minusDays(1);
+        }
+        return date.atTime(windowStart).atZone(zone);
+    }
+
+    /**
+     * Возвращает начало ближайшего окна публикации после указанного момента.
+     */
+    private ZonedDateTime nextWindowStart(ZonedDateTime local) {
+        LocalDate date = local.toLocalDate();
+        if (!local.toLocalTime().isBefore(windowStart)) {
+            date = date.plusDays(1);
+        }
+        while (!isPublicationDay(date)) {
+            date = date.plusDays(1);
+        }
+        return date.atTime(windowStart).atZone(zone);
+    }
+
+    private boolean isPublicationDay(LocalDate date) {
+        return publicationDays.contains(date.getDayOfWeek());
+    }
+
+    /**
+     * Возвращает начало окна публикации выпуска курсов на указанную дату: курсы устанавливаются
+     * в последний день публикации перед датой, на которую они действуют.
+     */
+    private ZonedDateTime publicationOf(LocalDate edition) {
+        LocalDate date = edition.minusDays(1);
+        while (!isPublicationDay(date)) {
+            date = date.minusDays(1);
+        }
+        return date.atTime(windowStart).atZone(zone);
+    }
+
+    /**
+     * Возвращает время с публикации выпуска курсов, по которому обслуживаются запросы.
+     *
+     * @return Время в секундах или {@link Double#NaN}, если дата курсов неизвестна.
+     */
+    double dataAgeSeconds() {
+        return dataAgeSeconds(Instant.now());
+    }
+
+    double dataAgeSeconds(Instant now) {
+        LocalDate edition = currencyService.getSnapshot().getDate();
+        if (edition == null) {
+            return Double.NaN;
+        }
+        return Math.max(0, Duration.between(publicationOf(edition).toInstant(), now).toMillis() / 1000.0);
+    }
+
+    /**
+     * Возвращает время, в течение которого ожидаемый выпуск курсов не получен.
+     *
+     * @return Время в секундах с публикации первого неполученного выпуска или 0, если данные актуальны.
+     */
+    double stalenessSeconds() {
+        return stalenessSeconds(Instant.now());
+    }
+
+    double stalenessSeconds(Instant now) {
+        LocalDate edition = currencyService.getSnapshot().getDate();
+        ZonedDateTime local = now.atZone(zone);
+        if (isCurrent(edition, local)) {
+            return 0;
+        }
+        ZonedDateTime missed = lastPublication(local);
+        if (edition != null) {
+            LocalDate date = edition;
+            while (!isPublicationDay(date)) {
+                date = date.plusDays(1);
+            }
+            missed = date.atTime(windowStart).atZone(zone);
+        }
+        return Duration.between(missed.toInstant(), now).toMillis() / 1000.0;
+    }
+}
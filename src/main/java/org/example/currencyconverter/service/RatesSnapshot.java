@@ -0,0 +1,345 @@
+package org.example.currencyconverter.service;
+
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.api.dto.RatesDeltaDto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Неизменяемый снимок курсов валют, оптимизированный для чтения.
+ * <p>
+ * Снимок строится один раз при каждом обновлении курсов и публикуется атомарно,
+ * поэтому обработка запросов не обращается к базе данных. Валюты индексируются
+ * по трёхбуквенному коду, упакованному в целое число, без вычисления хэша строки.
+ * </p>
+ * <p>
+ * Курсы хранятся в виде целых чисел с фиксированной точкой (см. {@link FixedPoint}) с учётом
+ * номинала, а кросс-курс каждой пары валют — в виде несократимой дроби из двух целых,
+ * поэтому конвертация выполняется точно и без выделения памяти.
+ * </p>
+ */
+public final class RatesSnapshot {
+
+    /**
+     * Количество возможных трёхбуквенных кодов валют (26³).
+     */
+    public static final int CODE_SPACE = 26 * 26 * 26;
+
+    /**
+     * Пустой снимок, используемый до первой загрузки курсов.
+     */
+    public static final RatesSnapshot EMPTY = new RatesSnapshot(List.of(), 0, Instant.EPOCH, null);
+
+    /**
+     * Код базовой валюты, относительно которой ЦБ РФ публикует курсы.
+     */
+    public static final String BASE_CHAR_CODE = "RUB";
+
+    /**
+     * Порядковые номера валют в матрице кросс-курсов, индексированные по упакованному коду
+     * (см. {@link #codeKey(CharSequence)}). Хранится номер + 1, ноль означает отсутствие валюты.
+     */
+    private final int[] ordinalsByCode;
+
+    /**
+     * Валюты по порядковому номеру. Нулевой номер занимает базовая валюта, для неё элемент пуст.
+     */
+    private final CurrencyDto[] byOrdinal;
+
+    /**
+     * Числители кросс-курсов: матрица N×N, хранящаяся построчно. Количество единиц валюты to
+     * за одну единицу валюты from равно crossNumerators[from * N + to] / crossDenominators[from * N + to].
+     */
+    private final long[] crossNumerators;
+
+    /**
+     * Знаменатели кросс-курсов (см. {@link #crossNumerators}), всегда положительные.
+     */
+    private final long[] crossDenominators;
+
+    /**
+     * Приближённые значения кросс-курсов (числитель / знаменатель), используемые
+     * для оценки частного при конвертации.
+     */
+    private final double[] crossRatios;
+
+    /**
+     * Валюты в порядке, полученном от источника курсов.
+     */
+    private final List<CurrencyDto> currencies;
+
+    /**
+     * Номер версии снимка, увеличивается при каждой публикации.
+     */
+    private final long version;
+
+    /**
+     * Момент построения снимка.
+     */
+    private final Instant refreshedAt;
+
+    /**
+     * Дата, на которую установлены курсы, или {@code null}, если она неизвестна.
+     */
+    private final LocalDate date;
+
+    private RatesSnapshot(List<CurrencyDto> currencies, long version, Instant refreshedAt, LocalDate date) {
+        this.ordinalsByCode = new int[CODE_SPACE];
+        List<CurrencyDto> copies = new ArrayList<>(currencies.size() + 1);
+        copies.add(null);
+        ordinalsByCode[codeKey(BASE_CHAR_CODE)] = 1;
+        for (CurrencyDto currency : currencies) {
+            int key = codeKey(currency.charCode);
+            if (key < 0 || currency.nominal <= 0 || currency.value == null || currency.value.signum() <= 0) {
+                continue;
+            }
+            BigDecimal value = currency.value.setScale(FixedPoint.SCALE, FixedPoint.ROUNDING);
+            CurrencyDto copy = new CurrencyDto(currency.charCode, currency.name, currency.nominal, value);
+            int ordinal = ordinalsByCode[key] - 1;
+            if (ordinal > 0) {
+                copies.set(ordinal, copy);
+            } else if (ordinal < 0) {
+                ordinalsByCode[key] = copies.size() + 1;
+                copies.add(copy);
+            }
+        }
+        this.byOrdinal = copies.toArray(new CurrencyDto[0]);
+        int size = byOrdinal.length;
+        this.crossNumerators = new long[size * size];
+        this.crossDenominators = new long[size * size];
+        this.crossRatios = new double[size * size];
+        buildCrossRates();
+        this.currencies = Collections.unmodifiableList(copies.subList(1, copies.size()));
+        this.version = version;
+        this.refreshedAt = refreshedAt;
+        this.date = date;
+    }
+
+    /**
+     * Заполняет матрицы кросс-курсов по курсам валют к рублю.
+     * <p>
+     * Стоимость одной единицы валюты в рублях равна value / nominal, поэтому кросс-курс from → to
+     * равен (value_from × nominal_to) / (nominal_from × value_to). Дробь сокращается, чтобы
+     * промежуточные произведения при конвертации оставались небольшими.
+     * </p>
+     */
+    private void buildCrossRates() {
+        int size = byOrdinal.length;
+        long[] values = new long[size];
+        long[] nominals = new long[size];
+        values[0] = FixedPoint.toScaled(BigDecimal.ONE, FixedPoint.SCALE);
+        nominals[0] = 1;
+        for (int i = 1; i < size; i++) {
+            values[i] = FixedPoint.toScaled(byOrdinal[i].value, FixedPoint.SCALE);
+            nominals[i] = byOrdinal[i].nominal;
+        }
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                long numerator = Math.multiplyExact(values[from], nominals[to]);
+                long denominator = Math.multiplyExact(nominals[from], values[to]);
+                long divisor = gcd(numerator, denominator);
+                int index = from * size + to;
+                crossNumerators[index] = numerator / divisor;
+                crossDenominators[index] = denominator / divisor;
+                crossRatios[index] = (double) crossNumerators[index] / crossDenominators[index];
+            }
+        }
+    }
+
+    /**
+     * Вычисляет наибольший общий делитель двух положительных чисел.
+     */
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long remainder = a % b;
+            a = b;
+            b = remainder;
+        }
+        return a;
+    }
+
+    /**
+     * Строит снимок по списку валют.
+     * <p>
+     * Валюты с кодом, не состоящим из трёх заглавных латинских букв, с неположительным
+     * курсом или номиналом в снимок не попадают. Курсы округляются до {@link FixedPoint#SCALE} знаков.
+     * Рубль добавляется в матрицу кросс-курсов автоматически.
+     * </p>
+     *
+     * @param currencies Список объектов {@link CurrencyDto}.
+     * @param version    Номер версии снимка.
+     * @return Новый снимок.
+     */
+    public static RatesSnapshot of(List<CurrencyDto> currencies, long version) {
+        return new RatesSnapshot(currencies, version, Instant.now(), null);
+    }
+
+    /**
+     * Строит снимок по выпуску курсов.
+     *
+     * @param currencies Список объектов {@link CurrencyDto}.
+     * @param version    Номер версии снимка.
+     * @param date       Дата, на которую установлены курсы, или {@code null}, если она неизвестна.
+     * @return Новый снимок.
+     */
+    public static RatesSnapshot of(List<CurrencyDto> currencies, long version, LocalDate date) {
+        return new RatesSnapshot(currencies, version, Instant.now(), date);
+    }
+
+    /**
+     * Строит снимок по списку валют с заданным моментом построения.
+     * <p>
+     * Используется узлами кластера, чтобы снимок, полученный из общего хранилища, совпадал
+     * со снимком ведущего узла не только курсами, но и версией и моментом построения.
+     * </p>
+     *
+     * @param currencies  Список объектов {@link CurrencyDto}.
+     * @param version     Номер версии снимка.
+     * @param refreshedAt Момент построения снимка.
+     * @param date        Дата, на которую установлены курсы, или {@code null}, если она неизвестна.
+     * @return Новый снимок.
+     */
+    public static RatesSnapshot of(List<CurrencyDto> currencies, long version, Instant refreshedAt, LocalDate date) {
+        return new RatesSnapshot(currencies, version, refreshedAt, date);
+    }
+
+    /**
+     * Упаковывает трёхбуквенный код валюты в число от 0 до {@link #CODE_SPACE} - 1.
+     *
+     * @param charCode Код валюты (например, USD, EUR и т.д.).
+     * @return Упакованный код или -1, если код не состоит из трёх заглавных латинских букв.
+     */
+    public static int codeKey(CharSequence charCode) {
+        if (charCode == null || charCode.length() != 3) {
+            return -1;
+        }
+        int key = 0;
+        for (int i = 0; i < 3; i++) {
+            int letter = charCode.charAt(i) - 'A';
+            if (letter < 0 || letter >= 26) {
+                return -1;
+            }
+            key = key * 26 + letter;
+        }
+        return key;
+    }
+
+    /**
+     * Возвращает данные о валюте по её коду.
+     *
+     * @param charCode Код валюты (например, USD, EUR и т.д.).
+     * @return Объект {@link CurrencyDto} или {@code null}, если валюты нет в снимке.
+     */
+    public CurrencyDto get(CharSequence charCode) {
+        int ordinal = ordinal(charCode);
+        return ordinal < 0 ? null : byOrdinal[ordinal];
+    }
+
+    /**
+     * Возвращает порядковый номер валюты в матрице кросс-курсов.
+     * Базовая валюта (рубль) всегда имеет номер 0.
+     *
+     * @param charCode Код валюты (например, USD, EUR и т.д.).
+     * @return Порядковый номер или -1, если валюты нет в снимке.
+     */
+    public int ordinal(CharSequence charCode) {
+        int key = codeKey(charCode);
+        return key < 0 ? -1 : ordinalsByCode[key] - 1;
+    }
+
+    /**
+     * Возвращает кросс-курс между двумя валютами.
+     *
+     * @param fromOrdinal Порядковый номер исходной валюты.
+     * @param toOrdinal   Порядковый номер целевой валюты.
+     * @return Количество единиц целевой валюты за одну единицу исходной
+     * с {@link FixedPoint#RATE_SCALE} знаками после запятой.
+     */
+    public long crossRate(int fromOrdinal, int toOrdinal) {
+        return convert(fromOrdinal, toOrdinal, FixedPoint.RATE_ONE);
+    }
+
+    /**
+     * Конвертирует сумму из одной валюты в другую без выделения памяти.
+     * <p>
+     * Результат имеет то же количество знаков после запятой, что и сумма,
+     * и округляется по правилу {@link FixedPoint#ROUNDING}.
+     * </p>
+     *
+     * @param fromOrdinal Порядковый номер исходной валюты.
+     * @param toOrdinal   Порядковый номер целевой валюты.
+     * @param amount      Сумма в исходной валюте как целое число с фиксированной точкой.
+     * @return Сумма в целевой валюте с тем же масштабом.
+     * @throws ArithmeticException если результат не помещается в {@code long}.
+     */
+    public long convert(int fromOrdinal, int toOrdinal, long amount) {
+        int index = fromOrdinal * byOrdinal.length + toOrdinal;
+        return FixedPoint.mulDiv(amount, crossNumerators[index], crossDenominators[index], crossRatios[index]);
+    }
+
+    /**
+     * Вычисляет изменения курсов относительно предыдущего снимка.
+     *
+     * @param previous Предыдущий снимок.
+     * @return Объект {@link RatesDeltaDto} с версией этого снимка.
+     */
+    public RatesDeltaDto diff(RatesSnapshot previous) {
+        List<CurrencyDto> changed = new ArrayList<>();
+        for (CurrencyDto currency : currencies) {
+            CurrencyDto old = previous.get(currency.charCode);
+            if (old == null || old.nominal != currency.nominal || old.value.compareTo(currency.value) != 0
+                    || !old.name.equals(currency.name)) {
+                changed.add(currency);
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (CurrencyDto old : previous.currencies) {
+            if (ordinal(old.charCode) < 0) {
+                removed.add(old.charCode);
+            }
+        }
+        return new RatesDeltaDto(version, changed, removed);
+    }
+
+    /**
+     * Возвращает список всех валют снимка.
+     *
+     * @return Неизменяемый список объектов {@link CurrencyDto}.
+     */
+    public List<CurrencyDto> getCurrencies() {
+        return currencies;
+    }
+
+    /**
+     * Возвращает номер версии снимка.
+     *
+     * @return Номер версии.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Возвращает момент построения снимка.
+     *
+     * @return Момент построения снимка.
+     */
+    public Instant getRefreshedAt() {
+        return refreshedAt;
+    }
+
+    /**
+     * Возвращает дату, на которую установлены курсы снимка.
+     *
+     * @return Дата выпуска курсов или {@code null}, если она неизвестна
+     * (например, для снимка, восстановленного из файла при запуске).
+     */
+    public LocalDate getDate() {
+        return date;
+    }
+}
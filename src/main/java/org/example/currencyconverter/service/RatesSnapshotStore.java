@@ -0,0 +1,133 @@
+package org.example.currencyconverter.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Хранилище последнего загруженного набора курсов в локальном файле.
+ * <p>
+ * Позволяет при перезапуске сразу начать обслуживать запросы по последним известным курсам,
+ * не дожидаясь ответа API ЦБ РФ. Файл имеет компактный двоичный формат: заголовок, дата, на которую
+ * установлены курсы, количество валют и для каждой валюты — код, название, номинал и курс (целое число
+ * с {@link FixedPoint#SCALE} знаками после запятой). Дата сохраняется, чтобы после перезапуска возраст
+ * данных (см. {@link RatesRefreshScheduler}) отсчитывался от действительного выпуска. Запись выполняется
+ * во временный файл с последующей атомарной заменой, поэтому прерванная запись не портит предыдущий снимок.
+ * </p>
+ */
+@Slf4j
+@Component
+public class RatesSnapshotStore {
+
+    /**
+     * Сигнатура файла снимка ("RATE").
+     */
+    private static final int MAGIC = 0x52415445;
+
+    /**
+     * Версия формата файла снимка.
+     */
+    private static final int FORMAT_VERSION = 3;
+
+    /**
+     * Предыдущая версия формата, без даты курсов. Такие файлы читаются с неизвестной датой.
+     */
+    private static final int FORMAT_VERSION_WITHOUT_DATE = 2;
+
+    /**
+     * Значение поля даты, если дата курсов неизвестна.
+     */
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    /**
+     * Путь к файлу снимка или {@code null}, если сохранение отключено.
+     */
+    private final Path file;
+
+    /**
+     * Конструктор для внедрения настроек.
+     *
+     * @param file Путь к файлу снимка; пустая строка отключает сохранение.
+     */
+    @Autowired
+    public RatesSnapshotStore(@Value("${rates.snapshot-file:}") String file) {
+        this.file = file.isBlank() ? null : Path.of(file);
+    }
+
+    /**
+     * Загружает последний сохранённый набор курсов.
+     *
+     * @return Выпуск курсов (с датой {@code null}, если она не была сохранена) либо пустой {@link Optional},
+     * если сохранение отключено, файла нет или он повреждён.
+     */
+    public Optional<RatesEdition> load() {
+        if (file == null || !Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            int version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version != FORMAT_VERSION && version != FORMAT_VERSION_WITHOUT_DATE) {
+                log.warn("Файл снимка курсов {} имеет неизвестный формат и будет проигнорирован.", file);
+                return Optional.empty();
+            }
+            long epochDay = version == FORMAT_VERSION ? in.readLong() : NO_DATE;
+            int count = in.readInt();
+            List<CurrencyDto> currencies = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String charCode = in.readUTF();
+                String name = in.readUTF();
+                int nominal = in.readInt();
+                BigDecimal value = FixedPoint.toDecimal(in.readLong(), FixedPoint.SCALE);
+                currencies.add(new CurrencyDto(charCode, name, nominal, value));
+            }
+            return Optional.of(new RatesEdition(currencies, epochDay == NO_DATE ? null : LocalDate.ofEpochDay(epochDay)));
+        } catch (IOException e) {
+            log.warn("Не удалось прочитать файл снимка курсов {}", file, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Сохраняет набор курсов, заменяя предыдущий снимок.
+     *
+     * @param currencyDtoList Список объектов {@link CurrencyDto}.
+     * @param date            Дата, на которую установлены курсы, или {@code null}, если она неизвестна.
+     */
+    public void save(List<CurrencyDto> currencyDtoList, LocalDate date) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(date == null ? NO_DATE : date.toEpochDay());
+                out.writeInt(currencyDtoList.size());
+                for (CurrencyDto currency : currencyDtoList) {
+                    out.writeUTF(currency.charCode);
+                    out.writeUTF(currency.name);
+                    out.writeInt(currency.nominal);
+                    out.writeLong(FixedPoint.toScaled(currency.value, FixedPoint.SCALE));
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Не удалось сохранить файл снимка курсов {}", file, e);
+        }
+    }
+}
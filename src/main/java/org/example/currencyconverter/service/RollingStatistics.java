@@ -0,0 +1,389 @@
+package org.example.currencyconverter.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.api.dto.RateStatisticsDto;
+import org.example.currencyconverter.api.dto.RateWindowStatsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Скользящая статистика курсов валют за 7, 30 и 365 календарных дней.
+ * <p>
+ * Для каждой валюты хранится кольцевой буфер курсов одной единицы валюты за последние
+ * {@link #MAX_WINDOW} дней, а для каждого окна — суммы значений и их квадратов и монотонные очереди
+ * минимумов и максимумов. Новый курс обновляет все показатели за амортизированное O(1), без прохода
+ * по истории. Дни без установленных курсов (выходные, праздники) заполняются курсом, действовавшим
+ * в этот день, то есть последним известным.
+ * </p>
+ * <p>
+ * После каждого обновления показатели валюты собираются в готовый объект {@link RateStatisticsDto},
+ * который отдаётся запросам на чтение без вычислений. При старте статистика восстанавливается
+ * по архиву курсов (см. {@link RateArchive}).
+ * </p>
+ */
+@Slf4j
+@Component
+public class RollingStatistics {
+
+    /**
+     * Длины скользящих окон в днях.
+     */
+    static final int[] WINDOWS = {7, 30, 365};
+
+    /**
+     * Длина самого длинного окна и ёмкость кольцевого буфера.
+     */
+    static final int MAX_WINDOW = 365;
+
+    private final RateArchive rateArchive;
+
+    /**
+     * Ряды курсов по упакованному коду валюты (см. {@link RatesSnapshot#codeKey}).
+     * Изменяются только под блокировкой на {@code this}.
+     */
+    private final Series[] series = new Series[RatesSnapshot.CODE_SPACE];
+
+    /**
+     * Готовая статистика по упакованному коду валюты.
+     */
+    private final AtomicReferenceArray<RateStatisticsDto> published =
+            new AtomicReferenceArray<>(RatesSnapshot.CODE_SPACE);
+
+    /**
+     * Конструктор для внедрения зависимостей.
+     *
+     * @param rateArchive Архив курсов валют по датам.
+     */
+    @Autowired
+    public RollingStatistics(RateArchive rateArchive) {
+        this.rateArchive = rateArchive;
+    }
+
+    /**
+     * Восстанавливает статистику за последние {@link #MAX_WINDOW} дней (до сегодняшнего включительно)
+     * по архиву курсов. Курсы следующего полученного выпуска добавляются под его датой.
+     */
+    @PostConstruct
+    public void restore() {
+        LocalDate today = LocalDate.now();
+        List<String> charCodes = rateArchive.charCodes();
+        for (LocalDate date = today.minusDays(MAX_WINDOW); !date.isAfter(today); date = date.plusDays(1)) {
+            for (String charCode : charCodes) {
+                long entry = rateArchive.find(charCode, date);
+                if (entry != 0) {
+                    double value = FixedPoint.toDecimal(RateArchive.value(entry), FixedPoint.SCALE).doubleValue();
+                    add(charCode, date, value / RateArchive.nominal(entry));
+                }
+            }
+        }
+        for (String charCode : charCodes) {
+            if (series[RatesSnapshot.codeKey(charCode)] != null) {
+                publish(charCode);
+            }
+        }
+        if (!charCodes.isEmpty()) {
+            log.info("Скользящая статистика восстановлена по архиву курсов для {} валют.", charCodes.size());
+        }
+    }
+
+    /**
+     * Учитывает курсы валют на дату. Повторный вызов за ту же дату заменяет её курсы.
+     *
+     * @param date       Дата курсов.
+     * @param currencies Список объектов {@link CurrencyDto}.
+     */
+    public synchronized void record(LocalDate date, List<CurrencyDto> currencies) {
+        for (CurrencyDto currency : currencies) {
+            if (RatesSnapshot.BASE_CHAR_CODE.equals(currency.charCode) || currency.nominal <= 0) {
+                continue;
+            }
+            if (add(currency.charCode, date, currency.value.doubleValue() / currency.nominal)) {
+                publish(currency.charCode);
+            }
+        }
+    }
+
+    /**
+     * Возвращает статистику курса валюты.
+     *
+     * @param charCode Код валюты (например, USD, EUR и т.д.).
+     * @return Объект {@link RateStatisticsDto} или {@code null}, если курсов валюты нет.
+     */
+    public RateStatisticsDto get(String charCode) {
+        int key = RatesSnapshot.codeKey(charCode);
+        return key < 0 ? null : published.get(key);
+    }
+
+    /**
+     * Добавляет курс в ряд валюты.
+     *
+     * @return {@code true}, если ряд изменился.
+     */
+    private boolean add(String charCode, LocalDate date, double value) {
+        int key = RatesSnapshot.codeKey(charCode);
+        if (key < 0 || !(value > 0)) {
+            return false;
+        }
+        Series current = series[key];
+        if (current == null) {
+            current = new Series();
+            series[key] = current;
+        }
+        return current.add(date.toEpochDay(), value);
+    }
+
+    /**
+     * Собирает показатели ряда валюты в готовый объект и публикует его для чтения.
+     */
+    private void publish(String charCode) {
+        int key = RatesSnapshot.codeKey(charCode);
+        Series current = series[key];
+        List<RateWindowStatsDto> windows = new ArrayList<>(WINDOWS.length);
+        for (Window window : current.windows) {
+            windows.add(new RateWindowStatsDto(window.days, window.count, decimal(window.mean(current.shift)),
+                    decimal(current.value(window.minQueue.first())), decimal(current.value(window.maxQueue.first())),
+                    decimal(window.stdDev())));
+        }
+        double change = current.change();
+        published.set(key, new RateStatisticsDto(charCode, LocalDate.ofEpochDay(current.lastDay),
+                decimal(current.value(current.lastDay)),
+                Double.isNaN(change) ? null : BigDecimal.valueOf(change).setScale(FixedPoint.SCALE, FixedPoint.ROUNDING),
+                List.copyOf(windows)));
+    }
+
+    /**
+     * Округляет значение курса до {@link FixedPoint#RATE_SCALE} знаков: курс одной единицы валюты
+     * с большим номиналом (например, иены) меньше рубля.
+     */
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(FixedPoint.RATE_SCALE, FixedPoint.ROUNDING);
+    }
+
+    /**
+     * Ряд курсов одной валюты по календарным дням.
+     */
+    static final class Series {
+
+        /**
+         * Курсы за последние {@link #MAX_WINDOW} дней по номеру дня эпохи.
+         */
+        final double[] values = new double[MAX_WINDOW];
+
+        final Window[] windows = new Window[WINDOWS.length];
+
+        /**
+         * Номер последнего дня ряда (дни эпохи) или {@link Long#MIN_VALUE}, если ряд пуст.
+         */
+        long lastDay = Long.MIN_VALUE;
+
+        /**
+         * Количество дней в ряду, не больше {@link #MAX_WINDOW}.
+         */
+        int size;
+
+        /**
+         * Сдвиг, вычитаемый из значений перед суммированием, чтобы суммы квадратов не теряли точность.
+         */
+        double shift;
+
+        Series() {
+            for (int i = 0; i < WINDOWS.length; i++) {
+                windows[i] = new Window(WINDOWS[i]);
+            }
+        }
+
+        double value(long day) {
+            return values[(int) Math.floorMod(day, (long) MAX_WINDOW)];
+        }
+
+        /**
+         * Добавляет курс за день, заполняя пропущенные дни последним известным курсом.
+         *
+         * @param day   Номер дня эпохи.
+         * @param value Курс одной единицы валюты.
+         * @return {@code true}, если ряд изменился.
+         */
+        boolean add(long day, double value) {
+            if (lastDay == Long.MIN_VALUE || day - lastDay > MAX_WINDOW) {
+                reset(value);
+                append(day, value);
+                return true;
+            }
+            if (day < lastDay) {
+                return false;
+            }
+            if (day == lastDay) {
+                return replaceLast(value);
+            }
+            double filled = value(lastDay);
+            while (lastDay < day - 1) {
+                append(lastDay + 1, filled);
+            }
+            append(day, value);
+            return true;
+        }
+
+        /**
+         * Изменение курса за последний день в процентах.
+         *
+         * @return Изменение или {@link Double#NaN}, если в ряду один день.
+         */
+        double change() {
+            if (size < 2) {
+                return Double.NaN;
+            }
+            double previous = value(lastDay - 1);
+            return (value(lastDay) - previous) / previous * 100;
+        }
+
+        private void reset(double value) {
+            size = 0;
+            shift = value;
+            for (Window window : windows) {
+                window.clear();
+            }
+        }
+
+        private void append(long day, double value) {
+            // Вытесняемые значения читаются до записи: у самого длинного окна они занимают ту же ячейку.
+            for (Window window : windows) {
+                if (window.count == window.days) {
+                    window.remove(value(day - window.days) - shift);
+                }
+            }
+            values[(int) Math.floorMod(day, (long) MAX_WINDOW)] = value;
+            lastDay = day;
+            size = Math.min(size + 1, MAX_WINDOW);
+            for (Window window : windows) {
+                window.add(value - shift);
+                window.minQueue.push(day, this, window.days, true);
+                window.maxQueue.push(day, this, window.days, false);
+            }
+        }
+
+        private boolean replaceLast(double value) {
+            double previous = value(lastDay);
+            if (previous == value) {
+                return false;
+            }
+            values[(int) Math.floorMod(lastDay, (long) MAX_WINDOW)] = value;
+            for (Window window : windows) {
+                window.remove(previous - shift);
+                window.add(value - shift);
+                // Исправление курса за тот же день — редкость, очереди проще перестроить за O(окна).
+                window.minQueue.rebuild(this, window.count, true);
+                window.maxQueue.rebuild(this, window.count, false);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Показатели одного скользящего окна.
+     */
+    static final class Window {
+
+        final int days;
+        final MonotonicQueue minQueue;
+        final MonotonicQueue maxQueue;
+        int count;
+        double sum;
+        double sumOfSquares;
+
+        Window(int days) {
+            this.days = days;
+            this.minQueue = new MonotonicQueue(days);
+            this.maxQueue = new MonotonicQueue(days);
+        }
+
+        void add(double shifted) {
+            count++;
+            sum += shifted;
+            sumOfSquares += shifted * shifted;
+        }
+
+        void remove(double shifted) {
+            count--;
+            sum -= shifted;
+            sumOfSquares -= shifted * shifted;
+        }
+
+        void clear() {
+            count = 0;
+            sum = 0;
+            sumOfSquares = 0;
+            minQueue.clear();
+            maxQueue.clear();
+        }
+
+        double mean(double shift) {
+            return shift + sum / count;
+        }
+
+        double stdDev() {
+            double mean = sum / count;
+            return Math.sqrt(Math.max(0, sumOfSquares / count - mean * mean));
+        }
+    }
+
+    /**
+     * Монотонная очередь номеров дней: в начале очереди — день с минимальным (максимальным) курсом окна.
+     */
+    static final class MonotonicQueue {
+
+        private final long[] days;
+        private int head;
+        private int size;
+
+        MonotonicQueue(int capacity) {
+            this.days = new long[capacity];
+        }
+
+        long first() {
+            return days[head];
+        }
+
+        void clear() {
+            head = 0;
+            size = 0;
+        }
+
+        /**
+         * Добавляет последний день ряда, удаляя вышедшие из окна и доминируемые им дни.
+         */
+        void push(long day, Series series, int window, boolean min) {
+            while (size > 0 && days[head] <= day - window) {
+                head = (head + 1) % days.length;
+                size--;
+            }
+            double value = series.value(day);
+            while (size > 0) {
+                double last = series.value(days[(head + size - 1) % days.length]);
+                if (min ? last < value : last > value) {
+                    break;
+                }
+                size--;
+            }
+            days[(head + size) % days.length] = day;
+            size++;
+        }
+
+        /**
+         * Перестраивает очередь по последним {@code count} дням ряда.
+         */
+        void rebuild(Series series, int count, boolean min) {
+            clear();
+            for (long day = series.lastDay - count + 1; day <= series.lastDay; day++) {
+                push(day, series, days.length, min);
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.currencyconverter.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Измеряет время от запуска JVM до готовности приложения обслуживать запросы.
+ * <p>
+ * К моменту готовности снимок курсов уже опубликован (из файла или от API ЦБ РФ),
+ * поэтому это же время является временем до первого обслуженного запроса.
+ * Значение публикуется как метрика {@code rates.startup.time-to-ready}.
+ * </p>
+ */
+@Slf4j
+@Component
+public class StartupTimeReporter implements ApplicationListener<ApplicationReadyEvent> {
+
+    /**
+     * Время до готовности в миллисекундах или -1, если приложение ещё не готово.
+     */
+    private volatile long timeToReadyMillis = -1;
+
+    /**
+     * Конструктор для регистрации метрики.
+     *
+     * @param meterRegistry Реестр метрик.
+     */
+    @Autowired
+    public StartupTimeReporter(MeterRegistry meterRegistry) {
+        TimeGauge.builder("rates.startup.time-to-ready", this, TimeUnit.MILLISECONDS,
+                        StartupTimeReporter::getTimeToReadyMillis)
+                .description("Время от запуска JVM до готовности обслуживать запросы")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        timeToReadyMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        log.info("Приложение готово обслуживать запросы через {} мс после запуска JVM.", timeToReadyMillis);
+    }
+
+    /**
+     * Возвращает время от запуска JVM до готовности приложения.
+     *
+     * @return Время в миллисекундах или -1, если приложение ещё не готово.
+     */
+    public long getTimeToReadyMillis() {
+        return timeToReadyMillis;
+    }
+}
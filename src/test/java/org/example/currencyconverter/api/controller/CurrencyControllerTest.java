@@ -0,0 +1,278 @@
+package org.example.currencyconverter.api.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.currencyconverter.api.dto.ConversionDto;
+import org.example.currencyconverter.api.dto.ConversionRequestDto;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.api.dto.RateHistoryDto;
+import org.example.currencyconverter.service.ConversionAuditLog;
+import org.example.currencyconverter.service.CurrencyServiceImpl;
+import org.example.currencyconverter.service.RateHistoryService;
+import org.example.currencyconverter.service.RatesRefreshScheduler;
+import org.example.currencyconverter.service.RatesSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+class CurrencyControllerTest {
+
+    private static final LocalDate FROM = LocalDate.of(2024, 12, 1);
+    private static final LocalDate TO = LocalDate.of(2024, 12, 31);
+    private static final Instant REFRESHED_AT = Instant.parse("2024-12-27T17:00:00Z");
+    private static final String VERSION_TAG = Long.toHexString(REFRESHED_AT.toEpochMilli()) + "-1";
+
+    private final CurrencyServiceImpl currencyService = mock(CurrencyServiceImpl.class);
+    private final RateHistoryService rateHistoryService = mock(RateHistoryService.class);
+    private final RatesRefreshScheduler refreshScheduler = mock(RatesRefreshScheduler.class);
+    private final RatesCacheHeaders cacheHeaders = new RatesCacheHeaders(refreshScheduler);
+    private final ConversionAuditLog auditLog = mock(ConversionAuditLog.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CurrencyController controller = new CurrencyController(currencyService, rateHistoryService,
+            objectMapper, cacheHeaders, mock(RatesTablePayload.class),
+            mock(RatesUpdateBroadcaster.class), auditLog);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+    @BeforeEach
+    void setUp() {
+        doAnswer(invocation -> {
+            Iterator<ConversionRequestDto> requests = invocation.getArgument(0);
+            Consumer<ConversionDto> results = invocation.getArgument(1);
+            requests.forEachRemaining(request -> results.accept(new ConversionDto(request.from, request.to,
+                    request.amount, BigDecimal.TEN, request.amount.multiply(BigDecimal.TEN))));
+            return null;
+        }).when(currencyService).convertBatch(any(), any());
+    }
+
+    private RatesSnapshot publishSnapshot() {
+        RatesSnapshot snapshot = RatesSnapshot.of(List.of(
+                new CurrencyDto("USD", "Доллар США", new BigDecimal("101.6797")),
+                new CurrencyDto("EUR", "Евро", new BigDecimal("106.1878"))), 1, REFRESHED_AT, TO);
+        when(currencyService.getSnapshot()).thenReturn(snapshot);
+        when(currencyService.findByCharCode(eq(snapshot), any())).thenAnswer(
+                invocation -> snapshot.get(invocation.getArgument(1)));
+        when(currencyService.convert(eq(snapshot), any(), any(), any())).thenAnswer(invocation -> new ConversionDto(
+                invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3),
+                new BigDecimal("0.95754597"), new BigDecimal("95.7546")));
+        return snapshot;
+    }
+
+    @Test
+    void testGetCurrencyData_ReadsSnapshotOnce() {
+        RatesSnapshot snapshot = publishSnapshot();
+
+        ResponseEntity<?> response = controller.getCurrencyData("USD", null, null);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(snapshot.get("USD"), response.getBody());
+        verify(currencyService, times(1)).getSnapshot();
+        verify(currencyService, never()).findByCharCode("USD");
+    }
+
+    @Test
+    void testGetCurrencyData_JsonAndCborGetDistinctETags() throws Exception {
+        publishSnapshot();
+
+        var json = mockMvc.perform(get("/api/getData").param("code", "USD")
+                .accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+        var cbor = mockMvc.perform(get("/api/getData").param("code", "USD")
+                .accept(MediaType.APPLICATION_CBOR)).andReturn().getResponse();
+        var crossed = mockMvc.perform(get("/api/getData").param("code", "USD")
+                .accept(MediaType.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, json.getHeader(HttpHeaders.ETAG))).andReturn().getResponse();
+
+        assertEquals("\"" + VERSION_TAG + "\"", json.getHeader(HttpHeaders.ETAG));
+        assertEquals("\"" + VERSION_TAG + "-cbor\"", cbor.getHeader(HttpHeaders.ETAG));
+        assertTrue(MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(json.getContentType())));
+        assertTrue(MediaType.APPLICATION_CBOR.isCompatibleWith(MediaType.parseMediaType(cbor.getContentType())));
+        assertTrue(json.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+        assertTrue(cbor.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+        assertEquals(200, crossed.getStatus());
+        assertArrayEquals(cbor.getContentAsByteArray(), crossed.getContentAsByteArray());
+    }
+
+    @Test
+    void testGetCurrencyData_CacheHeadersFollowSnapshotAndNextRun() throws Exception {
+        publishSnapshot();
+        Instant before = Instant.now();
+        when(refreshScheduler.getNextRun()).thenReturn(before.plusSeconds(3600));
+
+        var response = mockMvc.perform(get("/api/getData").param("code", "USD")).andReturn().getResponse();
+
+        assertEquals(200, response.getStatus());
+        assertEquals("\"" + VERSION_TAG + "\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(REFRESHED_AT.toEpochMilli(), response.getDateHeader(HttpHeaders.LAST_MODIFIED));
+        String cacheControl = response.getHeader(HttpHeaders.CACHE_CONTROL);
+        assertTrue(cacheControl.endsWith(", public"), cacheControl);
+        long maxAge = Long.parseLong(cacheControl.substring("max-age=".length(), cacheControl.indexOf(',')));
+        long elapsed = Instant.now().getEpochSecond() - before.getEpochSecond();
+        assertTrue(maxAge <= 3600 && maxAge >= 3600 - elapsed - 1, cacheControl);
+    }
+
+    @Test
+    void testGetCurrencyData_MaxAgeZeroWithoutFutureNextRun() throws Exception {
+        publishSnapshot();
+        when(refreshScheduler.getNextRun()).thenReturn(null).thenReturn(Instant.now().minusSeconds(60));
+
+        var unscheduled = mockMvc.perform(get("/api/getData").param("code", "USD")).andReturn().getResponse();
+        var overdue = mockMvc.perform(get("/api/getData").param("code", "USD")).andReturn().getResponse();
+
+        assertEquals("max-age=0, public", unscheduled.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("max-age=0, public", overdue.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void testGetCurrencyData_ConditionalRequestsAnsweredWith304WithoutBody() throws Exception {
+        publishSnapshot();
+
+        var byETag = mockMvc.perform(get("/api/getData").param("code", "USD")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + VERSION_TAG + "\"")).andReturn().getResponse();
+        var byDate = mockMvc.perform(get("/api/getData").param("code", "USD")
+                .header(HttpHeaders.IF_MODIFIED_SINCE, REFRESHED_AT.toEpochMilli())).andReturn().getResponse();
+        var outdated = mockMvc.perform(get("/api/getData").param("code", "USD")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + Long.toHexString(REFRESHED_AT.toEpochMilli()) + "-0\""))
+                .andReturn().getResponse();
+
+        assertEquals(304, byETag.getStatus());
+        assertEquals(0, byETag.getContentAsByteArray().length);
+        assertEquals("\"" + VERSION_TAG + "\"", byETag.getHeader(HttpHeaders.ETAG));
+        assertEquals(304, byDate.getStatus());
+        assertEquals(0, byDate.getContentAsByteArray().length);
+        assertEquals(200, outdated.getStatus());
+        assertEquals("USD", objectMapper.readTree(outdated.getContentAsString()).get("charCode").asText());
+    }
+
+    @Test
+    void testConvert_JsonAndCborGetDistinctETags() throws Exception {
+        publishSnapshot();
+
+        var json = mockMvc.perform(get("/api/convert").param("from", "USD").param("to", "EUR")
+                .param("amount", "100").accept(MediaType.APPLICATION_JSON)).andReturn().getResponse();
+        var cbor = mockMvc.perform(get("/api/convert").param("from", "USD").param("to", "EUR")
+                .param("amount", "100").accept(MediaType.APPLICATION_CBOR)).andReturn().getResponse();
+
+        assertEquals("\"" + VERSION_TAG + "\"", json.getHeader(HttpHeaders.ETAG));
+        assertEquals("\"" + VERSION_TAG + "-cbor\"", cbor.getHeader(HttpHeaders.ETAG));
+        assertEquals("95.7546", objectMapper.readTree(json.getContentAsString()).get("result").asText());
+        assertTrue(MediaType.APPLICATION_CBOR.isCompatibleWith(MediaType.parseMediaType(cbor.getContentType())));
+        assertTrue(json.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+        assertTrue(cbor.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT));
+    }
+
+    @Test
+    void testConvert_RevalidatedOnEveryRequestAndAudited() throws Exception {
+        publishSnapshot();
+
+        var first = mockMvc.perform(get("/api/convert").param("from", "USD").param("to", "EUR")
+                .param("amount", "100")).andReturn().getResponse();
+        var repeated = mockMvc.perform(get("/api/convert").param("from", "USD").param("to", "EUR")
+                .param("amount", "100").header(HttpHeaders.IF_NONE_MATCH, first.getHeader(HttpHeaders.ETAG)))
+                .andReturn().getResponse();
+
+        assertEquals("no-cache, private", first.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals("\"" + VERSION_TAG + "\"", first.getHeader(HttpHeaders.ETAG));
+        assertEquals(304, repeated.getStatus());
+        verify(auditLog, times(2)).record(any(), isNull(), any());
+    }
+
+    @Test
+    void testGetHistory_RejectsBadPageWith400() {
+        for (int[] page : new int[][]{{-1, 10}, {0, 0}, {0, RateHistoryService.MAX_PAGE_SIZE + 1}}) {
+            ResponseEntity<?> response = controller.getHistory("USD", FROM, TO, page[0], page[1]);
+
+            assertEquals(400, response.getStatusCode().value());
+            assertInstanceOf(ProblemDetail.class, response.getBody());
+        }
+        verify(rateHistoryService, never()).fetchHistory(any(), any(), any(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testGetHistory_ReturnsPage() {
+        List<RateHistoryDto> rows = List.of(new RateHistoryDto("USD", TO, 1, new BigDecimal("101.6797")));
+        when(rateHistoryService.fetchHistory("USD", FROM, TO, 0, 366)).thenReturn(rows);
+
+        ResponseEntity<?> response = controller.getHistory("USD", FROM, TO, 0, 366);
+
+        assertEquals(200, response.getStatusCode().value());
+        assertSame(rows, response.getBody());
+    }
+
+    @Test
+    void testConvertBatch_Json_ReportsMalformedItemAndContinues() throws Exception {
+        String body = "[{\"from\":\"USD\",\"to\":\"EUR\",\"amount\":1},"
+                + "{\"from\":\"USD\",\"to\":\"EUR\",\"amount\":\"x\"},"
+                + "{\"from\":\"EUR\",\"to\":\"USD\",\"amount\":2}]";
+
+        String content = mockMvc.perform(post("/api/convert/batch")
+                        .contentType(MediaType.APPLICATION_JSON).content(body))
+                .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        JsonNode results = objectMapper.readTree(content);
+        assertEquals(3, results.size());
+        assertEquals("10", results.get(0).get("result").asText());
+        assertTrue(results.get(1).get("error").asText().startsWith("Некорректный элемент пакета"));
+        assertTrue(results.get(1).get("result").isNull());
+        assertEquals("EUR", results.get(2).get("from").asText());
+        assertEquals("20", results.get(2).get("result").asText());
+        verify(auditLog, times(3)).recordBatchItem(any(), isNull(), any());
+    }
+
+    @Test
+    void testConvertBatch_Ndjson_ReportsMalformedItemAndContinues() throws Exception {
+        String body = "{\"from\":\"USD\",\"to\":\"EUR\",\"amount\":1}\n"
+                + "{\"from\":\"USD\",\"to\":\"EUR\",\"amount\":\"x\"}\n"
+                + "null\n"
+                + "{\"from\":\"EUR\",\"to\":\"USD\",\"amount\":2}\n";
+
+        var response = mockMvc.perform(post("/api/convert/batch")
+                        .contentType(MediaType.APPLICATION_NDJSON).content(body))
+                .andReturn().getResponse();
+
+        assertTrue(MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(response.getContentType())));
+        String[] lines = response.getContentAsString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(4, lines.length);
+        assertEquals("10", objectMapper.readTree(lines[0]).get("result").asText());
+        assertTrue(objectMapper.readTree(lines[1]).get("error").asText().startsWith("Некорректный элемент пакета"));
+        assertTrue(objectMapper.readTree(lines[2]).get("error").asText().startsWith("Некорректный элемент пакета"));
+        assertEquals("20", objectMapper.readTree(lines[3]).get("result").asText());
+    }
+
+    @Test
+    void testConvertBatch_SyntaxErrorLeavesArrayOpen() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/convert/batch");
+        request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        request.setContent(("[{\"from\":\"USD\",\"to\":\"EUR\",\"amount\":1},"
+                + "{\"from\" \"USD\"},"
+                + "{\"from\":\"EUR\",\"to\":\"USD\",\"amount\":2}]").getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThrows(UncheckedIOException.class, () -> controller.convertBatch(request, response));
+
+        String content = response.getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(content.startsWith("[{\"from\":\"USD\""));
+        assertFalse(content.endsWith("]"));
+        verify(auditLog, times(1)).recordBatchItem(any(), isNull(), any());
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.currencyconverter.api.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static HttpServletRequest request(String client) {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getRemoteAddr()).thenReturn(client);
+        return request;
+    }
+
+    @Test
+    void testPreHandle_RejectsClientAfterBurst() {
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(true, 3, 0.5, 100, meterRegistry);
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(interceptor.preHandle(request("10.0.0.1"), mock(HttpServletResponse.class), null));
+        }
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        boolean allowed = interceptor.preHandle(request("10.0.0.1"), response, null);
+
+        assertFalse(allowed);
+        verify(response).setStatus(429);
+        verify(response).setHeader("Retry-After", "2");
+        assertTrue(interceptor.preHandle(request("10.0.0.2"), mock(HttpServletResponse.class), null));
+        assertEquals(1.0, meterRegistry.get("rates.rate-limit.rejected").counter().count());
+    }
+
+    @Test
+    void testPreHandle_SharesBucketBeyondMaxClients() {
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(true, 1, 0.001, 1, meterRegistry);
+
+        assertTrue(interceptor.preHandle(request("10.0.0.1"), mock(HttpServletResponse.class), null));
+        assertTrue(interceptor.preHandle(request("10.0.0.2"), mock(HttpServletResponse.class), null));
+        assertFalse(interceptor.preHandle(request("10.0.0.3"), mock(HttpServletResponse.class), null));
+        assertEquals(2.0, meterRegistry.get("rates.rate-limit.clients").gauge().value());
+    }
+
+    @Test
+    void testPreHandle_DisabledAllowsEverything() {
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(false, 1, 0.001, 100, meterRegistry);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(interceptor.preHandle(request("10.0.0.1"), mock(HttpServletResponse.class), null));
+        }
+    }
+}
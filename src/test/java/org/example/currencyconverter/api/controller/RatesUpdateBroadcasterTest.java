@@ -0,0 +1,168 @@
+package org.example.currencyconverter.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.service.RatesChangedEvent;
+import org.example.currencyconverter.service.RatesSnapshot;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RatesUpdateBroadcasterTest {
+
+    private static final RatesSnapshot V1 = RatesSnapshot.of(List.of(
+            new CurrencyDto("USD", "Доллар США", new BigDecimal("101.6797")),
+            new CurrencyDto("EUR", "Евро", new BigDecimal("106.1878"))), 1, Instant.parse("2024-12-27T17:00:00Z"), null);
+    private static final RatesSnapshot V2 = RatesSnapshot.of(List.of(
+            new CurrencyDto("USD", "Доллар США", new BigDecimal("100.0000")),
+            new CurrencyDto("EUR", "Евро", new BigDecimal("106.1878"))), 2, Instant.parse("2024-12-28T17:00:00Z"), null);
+    private static final RatesSnapshot V3 = RatesSnapshot.of(List.of(
+            new CurrencyDto("USD", "Доллар США", new BigDecimal("99.5000")),
+            new CurrencyDto("EUR", "Евро", new BigDecimal("106.1878"))), 3, Instant.parse("2024-12-29T17:00:00Z"), null);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Соединения, которые получат следующие подписки; без заданного — исправное соединение.
+     */
+    private final Deque<RecordingEmitter> emitters = new ArrayDeque<>();
+
+    private final RatesUpdateBroadcaster broadcaster = new RatesUpdateBroadcaster(
+            new ObjectMapper(), Runnable::run, Duration.ofMinutes(30), Duration.ofSeconds(10), meterRegistry) {
+        @Override
+        SseEmitter createEmitter() {
+            return emitters.isEmpty() ? new RecordingEmitter(false) : emitters.poll();
+        }
+    };
+
+    /**
+     * Соединение, запоминающее отправленные события в виде {@code имя@идентификатор}.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final boolean failing;
+        private final List<String> events = new ArrayList<>();
+        private int attempts;
+
+        private RecordingEmitter(boolean failing) {
+            this.failing = failing;
+        }
+
+        @Override
+        public synchronized void send(SseEventBuilder builder) throws IOException {
+            attempts++;
+            if (failing) {
+                throw new IOException("Соединение разорвано");
+            }
+            String text = builder.build().stream()
+                    .map(part -> String.valueOf(part.getData()))
+                    .collect(Collectors.joining());
+            events.add(field(text, "event:") + "@" + field(text, "id:"));
+        }
+
+        private static String field(String text, String prefix) {
+            return text.lines()
+                    .filter(line -> line.startsWith(prefix))
+                    .map(line -> line.substring(prefix.length()))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        synchronized List<String> events() {
+            return List.copyOf(events);
+        }
+    }
+
+    private static String event(String name, RatesSnapshot snapshot) {
+        return name + "@" + RatesCacheHeaders.versionTag(snapshot);
+    }
+
+    private static RatesChangedEvent changed(RatesSnapshot previous, RatesSnapshot next) {
+        return new RatesChangedEvent(next, next.diff(previous));
+    }
+
+    private double subscriberCount() {
+        return meterRegistry.get("rates.stream.subscribers").gauge().value();
+    }
+
+    @Test
+    void testSubscribe_DeltaPublishedWhileConnectingFollowsSnapshot() throws InterruptedException {
+        Thread[] publisher = new Thread[1];
+
+        RecordingEmitter emitter = (RecordingEmitter) broadcaster.subscribe(() -> {
+            publisher[0] = new Thread(() -> broadcaster.onRatesChanged(changed(V1, V2)));
+            publisher[0].start();
+            while (publisher[0].getState() != Thread.State.BLOCKED) {
+                Thread.onSpinWait();
+            }
+            return V1;
+        }, null);
+        publisher[0].join();
+
+        assertEquals(List.of(event("snapshot", V1), event("rates", V2)), emitter.events());
+    }
+
+    @Test
+    void testSubscribe_DeltaPublishedBeforeConnectingIncludedInSnapshot() {
+        broadcaster.onRatesChanged(changed(V1, V2));
+
+        RecordingEmitter emitter = (RecordingEmitter) broadcaster.subscribe(() -> V2, null);
+
+        assertEquals(List.of(event("snapshot", V2)), emitter.events());
+    }
+
+    @Test
+    void testSubscribe_FailingSnapshotSendRemovesOnlyThatSubscriber() {
+        RecordingEmitter healthy = (RecordingEmitter) broadcaster.subscribe(() -> V1, null);
+        emitters.add(new RecordingEmitter(true));
+        RecordingEmitter broken = (RecordingEmitter) broadcaster.subscribe(() -> V1, null);
+        assertEquals(1, subscriberCount(), "Подписка, не получившая снимок, должна быть закрыта");
+
+        broadcaster.onRatesChanged(changed(V1, V2));
+        broadcaster.onRatesChanged(changed(V2, V3));
+
+        assertEquals(List.of(event("snapshot", V1), event("rates", V2), event("rates", V3)), healthy.events());
+        assertEquals(1, broken.attempts, "Закрытой подписке события больше не отправляются");
+        assertEquals(1, subscriberCount());
+    }
+
+    @Test
+    void testOnRatesChanged_FailingDeltaSendRemovesOnlyThatSubscriber() {
+        RecordingEmitter healthy = (RecordingEmitter) broadcaster.subscribe(() -> V1, null);
+        emitters.add(new RecordingEmitter(true));
+        RecordingEmitter broken = (RecordingEmitter) broadcaster.subscribe(() -> V1, RatesCacheHeaders.versionTag(V1));
+        assertEquals(2, subscriberCount());
+
+        broadcaster.onRatesChanged(changed(V1, V2));
+        broadcaster.onRatesChanged(changed(V2, V3));
+
+        assertEquals(List.of(event("snapshot", V1), event("rates", V2), event("rates", V3)), healthy.events());
+        assertEquals(1, broken.attempts);
+        assertEquals(1, subscriberCount());
+    }
+
+    @Test
+    void testSubscribe_MatchingLastEventIdSkipsSnapshot() {
+        RecordingEmitter resumed = (RecordingEmitter) broadcaster.subscribe(() -> V1, RatesCacheHeaders.versionTag(V1));
+        RecordingEmitter outdated = (RecordingEmitter) broadcaster.subscribe(() -> V2, RatesCacheHeaders.versionTag(V1));
+
+        assertEquals(List.of(), resumed.events());
+        assertEquals(List.of(event("snapshot", V2)), outdated.events());
+
+        broadcaster.onRatesChanged(changed(V2, V3));
+
+        assertEquals(List.of(event("rates", V3)), resumed.events());
+    }
+}
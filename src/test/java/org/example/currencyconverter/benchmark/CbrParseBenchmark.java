@@ -0,0 +1,88 @@
+package org.example.currencyconverter.benchmark;
+
+import com.google.gson.Gson;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.service.CbrRatesParser;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение времени и объёма выделяемой памяти при разборе ответа API ЦБ РФ.
+ * <p>
+ * {@code treeParse} воспроизводит прежний разбор (дерево org.json и повторный разбор каждой валюты
+ * через Gson), {@code streamingParse} — однопроходный разбор {@link CbrRatesParser}.
+ * Объём выделяемой памяти на операцию выводится профилировщиком GC ({@code gc.alloc.rate.norm}).
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class CbrParseBenchmark {
+
+    private byte[] payload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        try (InputStream in = CbrParseBenchmark.class.getResourceAsStream("/cbr/daily_json.js")) {
+            payload = in.readAllBytes();
+        }
+    }
+
+    /**
+     * Прежний разбор: дерево org.json, затем для каждой валюты toString() и новый экземпляр Gson.
+     */
+    @Benchmark
+    public List<CurrencyDto> treeParse() {
+        JSONObject currenciesData = new JSONObject(new String(payload, StandardCharsets.UTF_8))
+                .getJSONObject("Valute");
+        List<CurrencyDto> dtoList = new ArrayList<>();
+        currenciesData.keySet().stream()
+                .map(currency -> new Gson().fromJson(
+                        currenciesData.getJSONObject(currency).toString(),
+                        CurrencyData.class
+                ))
+                .forEach(data -> dtoList.add(new CurrencyDto(data.CharCode, data.Name, data.Nominal, BigDecimal.valueOf(data.Value))));
+        return dtoList;
+    }
+
+    /**
+     * Однопроходный потоковый разбор.
+     */
+    @Benchmark
+    public List<CurrencyDto> streamingParse() throws IOException {
+        return CbrRatesParser.parse(new ByteArrayInputStream(payload));
+    }
+
+    /**
+     * Структура, использовавшаяся прежним разбором.
+     */
+    private static class CurrencyData {
+        public String CharCode;
+        public String Name;
+        public int Nominal;
+        public double Value;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CbrParseBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
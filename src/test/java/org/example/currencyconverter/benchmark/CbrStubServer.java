@@ -0,0 +1,119 @@
+package org.example.currencyconverter.benchmark;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Локальная заглушка API ЦБ РФ для нагрузочных тестов и бенчмарков.
+ * <p>
+ * Отдаёт записанный ответ {@code daily_json.js} (по умолчанию {@code /cbr/daily_json.js} из тестовых ресурсов)
+ * по адресам {@code /daily_json.js} и {@code /archive/yyyy/MM/dd/daily_json.js}, поддерживает условные
+ * запросы по ETag, чтобы измерения не зависели от сети и доступности cbr-xml-daily.ru.
+ * </p>
+ * <p>
+ * Запуск отдельным процессом: {@code CbrStubServer [port=8099] [payloadFile]}.
+ * </p>
+ */
+public class CbrStubServer implements AutoCloseable {
+
+    private static final String ETAG = "\"stub\"";
+
+    private final HttpServer server;
+    private final byte[] payload;
+    private final AtomicLong requests = new AtomicLong();
+
+    private CbrStubServer(HttpServer server, byte[] payload) {
+        this.server = server;
+        this.payload = payload;
+    }
+
+    /**
+     * Запускает заглушку с записанным ответом из тестовых ресурсов.
+     *
+     * @param port Порт или 0 для любого свободного.
+     * @return Запущенная заглушка.
+     */
+    public static CbrStubServer start(int port) {
+        try (InputStream in = CbrStubServer.class.getResourceAsStream("/cbr/daily_json.js")) {
+            return start(port, in.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Запускает заглушку с заданным ответом.
+     *
+     * @param port    Порт или 0 для любого свободного.
+     * @param payload Тело ответа в формате {@code daily_json.js}.
+     * @return Запущенная заглушка.
+     */
+    public static CbrStubServer start(int port, byte[] payload) {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+            CbrStubServer stub = new CbrStubServer(server, payload);
+            server.createContext("/daily_json.js", stub::handle);
+            server.createContext("/archive/", stub::handle);
+            server.start();
+            return stub;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Возвращает адрес текущих курсов для свойства {@code cbr.url}.
+     */
+    public String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/daily_json.js";
+    }
+
+    /**
+     * Возвращает шаблон адреса архива для свойства {@code cbr.archive-url}.
+     */
+    public String archiveUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/archive/%1$tY/%1$tm/%1$td/daily_json.js";
+    }
+
+    /**
+     * Возвращает количество обработанных запросов.
+     */
+    public long requests() {
+        return requests.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().add("Content-Type", "application/javascript; charset=utf-8");
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        exchange.sendResponseHeaders(200, payload.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(payload);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8099;
+        CbrStubServer stub = args.length > 1 ? start(port, Files.readAllBytes(Path.of(args[1]))) : start(port);
+        System.out.printf("CBR stub: %s%n", stub.url());
+    }
+}
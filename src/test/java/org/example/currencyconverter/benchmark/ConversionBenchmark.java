@@ -0,0 +1,115 @@
+package org.example.currencyconverter.benchmark;
+
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.service.CbrRatesParser;
+import org.example.currencyconverter.service.RatesSnapshot;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение пропускной способности конвертации в целых числах с фиксированной точкой
+ * ({@link RatesSnapshot#convert(int, int, long)}) и в числах с плавающей точкой.
+ * <p>
+ * Оба варианта обрабатывают одинаковый набор случайных пар валют из ответа API ЦБ РФ и сумм:
+ * {@code smallAmounts} — суммы до 10 000, {@code largeAmounts} — до 10¹⁰, когда произведение
+ * выходит за 64 бита. Отсутствие выделения памяти подтверждается профилировщиком GC
+ * ({@code gc.alloc.rate.norm}).
+ * </p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConversionBenchmark {
+
+    private static final int OPERATIONS = 1024;
+
+    @Param({"10000", "10000000000"})
+    public long maxAmount;
+
+    private RatesSnapshot snapshot;
+    private double[] doubleRates;
+    private int size;
+    private int[] fromOrdinals;
+    private int[] toOrdinals;
+    private long[] scaledAmounts;
+    private double[] doubleAmounts;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        List<CurrencyDto> currencies;
+        try (InputStream in = ConversionBenchmark.class.getResourceAsStream("/cbr/daily_json.js")) {
+            currencies = CbrRatesParser.parse(in);
+        }
+        snapshot = RatesSnapshot.of(currencies, 1);
+        size = currencies.size() + 1;
+
+        double[] rubRates = new double[size];
+        rubRates[0] = 1.0;
+        for (CurrencyDto currency : currencies) {
+            rubRates[snapshot.ordinal(currency.charCode)] = currency.value.doubleValue() / currency.nominal;
+        }
+        doubleRates = new double[size * size];
+        for (int from = 0; from < size; from++) {
+            for (int to = 0; to < size; to++) {
+                doubleRates[from * size + to] = rubRates[from] / rubRates[to];
+            }
+        }
+
+        Random random = new Random(42);
+        fromOrdinals = new int[OPERATIONS];
+        toOrdinals = new int[OPERATIONS];
+        scaledAmounts = new long[OPERATIONS];
+        doubleAmounts = new double[OPERATIONS];
+        for (int i = 0; i < OPERATIONS; i++) {
+            fromOrdinals[i] = random.nextInt(size);
+            toOrdinals[i] = random.nextInt(size);
+            scaledAmounts[i] = (long) (random.nextDouble() * maxAmount * 10_000);
+            doubleAmounts[i] = scaledAmounts[i] / 10_000.0;
+        }
+    }
+
+    /**
+     * Конвертация в целых числах с фиксированной точкой.
+     */
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public long fixedPoint() {
+        long sum = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            sum += snapshot.convert(fromOrdinals[i], toOrdinals[i], scaledAmounts[i]);
+        }
+        return sum;
+    }
+
+    /**
+     * Прежняя конвертация: умножение на кросс-курс в числах с плавающей точкой.
+     */
+    @Benchmark
+    @OperationsPerInvocation(OPERATIONS)
+    public double plainDouble() {
+        double sum = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            sum += doubleAmounts[i] * doubleRates[fromOrdinals[i] * size + toOrdinals[i]];
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ConversionBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.currencyconverter.benchmark;
+
+import org.example.currencyconverter.CurrencyConverterApplication;
+import org.example.currencyconverter.api.dto.ConversionDto;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.persistence.repository.CurrencyRepository;
+import org.example.currencyconverter.service.CurrencyServiceImpl;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение задержки поиска валюты по коду через репозиторий JPA и через снимок курсов,
+ * а также задержка конвертации через {@link CurrencyServiceImpl}.
+ * <p>
+ * Режим {@link Mode#SampleTime} с несколькими потоками даёт распределение задержек
+ * (включая p99) под конкурентной нагрузкой. Контекст приложения заполняет базу данных
+ * курсами из локальной заглушки API ЦБ РФ ({@link CbrStubServer}).
+ * </p>
+ * <p>
+ * Замер на одном ядре ({@code mvn -Pperf -DskipTests verify}, 8 потоков): p99 поиска через репозиторий
+ * около 30–32 мс (медиана 96–148 мкс), через снимок — 0,13–0,15 мкс (медиана около 0,1 мкс).
+ * </p>
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(8)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class CurrencyLookupBenchmark {
+
+    @Param({"USD", "EUR", "JPY"})
+    public String charCode;
+
+    private CbrStubServer stub;
+    private ConfigurableApplicationContext context;
+    private CurrencyRepository currencyRepository;
+    private CurrencyServiceImpl currencyService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        stub = CbrStubServer.start(0);
+        context = new SpringApplicationBuilder(CurrencyConverterApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--cbr.url=" + stub.url(), "--rates.snapshot-file=", "--rates.archive-file=");
+        currencyRepository = context.getBean(CurrencyRepository.class);
+        currencyService = context.getBean(CurrencyServiceImpl.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        stub.close();
+    }
+
+    /**
+     * Прежний путь чтения: запрос к базе данных и преобразование сущности в DTO.
+     */
+    @Benchmark
+    public CurrencyDto repositoryLookup() {
+        return currencyRepository.findByCharCode(charCode)
+                .map(currencyService::convertToDto)
+                .orElseThrow();
+    }
+
+    /**
+     * Текущий путь чтения: поиск в неизменяемом снимке курсов.
+     */
+    @Benchmark
+    public CurrencyDto snapshotLookup() {
+        return currencyService.findByCharCode(charCode);
+    }
+
+    /**
+     * Конвертация через сервис по текущему снимку курсов.
+     */
+    @Benchmark
+    public ConversionDto serviceConvert() {
+        return currencyService.convert(currencyService.getSnapshot(), charCode, "RUB", BigDecimal.TEN);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CurrencyLookupBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
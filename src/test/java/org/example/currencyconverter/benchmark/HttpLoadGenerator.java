@@ -0,0 +1,115 @@
+package org.example.currencyconverter.benchmark;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Простой генератор HTTP-нагрузки с замкнутым циклом для сравнения режимов обработки запросов.
+ * <p>
+ * Каждый из {@code concurrency} потоков отправляет запросы к одному URL без пауз в течение
+ * заданного времени. После прогрева выводятся пропускная способность и перцентили задержки.
+ * </p>
+ * <p>
+ * Запуск: {@code HttpLoadGenerator <url> [concurrency=200] [seconds=30] [warmupSeconds=10]}.
+ * Из набора нагрузочных сценариев ({@link PerfSuite}) вызывается через {@link #run}.
+ * </p>
+ */
+public class HttpLoadGenerator {
+
+    public static void main(String[] args) throws InterruptedException {
+        URI uri = URI.create(args[0]);
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        int warmupSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        Result result = run(uri, concurrency, seconds, warmupSeconds);
+        System.out.printf("url=%s concurrency=%d seconds=%d%n", uri, concurrency, seconds);
+        System.out.printf("requests=%d errors=%d throughput=%.0f req/s%n",
+                result.requests(), result.errors(), result.throughput());
+        System.out.printf("latency ms: p50=%.2f p90=%.2f p99=%.2f p99.9=%.2f max=%.2f%n",
+                result.p50(), result.p90(), result.p99(), result.p999(), result.max());
+    }
+
+    /**
+     * Нагружает URL и возвращает измерения после прогрева.
+     *
+     * @param uri           Адрес запроса.
+     * @param concurrency   Количество параллельных клиентов.
+     * @param seconds       Длительность измерения в секундах.
+     * @param warmupSeconds Длительность прогрева в секундах.
+     * @return Пропускная способность и перцентили задержки.
+     * @throws InterruptedException если ожидание прервано.
+     */
+    public static Result run(URI uri, int concurrency, int seconds, int warmupSeconds) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        Recorder recorder = new Recorder(TimeUnit.SECONDS.toNanos(60), 3);
+        AtomicLong errors = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds + seconds);
+
+        List<Thread> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    recorder.recordValue(System.nanoTime() - start);
+                }
+            }, "load-" + i);
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(warmupSeconds));
+        recorder.reset();
+        errors.set(0);
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        Histogram histogram = recorder.getIntervalHistogram();
+        return new Result(histogram.getTotalCount(), errors.get(), histogram.getTotalCount() / (double) seconds,
+                histogram.getValueAtPercentile(50) / 1e6,
+                histogram.getValueAtPercentile(90) / 1e6,
+                histogram.getValueAtPercentile(99) / 1e6,
+                histogram.getValueAtPercentile(99.9) / 1e6,
+                histogram.getMaxValue() / 1e6);
+    }
+
+    /**
+     * Результат нагрузки на один URL.
+     *
+     * @param requests   Количество запросов после прогрева.
+     * @param errors     Количество ошибок и ответов с кодом, отличным от 200.
+     * @param throughput Пропускная способность, запросов в секунду.
+     * @param p50        Медиана задержки, мс.
+     * @param p90        90-й перцентиль задержки, мс.
+     * @param p99        99-й перцентиль задержки, мс.
+     * @param p999       99,9-й перцентиль задержки, мс.
+     * @param max        Максимальная задержка, мс.
+     */
+    public record Result(long requests, long errors, double throughput,
+                         double p50, double p90, double p99, double p999, double max) {
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.currencyconverter.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Сравнение результатов {@link PerfSuite} двух версий.
+ * <p>
+ * Бенчмарки JMH сопоставляются по имени и параметрам: для режима пропускной способности ({@code thrpt})
+ * лучше большее значение, для остальных режимов — меньшее. Сценарии HTTP сопоставляются по имени
+ * и сравниваются по пропускной способности и 99-му перцентилю задержки. Ухудшение больше допустимого
+ * считается регрессией.
+ * </p>
+ * <p>
+ * Запуск: {@code PerfCompare <baselineDir> <currentDir> [tolerancePercent=10]}; код завершения 1 означает регрессию.
+ * </p>
+ */
+public class PerfCompare {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        System.exit(compare(Path.of(args[0]), Path.of(args[1]), tolerance) > 0 ? 1 : 0);
+    }
+
+    /**
+     * Сравнивает результаты и выводит таблицу изменений.
+     *
+     * @param baseline         Каталог результатов прошлой версии.
+     * @param current          Каталог текущих результатов.
+     * @param tolerancePercent Допустимое ухудшение в процентах.
+     * @return Количество регрессий.
+     * @throws IOException если результаты не удаётся прочитать.
+     */
+    public static int compare(Path baseline, Path current, double tolerancePercent) throws IOException {
+        Map<String, Metric> before = new LinkedHashMap<>();
+        Map<String, Metric> after = new LinkedHashMap<>();
+        readJmh(baseline.resolve("jmh.json"), before);
+        readJmh(current.resolve("jmh.json"), after);
+        readHttp(baseline.resolve("http.json"), before);
+        readHttp(current.resolve("http.json"), after);
+
+        int regressions = 0;
+        for (Map.Entry<String, Metric> entry : after.entrySet()) {
+            Metric old = before.get(entry.getKey());
+            if (old == null || old.value() == 0) {
+                continue;
+            }
+            Metric now = entry.getValue();
+            double change = (now.value() - old.value()) / old.value() * 100;
+            double worse = now.higherIsBetter() ? -change : change;
+            boolean regression = worse > tolerancePercent;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f -> %14.3f %-8s %+7.1f%% %s%n", entry.getKey(), old.value(), now.value(),
+                    now.unit(), change, regression ? "REGRESSION" : "");
+        }
+        System.out.printf("Регрессий: %d (допуск %.1f%%)%n", regressions, tolerancePercent);
+        return regressions;
+    }
+
+    private static void readJmh(Path file, Map<String, Metric> metrics) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        for (JsonNode benchmark : MAPPER.readTree(file.toFile())) {
+            StringBuilder key = new StringBuilder(benchmark.get("benchmark").asText());
+            JsonNode params = benchmark.get("params");
+            if (params != null) {
+                Map<String, String> sorted = new TreeMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                fields.forEachRemaining(field -> sorted.put(field.getKey(), field.getValue().asText()));
+                key.append(sorted);
+            }
+            JsonNode primary = benchmark.get("primaryMetric");
+            metrics.put(key.toString(), new Metric(primary.get("score").asDouble(), primary.get("scoreUnit").asText(),
+                    "thrpt".equals(benchmark.get("mode").asText())));
+        }
+    }
+
+    private static void readHttp(Path file, Map<String, Metric> metrics) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        for (JsonNode scenario : MAPPER.readTree(file.toFile()).get("scenarios")) {
+            String name = "http." + scenario.get("scenario").asText();
+            JsonNode result = scenario.get("result");
+            metrics.put(name + ".throughput", new Metric(result.get("throughput").asDouble(), "req/s", true));
+            metrics.put(name + ".p99", new Metric(result.get("p99").asDouble(), "ms", false));
+        }
+    }
+
+    /**
+     * Значение показателя.
+     *
+     * @param value          Значение.
+     * @param unit           Единица измерения.
+     * @param higherIsBetter Лучше ли большее значение.
+     */
+    private record Metric(double value, String unit, boolean higherIsBetter) {
+    }
+}
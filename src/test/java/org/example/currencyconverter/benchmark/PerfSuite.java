@@ -0,0 +1,135 @@
+package org.example.currencyconverter.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.currencyconverter.CurrencyConverterApplication;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Набор измерений производительности с машиночитаемыми результатами для сравнения между версиями.
+ * <p>
+ * Выполняет бенчмарки JMH пакета (разбор ответа ЦБ РФ, конвертация, поиск, форматы передачи)
+ * и сценарии HTTP-нагрузки на {@code CurrencyController}. Приложение для HTTP-сценариев запускается
+ * в том же процессе на свободном порту и получает курсы из локальной заглушки ({@link CbrStubServer}).
+ * Результаты записываются в {@code jmh.json} (формат JMH) и {@code http.json}; если задан каталог
+ * результатов прошлой версии, они сравниваются (см. {@link PerfCompare}).
+ * </p>
+ * <p>
+ * Запуск: {@code mvn -Pperf -DskipTests verify}. Системные свойства:
+ * {@code perf.output} — каталог результатов, {@code perf.include} — регулярное выражение бенчмарков JMH,
+ * {@code perf.quick} — короткие прогрев и измерение, {@code perf.http.concurrency}, {@code perf.http.seconds},
+ * {@code perf.http.warmup} — параметры нагрузки, {@code perf.baseline} — каталог результатов для сравнения,
+ * {@code perf.tolerance} — допустимое ухудшение в процентах.
+ * </p>
+ */
+public class PerfSuite {
+
+    public static void main(String[] args) throws Exception {
+        Path output = Path.of(System.getProperty("perf.output", "target/perf"));
+        Files.createDirectories(output);
+        boolean quick = Boolean.getBoolean("perf.quick");
+
+        String include = System.getProperty("perf.include", "");
+        if (!"none".equals(include)) {
+            runJmh(output.resolve("jmh.json"), include.isBlank() ? PerfSuite.class.getPackageName() + ".*Benchmark" : include, quick);
+        }
+        runHttp(output.resolve("http.json"),
+                Integer.getInteger("perf.http.concurrency", 32),
+                Integer.getInteger("perf.http.seconds", quick ? 5 : 20),
+                Integer.getInteger("perf.http.warmup", quick ? 2 : 5));
+
+        String baseline = System.getProperty("perf.baseline", "");
+        if (!baseline.isBlank()) {
+            int regressions = PerfCompare.compare(Path.of(baseline), output,
+                    Double.parseDouble(System.getProperty("perf.tolerance", "10")));
+            if (regressions > 0) {
+                System.exit(1);
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Выполняет бенчмарки JMH с профилировщиком GC и записывает результаты в формате JSON.
+     */
+    private static void runJmh(Path result, String include, boolean quick) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(result.toString());
+        if (quick) {
+            options.warmupIterations(1)
+                    .warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(2)
+                    .measurementTime(TimeValue.seconds(1));
+        }
+        new Runner(options.build()).run();
+    }
+
+    /**
+     * Запускает приложение с заглушкой API ЦБ РФ, нагружает основные адреса API
+     * и записывает результаты в формате JSON.
+     */
+    private static void runHttp(Path result, int concurrency, int seconds, int warmup)
+            throws IOException, InterruptedException {
+        Path archive = result.resolveSibling("rates.archive");
+        Files.deleteIfExists(archive);
+        try (CbrStubServer stub = CbrStubServer.start(0);
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(CurrencyConverterApplication.class)
+                     .run("--server.port=0",
+                             "--cbr.url=" + stub.url(),
+                             "--rates.snapshot-file=",
+                             "--rates.archive-file=" + archive,
+                             "--rates.rate-limit.enabled=false")) {
+            String base = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port") + "/api";
+            Map<String, String> scenarios = new LinkedHashMap<>();
+            scenarios.put("getData", base + "/getData?code=USD");
+            scenarios.put("convert", base + "/convert?from=USD&to=EUR&amount=100");
+            scenarios.put("convertAsOf", base + "/convert?from=USD&to=EUR&amount=100&date=" + LocalDate.now());
+            scenarios.put("rates", base + "/rates");
+            scenarios.put("stats", base + "/stats?code=USD");
+
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (Map.Entry<String, String> scenario : scenarios.entrySet()) {
+                HttpLoadGenerator.Result measured = HttpLoadGenerator.run(
+                        URI.create(scenario.getValue()), concurrency, seconds, warmup);
+                System.out.printf("%-12s %10.0f req/s  p50=%.2f ms  p99=%.2f ms  errors=%d%n", scenario.getKey(),
+                        measured.throughput(), measured.p50(), measured.p99(), measured.errors());
+                Map<String, Object> entry = new LinkedHashMap<>();
+                entry.put("scenario", scenario.getKey());
+                entry.put("url", scenario.getValue().substring(base.length()));
+                entry.put("concurrency", concurrency);
+                entry.put("seconds", seconds);
+                entry.put("result", measured);
+                results.add(entry);
+            }
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("timestamp", Instant.now().toString());
+            report.put("jdk", Runtime.version().toString());
+            report.put("processors", Runtime.getRuntime().availableProcessors());
+            report.put("scenarios", results);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(result.toFile(), report);
+        }
+    }
+}
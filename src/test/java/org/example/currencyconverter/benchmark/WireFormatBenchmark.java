@@ -0,0 +1,114 @@
+package org.example.currencyconverter.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.service.CbrRatesParser;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение форматов передачи таблицы курсов: JSON и CBOR.
+ * <p>
+ * Измеряются время кодирования и декодирования таблицы из ответа API ЦБ РФ, а также одного
+ * объекта {@link CurrencyDto}. Размеры закодированных данных выводятся при запуске через {@link #main}.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class WireFormatBenchmark {
+
+    private static final TypeReference<List<CurrencyDto>> TABLE = new TypeReference<>() {
+    };
+
+    private final ObjectMapper json = new ObjectMapper();
+    private final ObjectMapper cbor = new CBORMapper();
+
+    private List<CurrencyDto> table;
+    private CurrencyDto currency;
+    private byte[] jsonTable;
+    private byte[] cborTable;
+    private byte[] jsonCurrency;
+    private byte[] cborCurrency;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        table = loadTable();
+        currency = table.stream().filter(c -> c.charCode.equals("USD")).findFirst().orElseThrow();
+        jsonTable = json.writeValueAsBytes(table);
+        cborTable = cbor.writeValueAsBytes(table);
+        jsonCurrency = json.writeValueAsBytes(currency);
+        cborCurrency = cbor.writeValueAsBytes(currency);
+    }
+
+    @Benchmark
+    public byte[] encodeTableJson() throws IOException {
+        return json.writeValueAsBytes(table);
+    }
+
+    @Benchmark
+    public byte[] encodeTableCbor() throws IOException {
+        return cbor.writeValueAsBytes(table);
+    }
+
+    @Benchmark
+    public List<CurrencyDto> decodeTableJson() throws IOException {
+        return json.readValue(jsonTable, TABLE);
+    }
+
+    @Benchmark
+    public List<CurrencyDto> decodeTableCbor() throws IOException {
+        return cbor.readValue(cborTable, TABLE);
+    }
+
+    @Benchmark
+    public byte[] encodeCurrencyJson() throws IOException {
+        return json.writeValueAsBytes(currency);
+    }
+
+    @Benchmark
+    public byte[] encodeCurrencyCbor() throws IOException {
+        return cbor.writeValueAsBytes(currency);
+    }
+
+    @Benchmark
+    public CurrencyDto decodeCurrencyJson() throws IOException {
+        return json.readValue(jsonCurrency, CurrencyDto.class);
+    }
+
+    @Benchmark
+    public CurrencyDto decodeCurrencyCbor() throws IOException {
+        return cbor.readValue(cborCurrency, CurrencyDto.class);
+    }
+
+    private static List<CurrencyDto> loadTable() throws IOException {
+        try (InputStream in = WireFormatBenchmark.class.getResourceAsStream("/cbr/daily_json.js")) {
+            return CbrRatesParser.parse(in);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        WireFormatBenchmark sizes = new WireFormatBenchmark();
+        sizes.setUp();
+        System.out.printf("table: json=%d bytes, cbor=%d bytes%n", sizes.jsonTable.length, sizes.cborTable.length);
+        System.out.printf("currency: json=%d bytes, cbor=%d bytes%n", sizes.jsonCurrency.length, sizes.cborCurrency.length);
+
+        new Runner(new OptionsBuilder()
+                .include(WireFormatBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
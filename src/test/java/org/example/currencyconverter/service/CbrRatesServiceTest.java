@@ -0,0 +1,195 @@
+package org.example.currencyconverter.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CbrRatesServiceTest {
+
+    private static final String ETAG = "\"2024-12-28\"";
+
+    private HttpServer server;
+    private byte[] payload;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int failuresBeforeSuccess;
+    private volatile boolean gzip;
+    private volatile boolean ignoreConditional;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        try (InputStream in = getClass().getResourceAsStream("/cbr/daily_json.js")) {
+            payload = in.readAllBytes();
+        }
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/daily_json.js", this::handle);
+        server.createContext("/archive/", this::handleArchive);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        int attempt = requests.incrementAndGet();
+        if (attempt <= failuresBeforeSuccess) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        if (!ignoreConditional && ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        byte[] body = payload;
+        if (gzip) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+            try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+                out.write(payload);
+            }
+            body = compressed.toByteArray();
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+        }
+        exchange.getResponseHeaders().add("ETag", ETAG);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void handleArchive(HttpExchange exchange) throws IOException {
+        if (!exchange.getRequestURI().getPath().equals("/archive/2024/12/27/daily_json.js")) {
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+            return;
+        }
+        exchange.sendResponseHeaders(200, payload.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(payload);
+        }
+    }
+
+    private CbrRatesService createService(int maxAttempts) {
+        return new CbrRatesService(
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/daily_json.js",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/archive/%1$tY/%1$tm/%1$td/daily_json.js",
+                Duration.ofSeconds(2), Duration.ofSeconds(2), maxAttempts, Duration.ofMillis(10),
+                new SimpleMeterRegistry(), ForkJoinPool.commonPool());
+    }
+
+    private static CurrencyDto find(List<CurrencyDto> currencies, String charCode) {
+        return currencies.stream().filter(c -> c.charCode.equals(charCode)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void testFetchRatesAsync() {
+        Optional<RatesEdition> rates = createService(1).fetchRatesAsync().join();
+
+        assertTrue(rates.isPresent());
+        assertEquals(LocalDate.of(2024, 12, 28), rates.get().date());
+        List<CurrencyDto> currencies = rates.get().currencies();
+        assertEquals(42, currencies.size());
+        assertEquals(new BigDecimal("101.6797"), find(currencies, "USD").value);
+        assertEquals(1, find(currencies, "USD").nominal);
+        assertEquals(100, find(currencies, "JPY").nominal);
+        assertEquals("Евро", find(currencies, "EUR").name);
+    }
+
+    @Test
+    void testFetchArchiveAsync() {
+        CbrRatesService service = createService(1);
+
+        Optional<List<CurrencyDto>> published = service.fetchArchiveAsync(LocalDate.of(2024, 12, 27)).join();
+        Optional<List<CurrencyDto>> weekend = service.fetchArchiveAsync(LocalDate.of(2024, 12, 29)).join();
+
+        assertEquals(42, published.orElseThrow().size());
+        assertTrue(weekend.isEmpty());
+    }
+
+    @Test
+    void testFetchRatesAsync_Gzip() {
+        gzip = true;
+
+        Optional<RatesEdition> rates = createService(1).fetchRatesAsync().join();
+
+        assertTrue(rates.isPresent());
+        assertEquals(42, rates.get().currencies().size());
+    }
+
+    @Test
+    void testFetchRatesAsync_NotModified() {
+        CbrRatesService service = createService(1);
+
+        service.acknowledge(service.fetchRatesAsync().join().orElseThrow());
+        assertTrue(service.fetchRatesAsync().join().isEmpty());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void testFetchRatesAsync_SameEditionIsUnchanged() {
+        ignoreConditional = true;
+        CbrRatesService service = createService(1);
+
+        service.acknowledge(service.fetchRatesAsync().join().orElseThrow());
+        assertTrue(service.fetchRatesAsync().join().isEmpty());
+    }
+
+    @Test
+    void testFetchRatesAsync_RefetchesUntilAcknowledged() {
+        ignoreConditional = true;
+        CbrRatesService service = createService(1);
+
+        RatesEdition first = service.fetchRatesAsync().join().orElseThrow();
+        service.fetchRatesAsync().join().orElseThrow();
+        service.acknowledge(first);
+
+        RatesEdition again = service.fetchRatesAsync().join().orElseThrow();
+        assertEquals(first.currencies().size(), again.currencies().size());
+        service.acknowledge(again);
+        assertTrue(service.fetchRatesAsync().join().isEmpty());
+    }
+
+    @Test
+    void testFetchRatesAsync_RetriesServerErrors() {
+        failuresBeforeSuccess = 2;
+
+        Optional<RatesEdition> rates = createService(3).fetchRatesAsync().join();
+
+        assertTrue(rates.isPresent());
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    void testFetchRatesAsync_ThrowsExceptionAfterLastAttempt() {
+        failuresBeforeSuccess = 5;
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> createService(2).fetchRatesAsync().join());
+
+        assertEquals("Ошибка при получении данных от API ЦБ РФ: HTTP 503", exception.getCause().getMessage());
+        assertEquals(2, requests.get());
+    }
+}
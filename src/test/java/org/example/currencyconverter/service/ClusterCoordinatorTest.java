@@ -0,0 +1,151 @@
+package org.example.currencyconverter.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.persistence.entity.Currency;
+import org.example.currencyconverter.persistence.entity.RatesLease;
+import org.example.currencyconverter.persistence.repository.CurrencyRepository;
+import org.example.currencyconverter.persistence.repository.RatesLeaseRepository;
+import org.example.currencyconverter.persistence.repository.RatesVersionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Два узла кластера с разными идентификаторами над одной базой данных H2.
+ * <p>
+ * Тесты выполняются без внешней транзакции, чтобы каждый вызов {@link ClusterCoordinator}
+ * фиксировался или откатывался так же, как в приложении.
+ * </p>
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ClusterCoordinatorTest {
+
+    private static final Instant REFRESHED_AT = Instant.parse("2024-12-27T17:00:00Z");
+    private static final LocalDate DATE = LocalDate.of(2024, 12, 28);
+
+    @Autowired
+    private RatesLeaseRepository leaseRepository;
+
+    @Autowired
+    private RatesVersionRepository versionRepository;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private ClusterCoordinator nodeA;
+    private ClusterCoordinator nodeB;
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        nodeA = coordinator("node-a");
+        nodeB = coordinator("node-b");
+        nodeA.init();
+        nodeB.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        currencyRepository.deleteAll();
+        leaseRepository.deleteAll();
+        versionRepository.deleteAll();
+    }
+
+    private ClusterCoordinator coordinator(String nodeId) {
+        return new ClusterCoordinator(leaseRepository, versionRepository, currencyRepository, transactionTemplate,
+                new SimpleMeterRegistry(), true, nodeId, Duration.ofMinutes(5));
+    }
+
+    private static Currency currency(String charCode, String value) {
+        Currency currency = new Currency();
+        currency.setCharCode(charCode);
+        currency.setName(charCode);
+        currency.setValue(new BigDecimal(value));
+        return currency;
+    }
+
+    /**
+     * Записывает курсы и переводит версию так же, как ведущий узел при обновлении.
+     */
+    private void publish(ClusterCoordinator node, long expected, Currency currency) {
+        RatesSnapshot next = RatesSnapshot.of(
+                List.of(new CurrencyDto(currency.getCharCode(), currency.getName(), currency.getValue())),
+                expected + 1, REFRESHED_AT, DATE);
+        transactionTemplate.executeWithoutResult(status -> {
+            currencyRepository.save(currency);
+            node.advanceVersion(expected, next);
+        });
+    }
+
+    @Test
+    void testTryAcquireLeadership_OnlyOneNodeHoldsLease() {
+        assertTrue(nodeA.tryAcquireLeadership());
+        assertFalse(nodeB.tryAcquireLeadership());
+
+        assertTrue(nodeA.isLeader());
+        assertFalse(nodeB.isLeader());
+        assertTrue(nodeA.tryAcquireLeadership(), "Владелец аренды должен продлевать её");
+        assertEquals("node-a", leaseRepository.findById(ClusterCoordinator.LEASE_NAME).orElseThrow().getOwner());
+    }
+
+    @Test
+    void testTryAcquireLeadership_ExpiredLeaseTakenOver() {
+        assertTrue(nodeA.tryAcquireLeadership());
+        RatesLease lease = leaseRepository.findById(ClusterCoordinator.LEASE_NAME).orElseThrow();
+        lease.setExpiresAt(Instant.now().minusSeconds(1));
+        leaseRepository.save(lease);
+
+        assertTrue(nodeB.tryAcquireLeadership());
+        assertFalse(nodeA.tryAcquireLeadership());
+        assertEquals("node-b", leaseRepository.findById(ClusterCoordinator.LEASE_NAME).orElseThrow().getOwner());
+    }
+
+    @Test
+    void testAdvanceVersion_StaleExpectedThrowsAndRollsBack() {
+        publish(nodeA, 0, currency("USD", "101.6797"));
+
+        assertThrows(IllegalStateException.class, () -> publish(nodeB, 0, currency("EUR", "106.1878")));
+
+        assertEquals(1L, versionRepository.findVersion(ClusterCoordinator.VERSION_ID));
+        assertEquals(1, currencyRepository.count(), "Курсы узла с устаревшей версией должны быть откачены");
+        assertTrue(currencyRepository.findByCharCode("EUR").isEmpty());
+    }
+
+    @Test
+    void testLoadIfChanged_FollowerLoadsNewVersion() {
+        assertTrue(nodeB.loadIfChanged(0).isEmpty(), "Пока курсы не записаны, загружать нечего");
+
+        publish(nodeA, 0, currency("USD", "101.6797"));
+
+        Optional<RatesSnapshot> loaded = nodeB.loadIfChanged(0);
+        assertTrue(loaded.isPresent());
+        RatesSnapshot snapshot = loaded.get();
+        assertEquals(1, snapshot.getVersion());
+        assertEquals(DATE, snapshot.getDate());
+        assertEquals(REFRESHED_AT, snapshot.getRefreshedAt().truncatedTo(ChronoUnit.SECONDS));
+        assertEquals(0, new BigDecimal("101.6797").compareTo(snapshot.get("USD").value));
+        assertTrue(nodeB.loadIfChanged(1).isEmpty(), "Узел с текущей версией не должен перезагружать курсы");
+    }
+}
@@ -0,0 +1,202 @@
+package org.example.currencyconverter.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.example.currencyconverter.api.dto.ConversionDto;
+import org.example.currencyconverter.persistence.entity.ConversionAudit;
+import org.example.currencyconverter.persistence.repository.ConversionAuditRepository;
+import org.hibernate.Session;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ConversionAuditLogTest {
+
+    private static final ConversionDto CONVERSION = new ConversionDto("USD", "EUR", new BigDecimal("100"),
+            new BigDecimal("0.93000000"), new BigDecimal("93.0000"));
+
+    private final ConversionAuditRepository repository = mock(ConversionAuditRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final Session session = mock(Session.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private ConversionAuditLog auditLog(ConversionAuditLog.Sink sink, String file, int capacity,
+                                        ConversionAuditLog.Overflow overflow, Duration blockTimeout) {
+        return auditLog(sink, file, capacity, overflow, overflow, blockTimeout);
+    }
+
+    private ConversionAuditLog auditLog(ConversionAuditLog.Sink sink, String file, int capacity,
+                                        ConversionAuditLog.Overflow overflow,
+                                        ConversionAuditLog.Overflow batchOverflow, Duration blockTimeout) {
+        return new ConversionAuditLog(repository, transactionTemplate, entityManager, objectMapper, meterRegistry,
+                true, sink, file, capacity, 1000, Duration.ofMillis(10), overflow, batchOverflow, blockTimeout);
+    }
+
+    @Test
+    void testRingBuffer_KeepsEveryProducersOrder() throws InterruptedException {
+        MpscRingBuffer<long[]> buffer = new MpscRingBuffer<>(100);
+        assertEquals(128, buffer.capacity());
+        int producers = 4;
+        int perProducer = 10_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                for (long i = 0; i < perProducer; i++) {
+                    long[] element = {producer, i};
+                    while (!buffer.offer(element)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        long[] next = new long[producers];
+        List<long[]> drained = new ArrayList<>();
+        int total = 0;
+        while (total < producers * perProducer) {
+            drained.clear();
+            total += buffer.drainTo(drained, 64);
+            for (long[] element : drained) {
+                assertEquals(next[(int) element[0]]++, element[1]);
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, buffer.size());
+        assertFalse(buffer.drainTo(drained, 1) > 0);
+    }
+
+    @Test
+    void testFileSink_WritesEveryRecordBeforeStop(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("audit/conversions.ndjson");
+        ConversionAuditLog auditLog = auditLog(ConversionAuditLog.Sink.FILE, file.toString(), 1024,
+                ConversionAuditLog.Overflow.BLOCK, Duration.ofSeconds(10));
+        auditLog.start();
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(auditLog.record(CONVERSION, i % 2 == 0 ? null : LocalDate.of(2024, 12, 27), "127.0.0.1"));
+        }
+        auditLog.record(ConversionDto.failed("USD", "XYZ", BigDecimal.ONE, "Валюта с кодом XYZ не найдена."),
+                null, "127.0.0.1");
+        auditLog.stop();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(5000, lines.size());
+        JsonNode first = objectMapper.readTree(lines.get(0));
+        assertEquals("USD", first.get("from").asText());
+        assertEquals("EUR", first.get("to").asText());
+        assertEquals(0, new BigDecimal("93.0000").compareTo(first.get("result").decimalValue()));
+        assertEquals("2024-12-27", objectMapper.readTree(lines.get(1)).get("rateDate").asText());
+        assertEquals(5000, meterRegistry.get("rates.audit.written").counter().count());
+        assertEquals(0, meterRegistry.get("rates.audit.dropped").counter().count());
+        assertTrue(meterRegistry.get("rates.audit.flush").timer().count() > 0);
+    }
+
+    @Test
+    void testRecord_FullBufferDropsOrBlocksThenDrops() {
+        ConversionAuditLog dropping = auditLog(ConversionAuditLog.Sink.DATABASE, "", 2,
+                ConversionAuditLog.Overflow.DROP, Duration.ZERO);
+        assertTrue(dropping.record(CONVERSION, null, null));
+        assertTrue(dropping.record(CONVERSION, null, null));
+        assertFalse(dropping.record(CONVERSION, null, null));
+        assertEquals(2, dropping.getQueueDepth());
+        assertEquals(2, meterRegistry.get("rates.audit.queue.depth").gauge().value());
+
+        meterRegistry.clear();
+        ConversionAuditLog blocking = auditLog(ConversionAuditLog.Sink.DATABASE, "", 2,
+                ConversionAuditLog.Overflow.BLOCK, Duration.ofMillis(5));
+        assertTrue(blocking.record(CONVERSION, null, null));
+        assertTrue(blocking.record(CONVERSION, null, null));
+        long start = System.nanoTime();
+        assertFalse(blocking.record(CONVERSION, null, null));
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(5).toNanos());
+        assertEquals(1, meterRegistry.get("rates.audit.dropped").counter().count());
+    }
+
+    @Test
+    void testRecordBatchItem_FollowsBatchOverflow() {
+        ConversionAuditLog dropping = auditLog(ConversionAuditLog.Sink.FILE, "", 2,
+                ConversionAuditLog.Overflow.BLOCK, ConversionAuditLog.Overflow.DROP, Duration.ofSeconds(30));
+        assertTrue(dropping.recordBatchItem(CONVERSION, null, null));
+        assertTrue(dropping.recordBatchItem(CONVERSION, null, null));
+        long start = System.nanoTime();
+        assertFalse(dropping.recordBatchItem(CONVERSION, null, null));
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(5).toNanos());
+        assertEquals(1, meterRegistry.get("rates.audit.dropped").counter().count());
+
+        meterRegistry.clear();
+        ConversionAuditLog blocking = auditLog(ConversionAuditLog.Sink.FILE, "", 2,
+                ConversionAuditLog.Overflow.DROP, ConversionAuditLog.Overflow.BLOCK, Duration.ofMillis(5));
+        assertTrue(blocking.recordBatchItem(CONVERSION, null, null));
+        assertTrue(blocking.recordBatchItem(CONVERSION, null, null));
+        start = System.nanoTime();
+        assertFalse(blocking.recordBatchItem(CONVERSION, null, null));
+        assertTrue(System.nanoTime() - start >= Duration.ofMillis(5).toNanos());
+        assertFalse(blocking.record(CONVERSION, null, null));
+        assertEquals(2, meterRegistry.get("rates.audit.dropped").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDatabaseSink_InsertsBatchInOneTransactionAndRetries() {
+        when(entityManager.unwrap(Session.class)).thenReturn(session);
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(repository.saveAll(any())).thenThrow(new IllegalStateException("Connection is closed"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        ConversionAuditLog auditLog = auditLog(ConversionAuditLog.Sink.DATABASE, "", 16,
+                ConversionAuditLog.Overflow.DROP, Duration.ZERO);
+        Instant servedAt = Instant.parse("2024-12-27T12:00:00Z");
+        List<ConversionAuditLog.Entry> batch = List.of(
+                new ConversionAuditLog.Entry(servedAt, "10.0.0.1", "USD", "EUR", BigDecimal.TEN,
+                        new BigDecimal("0.93"), new BigDecimal("9.3"), null),
+                new ConversionAuditLog.Entry(servedAt, "10.0.0.2", "EUR", "RUB", BigDecimal.ONE,
+                        new BigDecimal("105.5"), new BigDecimal("105.5"), LocalDate.of(2024, 12, 27)));
+
+        auditLog.flush(batch);
+
+        verify(session, times(2)).setJdbcBatchSize(1000);
+        verify(repository, times(2)).saveAll(any());
+        List<ConversionAudit> rows = new ArrayList<>();
+        verify(repository, atLeastOnce()).saveAll(argThat(iterable -> {
+            rows.clear();
+            ((Iterable<ConversionAudit>) iterable).forEach(rows::add);
+            return true;
+        }));
+        assertEquals(2, rows.size());
+        assertEquals("EUR", rows.get(1).getFromCode());
+        assertEquals(LocalDate.of(2024, 12, 27), rows.get(1).getRateDate());
+        assertEquals(2, meterRegistry.get("rates.audit.written").counter().count());
+        assertEquals(0, meterRegistry.get("rates.audit.failed").counter().count());
+
+        reset(repository);
+        when(repository.saveAll(any())).thenThrow(new IllegalStateException("Connection is closed"));
+        auditLog.flush(batch);
+        verify(repository, times(ConversionAuditLog.MAX_ATTEMPTS)).saveAll(any());
+        assertEquals(2, meterRegistry.get("rates.audit.failed").counter().count());
+    }
+}
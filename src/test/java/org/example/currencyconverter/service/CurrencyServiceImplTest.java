@@ -1,26 +1,64 @@
 package org.example.currencyconverter.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.currencyconverter.api.dto.ConversionDto;
+import org.example.currencyconverter.api.dto.ConversionRequestDto;
 import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.api.dto.RatesDeltaDto;
 import org.example.currencyconverter.persistence.entity.Currency;
 import org.example.currencyconverter.persistence.repository.CurrencyRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class CurrencyServiceImplTest {
     @Mock
-    CbrRatesService mockedCbrRates = mock(CbrRatesService.class);
+    private MultiSourceRatesService ratesService;
     @Mock
     private CurrencyRepository currencyRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private RateHistoryService rateHistoryService;
+    @Mock
+    private RatesSnapshotStore snapshotStore;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ClusterCoordinator cluster;
+    @Mock
+    private RateArchive rateArchive;
+    @Mock
+    private RollingStatistics statistics;
+    @Captor
+    private ArgumentCaptor<Iterable<Currency>> savedCurrencies;
+    @Captor
+    private ArgumentCaptor<Collection<String>> charCodes;
 
     @InjectMocks
     private CurrencyServiceImpl currencyService;
@@ -36,7 +74,7 @@ class CurrencyServiceImplTest {
         Currency currency = new Currency();
         currency.setCharCode("USD");
         currency.setName("Доллар США");
-        currency.setValue(97.132);
+        currency.setValue(new BigDecimal("97.132"));
 
         when(currencyRepository.save(currency)).thenReturn(currency);
 
@@ -54,12 +92,12 @@ class CurrencyServiceImplTest {
         Currency currency1 = new Currency();
         currency1.setCharCode("USD");
         currency1.setName("Доллар США");
-        currency1.setValue(97.132);
+        currency1.setValue(new BigDecimal("97.132"));
 
         Currency currency2 = new Currency();
         currency2.setCharCode("EUR");
         currency2.setName("Евро");
-        currency2.setValue(102.746);
+        currency2.setValue(new BigDecimal("102.746"));
 
         List<Currency> currencies = Arrays.asList(currency1, currency2);
 
@@ -84,29 +122,360 @@ class CurrencyServiceImplTest {
     }
 
     @Test
-    void testGetByCharCode() {
-        Currency currency = new Currency();
-        currency.setCharCode("USD");
-        currency.setName("Доллар США");
-        currency.setValue(97.132);
+    void testFindByCharCode() {
+        currencyService.publishSnapshot(List.of(
+                new CurrencyDto("USD", "Доллар США", new BigDecimal("97.132")),
+                new CurrencyDto("EUR", "Евро", new BigDecimal("102.746"))
+        ), null);
 
-        when(currencyRepository.findByCharCode("USD")).thenReturn(Optional.of(currency));
-
-        CurrencyDto currencyDto = currencyService.getByCharCode("USD");
+        CurrencyDto currencyDto = currencyService.findByCharCode("USD");
 
         assertNotNull(currencyDto);
         assertEquals("USD", currencyDto.charCode);
         assertEquals("Доллар США", currencyDto.name);
-        verify(currencyRepository, times(1)).findByCharCode("USD");
+        assertDecimal("97.132", currencyDto.value);
+        assertEquals(1.0, meterRegistry.get("rates.lookup").tags("code", "USD", "result", "hit").counter().count());
+        verifyNoInteractions(currencyRepository);
+    }
+
+    @Test
+    void testPublishSnapshot_ReplacesPreviousSnapshot() {
+        currencyService.publishSnapshot(List.of(new CurrencyDto("USD", "Доллар США", new BigDecimal("97.132"))), null);
+        RatesSnapshot first = currencyService.getSnapshot();
+
+        currencyService.publishSnapshot(List.of(new CurrencyDto("USD", "Доллар США", new BigDecimal("98.5"))), null);
+
+        assertDecimal("97.132", first.get("USD").value);
+        assertDecimal("98.5", currencyService.findByCharCode("USD").value);
+        assertEquals(first.getVersion() + 1, currencyService.getSnapshot().getVersion());
+    }
+
+    @Test
+    void testPublishSnapshot_PublishesDelta() {
+        currencyService.publishSnapshot(List.of(
+                new CurrencyDto("USD", "Доллар США", new BigDecimal("97.132")),
+                new CurrencyDto("EUR", "Евро", new BigDecimal("102.746")),
+                new CurrencyDto("GBP", "Фунт стерлингов", new BigDecimal("120.5"))
+        ), null);
+        currencyService.publishSnapshot(List.of(
+                new CurrencyDto("USD", "Доллар США", new BigDecimal("98.5")),
+                new CurrencyDto("EUR", "Евро", new BigDecimal("102.746")),
+                new CurrencyDto("JPY", "Японских иен", new BigDecimal("64.3"))
+        ), null);
+
+        ArgumentCaptor<RatesChangedEvent> events = ArgumentCaptor.forClass(RatesChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        RatesDeltaDto delta = events.getAllValues().get(1).getDelta();
+        assertEquals(currencyService.getSnapshot().getVersion(), delta.version);
+        assertEquals(List.of("USD", "JPY"), delta.changed.stream().map(c -> c.charCode).toList());
+        assertEquals(List.of("GBP"), delta.removed);
     }
 
     @Test
-    void testGetByCharCode_ThrowsException() {
-        Exception exception = assertThrows(RuntimeException.class, () -> {
-            currencyService.getByCharCode("INVALID");
-        });
+    void testFindByCharCode_ReturnsNullForInvalidCode() {
+        assertNull(currencyService.findByCharCode("INVALID"));
+        assertEquals(1.0, meterRegistry.get("rates.lookup").tags("result", "miss").counter().count());
+        verifyNoInteractions(currencyRepository);
+    }
+
+    @Test
+    void testFindByCharCode_ReturnsNullForUnknownCode() {
+        currencyService.publishSnapshot(List.of(new CurrencyDto("USD", "Доллар США", new BigDecimal("97.132"))), null);
+
+        assertNull(currencyService.findByCharCode("XYZ"));
+        assertNull(currencyService.findByCharCode("usd1"));
+        assertEquals(2.0, meterRegistry.get("rates.lookup").tags("result", "miss").counter().count());
+    }
+
+    @Test
+    void testConvert() {
+        currencyService.publishSnapshot(List.of(
+                new CurrencyDto("USD", "Доллар США", new BigDecimal("100.0")),
+                new CurrencyDto("EUR", "Евро", new BigDecimal("110.0"))
+        ), null);
+
+        RatesSnapshot snapshot = currencyService.getSnapshot();
+        ConversionDto eurToUsd = currencyService.convert(snapshot, "EUR", "USD", new BigDecimal("10"));
+        ConversionDto usdToRub = currencyService.convert(snapshot, "USD", "RUB", new BigDecimal("2"));
+        ConversionDto rubToEur = currencyService.convert(snapshot, "RUB", "EUR", new BigDecimal("220"));
+
+        assertDecimal("1.1", eurToUsd.rate);
+        assertDecimal("11", eurToUsd.result);
+        assertDecimal("200", usdToRub.result);
+        assertDecimal("2", rubToEur.result);
+        assertDecimal("1", currencyService.convert(snapshot, "USD", "USD", new BigDecimal("1")).rate);
+        verifyNoInteractions(currencyRepository);
+    }
+
+    @Test
+    void testConvert_AppliesNominalAndRoundsHalfUp() {
+        currencyService.publishSnapshot(List.of(
+                new CurrencyDto("USD", "Доллар США", new BigDecimal("100")),
+                new CurrencyDto("JPY", "Японских иен", 100, new BigDecimal("64.3"))
+        ), null);
+
+        RatesSnapshot snapshot = currencyService.getSnapshot();
+        ConversionDto usdToJpy = currencyService.convert(snapshot, "USD", "JPY", new BigDecimal("1"));
+        ConversionDto jpyToRub = currencyService.convert(snapshot, "JPY", "RUB", new BigDecimal("1000"));
+        ConversionDto rubToUsd = currencyService.convert(snapshot, "RUB", "USD", new BigDecimal("0.05"));
+
+        assertEquals(new BigDecimal("155.5210"), usdToJpy.result);
+        assertEquals(new BigDecimal("155.52099533"), usdToJpy.rate);
+        assertEquals(new BigDecimal("643.0000"), jpyToRub.result);
+        assertEquals(new BigDecimal("0.0005"), rubToUsd.result);
+    }
+
+    @Test
+    void testConvert_ReportsUnknownCurrency() {
+        currencyService.publishSnapshot(List.of(new CurrencyDto("USD", "Доллар США", new BigDecimal("100.0"))), null);
+
+        RatesSnapshot snapshot = currencyService.getSnapshot();
+        ConversionDto conversion = currencyService.convert(snapshot, "USD", "XYZ", new BigDecimal("1"));
+
+        assertEquals("Валюта с кодом XYZ не найдена.", conversion.error);
+        assertNull(conversion.result);
+    }
+
+    @Test
+    void testConvertBatch() {
+        currencyService.publishSnapshot(List.of(
+                new CurrencyDto("USD", "Доллар США", new BigDecimal("100.0")),
+                new CurrencyDto("EUR", "Евро", new BigDecimal("110.0"))
+        ), null);
+        List<ConversionRequestDto> requests = List.of(
+                new ConversionRequestDto("EUR", "USD", new BigDecimal("10")),
+                new ConversionRequestDto("XYZ", "USD", new BigDecimal("1")),
+                new ConversionRequestDto("USD", "RUB", new BigDecimal("3"))
+        );
+        List<ConversionDto> results = new ArrayList<>();
+
+        currencyService.convertBatch(requests.iterator(), results::add);
+
+        assertEquals(3, results.size());
+        assertDecimal("11", results.get(0).result);
+        assertNull(results.get(0).error);
+        assertEquals("Валюта с кодом XYZ не найдена.", results.get(1).error);
+        assertDecimal("300", results.get(2).result);
+    }
+
+    @Test
+    void testApplyRates_MatchesExistingRowsByCharCode() {
+        runTransactionsInline();
+
+        Currency existingEur = new Currency();
+        existingEur.setCharCode("EUR");
+        existingEur.setName("Евро");
+        existingEur.setValue(new BigDecimal("100.0"));
+        when(currencyRepository.findAllByCharCodeIn(any())).thenReturn(List.of(existingEur));
+
+        assertTrue(currencyService.applyRates(edition(List.of(
+                new CurrencyDto("USD", "Доллар США", new BigDecimal("97.132")),
+                new CurrencyDto("EUR", "Евро", new BigDecimal("102.746"))
+        ))));
+
+        verify(currencyRepository, times(1)).saveAll(savedCurrencies.capture());
+        verify(currencyRepository, never()).findById(any());
+        verify(currencyRepository, never()).findAll();
+        List<Currency> saved = new ArrayList<>();
+        savedCurrencies.getValue().forEach(saved::add);
+        assertEquals(2, saved.size());
+        assertEquals("USD", saved.get(0).getCharCode());
+        assertSame(existingEur, saved.get(1));
+        assertDecimal("102.746", existingEur.getValue());
+        verify(rateHistoryService, times(1)).record(any(), anyList());
+    }
+
+    @Test
+    void testUpdateDB_SkipsDatabaseWhenRatesUnchanged() {
+        runTransactionsInline();
+        List<CurrencyDto> rates = List.of(
+                new CurrencyDto("USD", "Доллар США", new BigDecimal("97.132")),
+                new CurrencyDto("EUR", "Евро", new BigDecimal("102.746"))
+        );
+        when(ratesService.getRates()).thenReturn(Optional.of(edition(rates)))
+                .thenReturn(Optional.of(edition(List.copyOf(rates))));
+
+        currencyService.updateDB();
+        RatesSnapshot first = currencyService.getSnapshot();
+        currencyService.updateDB();
+
+        assertSame(first, currencyService.getSnapshot());
+        verify(currencyRepository, times(1)).saveAll(any());
+        verify(rateHistoryService, times(1)).record(any(), anyList());
+        verify(eventPublisher, times(1)).publishEvent(any(RatesChangedEvent.class));
+        verify(snapshotStore, times(1)).save(anyList(), any());
+        assertEquals(1.0, meterRegistry.get("rates.refresh").tags("result", "unchanged").counter().count());
+    }
+
+    @Test
+    void testUpdateDB_WritesOnlyChangedRows() {
+        runTransactionsInline();
+        Currency existingUsd = new Currency();
+        existingUsd.setCharCode("USD");
+        Currency existingGbp = new Currency();
+        existingGbp.setCharCode("GBP");
+        when(currencyRepository.findAllByCharCodeIn(any())).thenReturn(List.of())
+                .thenReturn(List.of(existingUsd, existingGbp));
+        when(ratesService.getRates())
+                .thenReturn(Optional.of(edition(List.of(
+                        new CurrencyDto("USD", "Доллар США", new BigDecimal("97.132")),
+                        new CurrencyDto("EUR", "Евро", new BigDecimal("102.746")),
+                        new CurrencyDto("GBP", "Фунт стерлингов", new BigDecimal("120.5"))))))
+                .thenReturn(Optional.of(edition(List.of(
+                        new CurrencyDto("USD", "Доллар США", new BigDecimal("98.5")),
+                        new CurrencyDto("EUR", "Евро", new BigDecimal("102.7460")),
+                        new CurrencyDto("JPY", "Японских иен", 100, new BigDecimal("64.3"))))));
+
+        currencyService.updateDB();
+        currencyService.updateDB();
+
+        verify(currencyRepository, times(2)).findAllByCharCodeIn(charCodes.capture());
+        assertEquals(List.of("USD", "JPY", "GBP"), List.copyOf(charCodes.getAllValues().get(1)));
+        verify(currencyRepository, times(2)).saveAll(savedCurrencies.capture());
+        List<Currency> written = new ArrayList<>();
+        savedCurrencies.getAllValues().get(1).forEach(written::add);
+        assertEquals(2, written.size());
+        assertSame(existingUsd, written.get(0));
+        assertDecimal("98.5", existingUsd.getValue());
+        assertEquals("JPY", written.get(1).getCharCode());
+        verify(currencyRepository).deleteAll(List.of(existingGbp));
+        verify(currencyRepository, never()).findAll();
+    }
+
+    @Test
+    void testUpdateDB_FollowerLoadsSharedSnapshotInsteadOfFetching() {
+        Instant refreshedAt = Instant.parse("2024-12-28T00:00:05Z");
+        RatesSnapshot shared = RatesSnapshot.of(
+                List.of(new CurrencyDto("USD", "Доллар США", new BigDecimal("101.6797"))), 7, refreshedAt,
+                LocalDate.of(2024, 12, 28));
+        when(cluster.isEnabled()).thenReturn(true);
+        when(cluster.loadIfChanged(0)).thenReturn(Optional.of(shared));
+        when(cluster.tryAcquireLeadership()).thenReturn(false);
+
+        currencyService.updateDB();
+
+        verify(ratesService, never()).getRates();
+        verifyNoInteractions(currencyRepository);
+        assertSame(shared, currencyService.getSnapshot());
+        ArgumentCaptor<RatesChangedEvent> event = ArgumentCaptor.forClass(RatesChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(7, event.getValue().getDelta().version);
+        verify(rateArchive).record(LocalDate.of(2024, 12, 28), shared.getCurrencies());
+    }
+
+    @Test
+    void testUpdateDB_AcknowledgesRatesOnlyAfterTheyArePersisted() {
+        runTransactionsInline();
+        RatesEdition edition = edition(List.of(new CurrencyDto("USD", "Доллар США", new BigDecimal("101.6797"))));
+        RatesEdition refetched = edition(List.copyOf(edition.currencies()));
+        when(ratesService.getRates()).thenReturn(Optional.of(edition)).thenReturn(Optional.of(refetched));
+        when(currencyRepository.saveAll(any())).thenThrow(new IllegalStateException("Connection is closed"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThrows(IllegalStateException.class, () -> currencyService.updateDB());
+        verify(ratesService, never()).acknowledge(any());
+        assertEquals(0, currencyService.getSnapshot().getVersion());
+
+        currencyService.updateDB();
+
+        verify(ratesService, times(2)).getRates();
+        verify(ratesService).acknowledge(refetched);
+        assertEquals(1, currencyService.getSnapshot().getVersion());
+        assertEquals(1.0, meterRegistry.get("rates.refresh").tags("result", "failure").counter().count());
+    }
+
+    @Test
+    void testUpdateDB_ArchivesRatesUnderEditionDate() {
+        runTransactionsInline();
+        LocalDate today = LocalDate.now();
+        LocalDate tomorrow = today.plusDays(1);
+        when(ratesService.getRates()).thenReturn(Optional.of(new RatesEdition(
+                List.of(new CurrencyDto("USD", "Доллар США", new BigDecimal("101.6797"))), tomorrow)));
+        when(rateArchive.find("USD", tomorrow)).thenReturn(RateArchive.pack(1, 1_016_797));
+
+        currencyService.updateDB();
+
+        assertEquals(tomorrow, currencyService.getSnapshot().getDate());
+        verify(rateArchive).record(eq(tomorrow), anyList());
+        verify(rateArchive, never()).record(eq(today), anyList());
+        verify(rateHistoryService).record(eq(tomorrow), anyList());
+        verify(statistics).record(eq(tomorrow), anyList());
+        verify(statistics, never()).record(eq(today), anyList());
+        assertEquals(new BigDecimal("101.6797"), currencyService.findByCharCode("USD", tomorrow).value);
+    }
+
+    @Test
+    void testCreateAndFillDB_RestoresStoredDateWithoutArchiving() {
+        LocalDate date = LocalDate.of(2024, 12, 28);
+        when(snapshotStore.load()).thenReturn(Optional.of(new RatesEdition(
+                List.of(new CurrencyDto("USD", "Доллар США", new BigDecimal("101.6797"))), date)));
+        when(ratesService.fetchRatesAsync()).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+
+        currencyService.createAndFillDB();
+
+        assertEquals(1, currencyService.getSnapshot().getVersion());
+        assertEquals(date, currencyService.getSnapshot().getDate());
+        verify(rateArchive, never()).record(any(), anyList());
+        verify(statistics, never()).record(any(), anyList());
+    }
+
+    @Test
+    void testUpdateDB_LeaderAdvancesSharedVersion() {
+        runTransactionsInline();
+        when(cluster.isEnabled()).thenReturn(true);
+        when(cluster.loadIfChanged(anyLong())).thenReturn(Optional.empty());
+        when(cluster.tryAcquireLeadership()).thenReturn(true);
+        when(ratesService.getRates()).thenReturn(
+                Optional.of(edition(List.of(new CurrencyDto("USD", "Доллар США", new BigDecimal("101.6797"))))));
+
+        currencyService.updateDB();
+
+        verify(cluster).advanceVersion(0, currencyService.getSnapshot());
+        assertEquals(1, currencyService.getSnapshot().getVersion());
+    }
+
+    @Test
+    void testConvert_AsOfDateUsesArchivedRates() {
+        LocalDate date = LocalDate.of(2024, 12, 27);
+        when(rateArchive.find("USD", date)).thenReturn(RateArchive.pack(1, 1_000_000));
+        when(rateArchive.find("JPY", date)).thenReturn(RateArchive.pack(100, 600_000));
+
+        ConversionDto conversion = currencyService.convert("USD", "JPY", BigDecimal.TEN, date);
+        CurrencyDto jpy = currencyService.findByCharCode("JPY", date);
+
+        assertNull(conversion.error);
+        assertEquals(new BigDecimal("1666.6667"), conversion.result);
+        assertEquals(new BigDecimal("166.66666667"), conversion.rate);
+        assertEquals(100, jpy.nominal);
+        assertEquals(new BigDecimal("60.0000"), jpy.value);
+        verifyNoInteractions(currencyRepository, rateHistoryService);
+    }
+
+    @Test
+    void testConvert_AsOfDateReportsMissingRate() {
+        LocalDate date = LocalDate.of(2024, 12, 27);
+        when(rateArchive.find("USD", date)).thenReturn(RateArchive.pack(1, 1_000_000));
+
+        ConversionDto missing = currencyService.convert("USD", "XYZ", BigDecimal.TEN, date);
+        ConversionDto future = currencyService.convert("USD", "USD", BigDecimal.TEN, LocalDate.now().plusDays(1));
+
+        assertEquals("Курс валюты XYZ на дату 2024-12-27 не найден.", missing.error);
+        assertNotNull(future.error);
+        assertNull(currencyService.findByCharCode("XYZ", date));
+    }
+
+    private static RatesEdition edition(List<CurrencyDto> currencies) {
+        return new RatesEdition(currencies, null);
+    }
+
+    private void runTransactionsInline() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
 
-        assertEquals("Валюта с кодом INVALID не найдена.", exception.getMessage());
-        verify(currencyRepository, times(1)).findByCharCode("INVALID");
+    private static void assertDecimal(String expected, BigDecimal actual) {
+        assertEquals(0, new BigDecimal(expected).compareTo(actual), () -> expected + " != " + actual);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,41 @@
+package org.example.currencyconverter.service;
+
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EcbRatesParserTest {
+
+    private static CurrencyDto find(List<CurrencyDto> currencies, String charCode) {
+        return currencies.stream().filter(c -> c.charCode.equals(charCode)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void testParse() throws IOException {
+        List<CurrencyDto> currencies = EcbRatesParser.parse(getClass().getResourceAsStream("/ecb/eurofxref-daily.xml"));
+
+        assertEquals(30, currencies.size());
+        CurrencyDto usd = find(currencies, "USD");
+        assertEquals(1, usd.nominal);
+        assertEquals(new BigDecimal("0.9574875527"), usd.value);
+        CurrencyDto jpy = find(currencies, "JPY");
+        assertEquals(100, jpy.nominal);
+        assertEquals(new BigDecimal("0.6090875868"), jpy.value);
+        assertEquals(10000, find(currencies, "IDR").nominal);
+        assertEquals("доллар США", usd.name);
+    }
+
+    @Test
+    void testParse_ThrowsExceptionForMalformedDocument() {
+        byte[] malformed = "<Cube><Cube currency='USD' rate='x'/></Cube>".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(IOException.class, () -> EcbRatesParser.parse(new ByteArrayInputStream(malformed)));
+    }
+}
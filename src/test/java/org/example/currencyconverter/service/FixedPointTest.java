@@ -0,0 +1,52 @@
+package org.example.currencyconverter.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointTest {
+
+    private static long expected(long a, long b, long c) {
+        return BigDecimal.valueOf(a).multiply(BigDecimal.valueOf(b))
+                .divide(BigDecimal.valueOf(c), 0, FixedPoint.ROUNDING)
+                .longValueExact();
+    }
+
+    @Test
+    void testMulDiv_RoundsHalfAwayFromZero() {
+        assertEquals(3, FixedPoint.mulDiv(5, 1, 2));
+        assertEquals(-3, FixedPoint.mulDiv(-5, 1, 2));
+        assertEquals(3, FixedPoint.mulDiv(10, 1, 3));
+        assertEquals(7, FixedPoint.mulDiv(20, 1, 3));
+    }
+
+    @Test
+    void testMulDiv_MatchesBigDecimalBeyond64BitProducts() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long a = random.nextLong() >> random.nextInt(40);
+            long b = 1 + (random.nextLong() >>> (24 + random.nextInt(40)));
+            long c = 1 + (random.nextLong() >>> (25 + random.nextInt(39)));
+            long expected;
+            try {
+                expected = expected(a, b, c);
+            } catch (ArithmeticException e) {
+                assertThrows(ArithmeticException.class, () -> FixedPoint.mulDiv(a, b, c));
+                assertThrows(ArithmeticException.class, () -> FixedPoint.mulDiv(a, b, c, (double) b / c));
+                continue;
+            }
+            assertEquals(expected, FixedPoint.mulDiv(a, b, c), a + " * " + b + " / " + c);
+            assertEquals(expected, FixedPoint.mulDiv(a, b, c, (double) b / c), a + " * " + b + " / " + c);
+        }
+    }
+
+    @Test
+    void testToScaled() {
+        assertEquals(1_016_797, FixedPoint.toScaled(new BigDecimal("101.6797"), FixedPoint.SCALE));
+        assertEquals(1_000_050, FixedPoint.toScaled(new BigDecimal("100.00495"), FixedPoint.SCALE));
+        assertEquals(new BigDecimal("101.6797"), FixedPoint.toDecimal(1_016_797, FixedPoint.SCALE));
+    }
+}
@@ -0,0 +1,209 @@
+package org.example.currencyconverter.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MultiSourceRatesServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    /**
+     * Источник, возвращающий заранее заданные ответы по очереди.
+     */
+    private static class StubProvider implements RateProvider {
+        private final String name;
+        private final String baseCode;
+        private final Queue<CompletableFuture<Optional<RatesEdition>>> responses = new ArrayDeque<>();
+
+        StubProvider(String name, String baseCode) {
+            this.name = name;
+            this.baseCode = baseCode;
+        }
+
+        StubProvider then(CurrencyDto... currencies) {
+            return thenDated(null, currencies);
+        }
+
+        StubProvider thenDated(LocalDate date, CurrencyDto... currencies) {
+            responses.add(CompletableFuture.completedFuture(Optional.of(new RatesEdition(List.of(currencies), date))));
+            return this;
+        }
+
+        StubProvider thenUnchanged() {
+            responses.add(CompletableFuture.completedFuture(Optional.empty()));
+            return this;
+        }
+
+        StubProvider thenFail() {
+            responses.add(CompletableFuture.failedFuture(new RuntimeException("недоступен")));
+            return this;
+        }
+
+        StubProvider thenHang() {
+            responses.add(new CompletableFuture<>());
+            return this;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getBaseCode() {
+            return baseCode;
+        }
+
+        @Override
+        public CompletableFuture<Optional<RatesEdition>> fetchRatesAsync() {
+            return responses.remove();
+        }
+    }
+
+    private MultiSourceRatesService createService(RateProvider... providers) {
+        return createService(Duration.ofMillis(200), providers);
+    }
+
+    private MultiSourceRatesService createService(Duration timeout, RateProvider... providers) {
+        List<String> priority = Arrays.stream(providers).map(RateProvider::getName).toList();
+        return new MultiSourceRatesService(List.of(providers), priority, timeout, meterRegistry);
+    }
+
+    private static CurrencyDto currency(String charCode, int nominal, String value) {
+        return new CurrencyDto(charCode, charCode, nominal, new BigDecimal(value));
+    }
+
+    private static CurrencyDto find(List<CurrencyDto> currencies, String charCode) {
+        return currencies.stream().filter(c -> c.charCode.equals(charCode)).findFirst().orElseThrow();
+    }
+
+    @Test
+    void testGetRates_MergesByPriority() {
+        StubProvider primary = new StubProvider("primary", "RUB")
+                .then(currency("USD", 1, "100"), currency("EUR", 1, "110"));
+        StubProvider secondary = new StubProvider("secondary", "RUB")
+                .then(currency("USD", 1, "90"), currency("GBP", 1, "120"));
+
+        List<CurrencyDto> rates = createService(primary, secondary).getRates().orElseThrow().currencies();
+
+        assertEquals(3, rates.size());
+        assertEquals(new BigDecimal("100"), find(rates, "USD").value);
+        assertEquals(new BigDecimal("120"), find(rates, "GBP").value);
+    }
+
+    @Test
+    void testGetRates_FallsBackOnTimeoutAndFailure() {
+        StubProvider slow = new StubProvider("slow", "RUB").thenHang();
+        StubProvider broken = new StubProvider("broken", "RUB").thenFail();
+        StubProvider fallback = new StubProvider("fallback", "RUB").then(currency("USD", 1, "95"));
+
+        List<CurrencyDto> rates = createService(slow, broken, fallback).getRates().orElseThrow().currencies();
+
+        assertEquals(new BigDecimal("95"), find(rates, "USD").value);
+        assertEquals(1.0, meterRegistry.get("rates.provider.fetch").tags("provider", "slow", "result", "timeout").counter().count());
+        assertEquals(1.0, meterRegistry.get("rates.provider.fetch").tags("provider", "broken", "result", "failure").counter().count());
+    }
+
+    @Test
+    void testGetRates_RebasesOtherBaseCurrencyToRubles() {
+        StubProvider cbr = new StubProvider("cbr", "RUB").then(currency("EUR", 1, "106.1878"));
+        StubProvider ecb = new StubProvider("ecb", "EUR")
+                .then(currency("USD", 1, "0.9574875527"), currency("JPY", 100, "0.6090875868"));
+
+        List<CurrencyDto> rates = createService(cbr, ecb).getRates().orElseThrow().currencies();
+
+        assertEquals(new BigDecimal("101.6735"), find(rates, "USD").value);
+        assertEquals(100, find(rates, "JPY").nominal);
+        assertEquals(new BigDecimal("64.6777"), find(rates, "JPY").value);
+    }
+
+    @Test
+    void testGetRates_UsesLastRatesOfFailedProviderAsAnchor() {
+        StubProvider cbr = new StubProvider("cbr", "RUB")
+                .then(currency("EUR", 1, "106.1878"), currency("USD", 1, "101.6797"))
+                .thenFail();
+        StubProvider ecb = new StubProvider("ecb", "EUR")
+                .then(currency("JPY", 100, "0.6090875868"))
+                .then(currency("JPY", 100, "0.6000000000"));
+        MultiSourceRatesService service = createService(cbr, ecb);
+        service.acknowledge(service.getRates().orElseThrow());
+
+        List<CurrencyDto> rates = service.getRates().orElseThrow().currencies();
+
+        assertEquals(new BigDecimal("101.6797"), find(rates, "USD").value);
+        assertEquals(new BigDecimal("63.7127"), find(rates, "JPY").value);
+        assertEquals(1.0, meterRegistry.get("rates.provider.fetch").tags("provider", "cbr", "result", "failure").counter().count());
+    }
+
+    @Test
+    void testGetRates_DoesNotWaitForLowerPriorityOnceHighestHasNewRates() {
+        StubProvider primary = new StubProvider("primary", "RUB")
+                .then(currency("USD", 1, "100"))
+                .then(currency("USD", 1, "101"));
+        StubProvider secondary = new StubProvider("secondary", "RUB")
+                .then(currency("GBP", 1, "120"))
+                .thenHang();
+        MultiSourceRatesService service = createService(Duration.ofSeconds(30), primary, secondary);
+        service.acknowledge(service.getRates().orElseThrow());
+
+        long start = System.nanoTime();
+        List<CurrencyDto> rates = service.getRates().orElseThrow().currencies();
+
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(10).toNanos());
+        assertEquals(new BigDecimal("101"), find(rates, "USD").value);
+        assertEquals(new BigDecimal("120"), find(rates, "GBP").value);
+    }
+
+    @Test
+    void testGetRates_TakesDateFromHighestPriorityDatedProvider() {
+        StubProvider file = new StubProvider("file", "RUB").then(currency("GBP", 1, "120"));
+        StubProvider cbr = new StubProvider("cbr", "RUB").thenDated(LocalDate.of(2024, 12, 28), currency("EUR", 1, "106.1878"));
+        StubProvider ecb = new StubProvider("ecb", "EUR").then(currency("USD", 1, "0.9574875527"));
+
+        RatesEdition edition = createService(file, cbr, ecb).getRates().orElseThrow();
+
+        assertEquals(LocalDate.of(2024, 12, 28), edition.date());
+        assertEquals(3, edition.currencies().size());
+    }
+
+    @Test
+    void testGetRates_ReturnsEmptyWhenNothingChanged() {
+        StubProvider primary = new StubProvider("primary", "RUB").then(currency("USD", 1, "100")).thenUnchanged();
+        StubProvider secondary = new StubProvider("secondary", "RUB").then(currency("GBP", 1, "120")).thenFail();
+        MultiSourceRatesService service = createService(primary, secondary);
+
+        service.acknowledge(service.getRates().orElseThrow());
+        assertTrue(service.getRates().isEmpty());
+    }
+
+    @Test
+    void testGetRates_ThrowsExceptionWhenAllProvidersFail() {
+        StubProvider primary = new StubProvider("primary", "RUB").thenFail();
+        StubProvider secondary = new StubProvider("secondary", "RUB").thenHang();
+
+        Exception exception = assertThrows(RuntimeException.class, () -> createService(primary, secondary).getRates());
+
+        assertEquals("Ошибка при получении курсов валют", exception.getMessage());
+    }
+
+    @Test
+    void testConstructor_RejectsUnknownProvider() {
+        StubProvider primary = new StubProvider("primary", "RUB");
+
+        assertThrows(IllegalStateException.class, () -> new MultiSourceRatesService(
+                List.of(primary), List.of("primary", "missing"), Duration.ofSeconds(1), meterRegistry));
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.currencyconverter.service;
+
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class RateArchiveTest {
+
+    private static final LocalDate FRIDAY = LocalDate.of(2024, 12, 27);
+
+    @TempDir
+    Path dir;
+
+    private final CbrRatesService cbrRatesService = mock(CbrRatesService.class);
+    private RateArchive archive;
+
+    private RateArchive open() {
+        archive = new RateArchive(dir.resolve("rates.archive").toString(), "", cbrRatesService, Runnable::run);
+        archive.open();
+        return archive;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (archive != null) {
+            archive.close();
+        }
+    }
+
+    private static List<CurrencyDto> rates(String usd, String jpy) {
+        return List.of(new CurrencyDto("USD", "Доллар США", 1, new BigDecimal(usd)),
+                new CurrencyDto("JPY", "Иен", 100, new BigDecimal(jpy)));
+    }
+
+    private static BigDecimal value(long entry) {
+        return FixedPoint.toDecimal(RateArchive.value(entry), FixedPoint.SCALE);
+    }
+
+    @Test
+    void testFind_ReturnsRecordedRate() {
+        RateArchive archive = open();
+        archive.record(FRIDAY, rates("101.6797", "64.9084"));
+        archive.record(FRIDAY.plusDays(1), rates("100.0000", "63.0000"));
+
+        long usd = archive.find("USD", FRIDAY);
+        long jpy = archive.find("JPY", FRIDAY);
+
+        assertEquals(1, RateArchive.nominal(usd));
+        assertEquals(new BigDecimal("101.6797"), value(usd));
+        assertEquals(100, RateArchive.nominal(jpy));
+        assertEquals(new BigDecimal("64.9084"), value(jpy));
+        assertEquals(new BigDecimal("1.0000"), value(archive.find("RUB", FRIDAY)));
+        assertEquals(0, archive.find("EUR", FRIDAY));
+    }
+
+    @Test
+    void testFind_UsesLastPublishedDayWithinGap() {
+        RateArchive archive = open();
+        archive.record(FRIDAY, rates("101.6797", "64.9084"));
+
+        assertEquals(new BigDecimal("101.6797"), value(archive.find("USD", FRIDAY.plusDays(2))));
+        assertEquals(0, archive.find("USD", FRIDAY.minusDays(1)));
+        assertEquals(0, archive.find("USD", FRIDAY.plusDays(RateArchive.MAX_GAP_DAYS)));
+    }
+
+    @Test
+    void testRecord_ClearsCurrenciesDroppedFromEdition() {
+        RateArchive archive = open();
+        archive.record(FRIDAY, rates("101.6797", "64.9084"));
+        archive.record(FRIDAY.plusDays(1), rates("100.0000", "63.0000"));
+
+        archive.record(FRIDAY, List.of(new CurrencyDto("USD", "Доллар США", 1, new BigDecimal("101.5000"))));
+
+        assertEquals(new BigDecimal("101.5000"), value(archive.find("USD", FRIDAY)));
+        assertEquals(0, archive.find("JPY", FRIDAY));
+        assertEquals(new BigDecimal("63.0000"), value(archive.find("JPY", FRIDAY.plusDays(1))));
+    }
+
+    @Test
+    void testReopen_KeepsRecordedRates() {
+        open().record(FRIDAY, rates("101.6797", "64.9084"));
+        archive.close();
+
+        RateArchive reopened = open();
+
+        assertEquals(new BigDecimal("64.9084"), value(reopened.find("JPY", FRIDAY)));
+        assertTrue(reopened.isChecked(FRIDAY));
+    }
+
+    @Test
+    void testBackfill_MarksDaysWithoutRates() {
+        when(cbrRatesService.fetchArchiveAsync(any())).thenReturn(CompletableFuture.completedFuture(Optional.empty()));
+        when(cbrRatesService.fetchArchiveAsync(FRIDAY))
+                .thenReturn(CompletableFuture.completedFuture(Optional.of(rates("101.6797", "64.9084"))));
+        RateArchive archive = open();
+
+        assertEquals(1, archive.backfill(FRIDAY, FRIDAY.plusDays(2)));
+        assertEquals(0, archive.backfill(FRIDAY, FRIDAY.plusDays(2)));
+
+        assertTrue(archive.isChecked(FRIDAY.plusDays(1)));
+        assertEquals(new BigDecimal("101.6797"), value(archive.find("USD", FRIDAY.plusDays(2))));
+        verify(cbrRatesService, times(3)).fetchArchiveAsync(any());
+    }
+}
@@ -0,0 +1,99 @@
+package org.example.currencyconverter.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RatesRefreshSchedulerTest {
+
+    private static final LocalDate THURSDAY = LocalDate.of(2024, 12, 26);
+    private static final LocalDate FRIDAY = LocalDate.of(2024, 12, 27);
+    private static final LocalDate SATURDAY = LocalDate.of(2024, 12, 28);
+
+    private final CurrencyServiceImpl currencyService = mock(CurrencyServiceImpl.class);
+    private final RatesRefreshScheduler scheduler = new RatesRefreshScheduler(
+            currencyService, new SimpleMeterRegistry(),
+            ZoneId.of("Europe/Moscow"), LocalTime.of(15, 0), LocalTime.of(21, 0),
+            Duration.ofMinutes(5), Duration.ofHours(6),
+            List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY), false);
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    private static Instant moscow(LocalDate date, int hour, int minute) {
+        return OffsetDateTime.of(date.atTime(hour, minute), ZoneOffset.ofHours(3)).toInstant();
+    }
+
+    private void serve(LocalDate date) {
+        when(currencyService.getSnapshot()).thenReturn(date == null ? RatesSnapshot.EMPTY
+                : RatesSnapshot.of(List.of(new CurrencyDto("USD", "Доллар США", new BigDecimal("101.6797"))), 1, date));
+    }
+
+    @Test
+    void testNextRun_WaitsForWindowWhenCurrent() {
+        serve(FRIDAY);
+
+        assertEquals(moscow(FRIDAY, 15, 0), scheduler.nextRun(moscow(FRIDAY, 10, 0)));
+        assertEquals(0, scheduler.stalenessSeconds(moscow(FRIDAY, 10, 0)));
+    }
+
+    @Test
+    void testNextRun_PollsInWindowUntilEditionArrives() {
+        serve(FRIDAY);
+
+        assertEquals(moscow(FRIDAY, 16, 5), scheduler.nextRun(moscow(FRIDAY, 16, 0)));
+        assertEquals(3600, scheduler.stalenessSeconds(moscow(FRIDAY, 16, 0)));
+        assertEquals(moscow(SATURDAY, 3, 0), scheduler.nextRun(moscow(FRIDAY, 21, 0)));
+    }
+
+    @Test
+    void testNextRun_BacksOffOverWeekendOnceEditionArrives() {
+        serve(SATURDAY);
+
+        assertEquals(moscow(FRIDAY, 22, 5), scheduler.nextRun(moscow(FRIDAY, 16, 5)));
+        assertEquals(0, scheduler.stalenessSeconds(moscow(SATURDAY.plusDays(1), 18, 0)));
+        assertEquals(moscow(SATURDAY, 22, 0), scheduler.nextRun(moscow(SATURDAY, 16, 0)));
+    }
+
+    @Test
+    void testStaleness_CountsFromLastPublicationWithoutRates() {
+        serve(null);
+
+        assertEquals(21 * 3600, scheduler.stalenessSeconds(moscow(THURSDAY, 12, 0)));
+        assertTrue(Double.isNaN(scheduler.dataAgeSeconds(moscow(THURSDAY, 12, 0))));
+        assertEquals(moscow(THURSDAY, 15, 0), scheduler.nextRun(moscow(THURSDAY, 12, 0)));
+    }
+
+    @Test
+    void testStaleness_CountsFromFirstMissedPublicationOfRestoredSnapshot() {
+        serve(THURSDAY.minusDays(7));
+
+        assertEquals(7 * 24 * 3600 - 3 * 3600, scheduler.stalenessSeconds(moscow(THURSDAY, 12, 0)));
+        assertEquals(8 * 24 * 3600 - 3 * 3600, scheduler.dataAgeSeconds(moscow(THURSDAY, 12, 0)));
+    }
+
+    @Test
+    void testDataAge_CountsFromPublicationOfServedEdition() {
+        serve(SATURDAY);
+
+        assertEquals(3600, scheduler.dataAgeSeconds(moscow(FRIDAY, 16, 0)));
+        assertEquals(3 * 24 * 3600, scheduler.dataAgeSeconds(moscow(SATURDAY.plusDays(2), 15, 0)));
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.currencyconverter.service;
+
+import org.example.currencyconverter.api.dto.CurrencyDto;
+import org.example.currencyconverter.api.dto.RateStatisticsDto;
+import org.example.currencyconverter.api.dto.RateWindowStatsDto;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RollingStatisticsTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private final RateArchive rateArchive = mock(RateArchive.class);
+    private final RollingStatistics statistics = new RollingStatistics(rateArchive);
+
+    private void record(LocalDate date, String usd) {
+        statistics.record(date, List.of(new CurrencyDto("USD", "Доллар США", 1, new BigDecimal(usd))));
+    }
+
+    private static void assertDecimal(double expected, BigDecimal actual) {
+        assertEquals(expected, actual.doubleValue(), 1e-4);
+    }
+
+    @Test
+    void testRecord_MatchesFullRecomputation() {
+        Random random = new Random(42);
+        List<Double> values = new ArrayList<>();
+        for (int day = 0; day < 500; day++) {
+            double value = 80 + random.nextInt(400_000) / 10_000.0;
+            values.add(value);
+            record(START.plusDays(day), BigDecimal.valueOf(value).toPlainString());
+        }
+
+        RateStatisticsDto usd = statistics.get("USD");
+
+        assertEquals(START.plusDays(499), usd.date);
+        assertDecimal((values.get(499) - values.get(498)) / values.get(498) * 100, usd.changePercent);
+        for (RateWindowStatsDto window : usd.windows) {
+            List<Double> tail = values.subList(values.size() - window.days, values.size());
+            double mean = tail.stream().mapToDouble(Double::doubleValue).average().orElseThrow();
+            double variance = tail.stream().mapToDouble(v -> (v - mean) * (v - mean)).average().orElseThrow();
+            assertEquals(window.days, window.samples);
+            assertDecimal(mean, window.mean);
+            assertDecimal(tail.stream().mapToDouble(Double::doubleValue).min().orElseThrow(), window.min);
+            assertDecimal(tail.stream().mapToDouble(Double::doubleValue).max().orElseThrow(), window.max);
+            assertDecimal(Math.sqrt(variance), window.stdDev);
+        }
+    }
+
+    @Test
+    void testRecord_FillsDaysWithoutRatesAndReplacesSameDay() {
+        record(START, "100");
+        record(START.plusDays(3), "90");
+        record(START.plusDays(3), "110");
+
+        RateStatisticsDto usd = statistics.get("USD");
+        RateWindowStatsDto week = usd.windows.get(0);
+
+        assertEquals(4, week.samples);
+        assertDecimal(102.5, week.mean);
+        assertDecimal(100, week.min);
+        assertDecimal(110, week.max);
+        assertDecimal(10, usd.changePercent);
+        assertNull(statistics.get("EUR"));
+    }
+
+    @Test
+    void testRestore_ReadsArchive() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        when(rateArchive.charCodes()).thenReturn(List.of("JPY"));
+        when(rateArchive.find(eq("JPY"), any())).thenReturn(0L);
+        when(rateArchive.find("JPY", yesterday)).thenReturn(RateArchive.pack(100, 649_084));
+
+        statistics.restore();
+
+        RateStatisticsDto jpy = statistics.get("JPY");
+        assertEquals(yesterday, jpy.date);
+        assertDecimal(0.649084, jpy.value);
+        assertNull(jpy.changePercent);
+    }
+}